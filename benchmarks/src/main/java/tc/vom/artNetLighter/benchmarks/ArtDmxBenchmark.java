@@ -0,0 +1,99 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import tc.vom.artNetLighter.infrastructure.packets.ArtDmx;
+import tc.vom.artNetLighter.infrastructure.packets.ArtDmxView;
+import tc.vom.artNetLighter.infrastructure.packets.ArtNetPacketDecoderRegistry;
+import tc.vom.artNetLighter.infrastructure.packets._ArtNetPacket;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construct and parse ArtDmx-packets of different sizes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArtDmxBenchmark {
+
+    @Param({"1", "128", "512"})
+    public int channels;
+
+    private byte[] data;
+    private ArtDmx packet;
+    private byte[] encoded;
+    private byte[] target;
+    private ByteBuffer directTarget;
+    private ByteBuffer directEncoded;
+    private final ArtDmxView view = new ArtDmxView();
+
+    @Setup
+    public void setUp() {
+        this.data = new byte[this.channels];
+        for (int i = 0; i < this.data.length; i++) {
+            this.data[i] = (byte) i;
+        }
+        this.packet = new ArtDmx((byte) 1, (byte) 0, 0x123, this.data);
+        this.encoded = this.packet.constructPacket();
+        this.target = new byte[ArtDmx.MAXIMUM_PACKET_SIZE];
+        this.directTarget = ByteBuffer.allocateDirect(ArtDmx.MAXIMUM_PACKET_SIZE);
+        this.directEncoded = ByteBuffer.allocateDirect(this.encoded.length);
+        this.directEncoded.put(this.encoded).flip();
+    }
+
+    @Benchmark
+    public ArtDmx construct() {
+        return new ArtDmx((byte) 1, (byte) 0, 0x123, this.data);
+    }
+
+    @Benchmark
+    public byte[] constructPacket() {
+        return this.packet.constructPacket();
+    }
+
+    @Benchmark
+    public int encodePacket() {
+        return ArtDmx.encodePacket(this.target, 0, (byte) 1, (byte) 0, 0x123, this.data, 0, this.data.length);
+    }
+
+    @Benchmark
+    public int encodePacketDirect() {
+        return ArtDmx.encodePacket(this.directTarget, 0, (byte) 1, (byte) 0, 0x123, this.data, 0, this.data.length);
+    }
+
+    @Benchmark
+    public ArtDmx parse() {
+        return new ArtDmx(this.encoded);
+    }
+
+    @Benchmark
+    public _ArtNetPacket decode() {
+        return ArtNetPacketDecoderRegistry.getDefault().decode(this.encoded);
+    }
+
+    @Benchmark
+    public int view() {
+        this.view.wrap(this.directEncoded);
+        return this.view.getPortAddress() + this.view.getData(this.view.getDataLength() - 1);
+    }
+}
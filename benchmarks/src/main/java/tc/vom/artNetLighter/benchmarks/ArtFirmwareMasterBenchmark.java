@@ -0,0 +1,83 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import tc.vom.artNetLighter.infrastructure.packets.ArtFirmwareMaster;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construct and parse ArtFirmwareMaster-packets carrying a full block of 512 words.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArtFirmwareMasterBenchmark {
+
+    private short[] data;
+    private byte[] bytes;
+    private ByteBuffer image;
+    private ArtFirmwareMaster packet;
+    private byte[] encoded;
+    private final byte[] buffer = new byte[ArtFirmwareMaster.MAXIMUM_PACKET_LENGTH];
+
+    @Setup
+    public void setUp() {
+        this.data = new short[ArtFirmwareMaster.MAX_DATA_LENGTH];
+        for (int i = 0; i < this.data.length; i++) {
+            this.data[i] = (short) (i * 31);
+        }
+        this.packet = this.construct();
+        this.encoded = this.packet.constructPacket();
+        this.bytes = new byte[ArtFirmwareMaster.MAX_DATA_BYTES];
+        this.packet.copyData(this.bytes, 0);
+        this.image = ByteBuffer.allocateDirect(ArtFirmwareMaster.MAX_DATA_BYTES);
+        this.image.put(this.bytes);
+        ArtFirmwareMaster.encodeHeader(this.buffer, 0);
+    }
+
+    @Benchmark
+    public ArtFirmwareMaster construct() {
+        return new ArtFirmwareMaster(ArtFirmwareMaster.TypeConstants.FirmCont, (byte) 1, 0x10000, this.data);
+    }
+
+    @Benchmark
+    public ArtFirmwareMaster constructFromBytes() {
+        return new ArtFirmwareMaster(ArtFirmwareMaster.TypeConstants.FirmCont, (byte) 1, 0x10000, this.bytes, 0, this.bytes.length);
+    }
+
+    @Benchmark
+    public int encodeFromDirectBuffer() {
+        this.image.clear();
+        return ArtFirmwareMaster.encodePacket(this.buffer, 0, ArtFirmwareMaster.TypeConstants.FirmCont, (byte) 1, 0x10000, this.image);
+    }
+
+    @Benchmark
+    public byte[] constructPacket() {
+        return this.packet.constructPacket();
+    }
+
+    @Benchmark
+    public ArtFirmwareMaster parse() {
+        return new ArtFirmwareMaster(this.encoded);
+    }
+}
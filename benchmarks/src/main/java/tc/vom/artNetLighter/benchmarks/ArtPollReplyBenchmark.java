@@ -0,0 +1,79 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import tc.vom.artNetLighter.infrastructure.packets.ArtPollReply;
+import tc.vom.artNetLighter.infrastructure.packets.ArtPollReplyView;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construct and parse ArtPollReply-packets.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArtPollReplyBenchmark {
+
+    private static final byte[] PORT_TYPES = {(byte) 0x80, (byte) 0x80, 0x40, 0x40};
+    private static final byte[] GOOD_INPUT = {0, 0, (byte) 0x80, (byte) 0x80};
+    private static final byte[] GOOD_OUTPUT = {(byte) 0x80, (byte) 0x80, 0, 0};
+    private static final byte[] UNIVERSES_IN = {0, 0, 2, 3};
+    private static final byte[] UNIVERSES_OUT = {0, 1, 0, 0};
+    private static final byte[] MAC_ADDRESS = {0x32, 0x31, (byte) 0x82, (byte) 0x81, 0x01, 0x02};
+
+    private ArtPollReply packet;
+    private byte[] encoded;
+    private final ArtPollReplyView view = new ArtPollReplyView();
+
+    @Setup
+    public void setUp() {
+        this.packet = this.construct();
+        this.encoded = this.packet.constructPacket();
+    }
+
+    @Benchmark
+    public ArtPollReply construct() {
+        return new ArtPollReply((2 << 24) | (7 << 16) | (90 << 8) | 145, 0x1936, 0x0101, (byte) 0, (byte) 1, 0x0190, (byte) 0, (byte) 0x02, 0x7ff0, "Benchmark Node", "ArtNetLighter Benchmark Node", "#0001 [0042] Power On Tests successful", 4, ArtPollReplyBenchmark.PORT_TYPES, ArtPollReplyBenchmark.GOOD_INPUT, ArtPollReplyBenchmark.GOOD_OUTPUT, ArtPollReplyBenchmark.UNIVERSES_IN, ArtPollReplyBenchmark.UNIVERSES_OUT, (byte) 0, (byte) 0, (byte) 0, (byte) 0, ArtPollReplyBenchmark.MAC_ADDRESS, 0, (byte) 1, (byte) 0);
+    }
+
+    @Benchmark
+    public byte[] constructPacket() {
+        return this.packet.constructPacket();
+    }
+
+    @Benchmark
+    public ArtPollReply parse() {
+        return new ArtPollReply(this.encoded);
+    }
+
+    @Benchmark
+    public int view() {
+        this.view.wrap(this.encoded, 0, this.encoded.length);
+        return this.view.getIpAddress() + this.view.getPortAddressOut(1) + this.view.getStatus1();
+    }
+
+    @Benchmark
+    public String viewShortName() {
+        this.view.wrap(this.encoded, 0, this.encoded.length);
+        return this.view.getShortName();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import tc.vom.artNetLighter.infrastructure.RdmUid;
+import tc.vom.artNetLighter.infrastructure.packets.ArtTodData;
+import tc.vom.artNetLighter.infrastructure.packets.ArtTodDataView;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construct and parse ArtTodData-packets carrying a full table of 200 UIDs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArtTodDataBenchmark {
+
+    private static final int UID_COUNT = 200;
+
+    private byte[][] tableOfDevices;
+    private long[] uids;
+    private ArtTodData packet;
+    private byte[] encoded;
+    private final ArtTodDataView view = new ArtTodDataView();
+
+    @Setup
+    public void setUp() {
+        this.tableOfDevices = new byte[ArtTodDataBenchmark.UID_COUNT][];
+        for (int i = 0; i < this.tableOfDevices.length; i++) {
+            this.tableOfDevices[i] = new byte[]{0x41, 0x4c, 0, 0, (byte) (i >> 8), (byte) i};
+        }
+        this.uids = new long[ArtTodDataBenchmark.UID_COUNT];
+        for (int i = 0; i < this.uids.length; i++) {
+            this.uids[i] = RdmUid.pack(0x414c, i);
+        }
+        this.packet = this.construct();
+        this.encoded = this.packet.constructPacket();
+    }
+
+    @Benchmark
+    public ArtTodData construct() {
+        return new ArtTodData((byte) 1, (byte) 1, (byte) 0, ArtTodData.CommandResponseConstants.TodFull, (byte) 0, ArtTodDataBenchmark.UID_COUNT, (byte) 0, this.tableOfDevices);
+    }
+
+    @Benchmark
+    public ArtTodData constructFromUids() {
+        return new ArtTodData((byte) 1, (byte) 1, (byte) 0, ArtTodData.CommandResponseConstants.TodFull, (byte) 0, ArtTodDataBenchmark.UID_COUNT, (byte) 0, this.uids);
+    }
+
+    @Benchmark
+    public byte[] constructPacket() {
+        return this.packet.constructPacket();
+    }
+
+    @Benchmark
+    public ArtTodData parse() {
+        return new ArtTodData(this.encoded);
+    }
+
+    @Benchmark
+    public long view() {
+        this.view.wrap(this.encoded, 0, this.encoded.length);
+        long sum = 0;
+        for (int i = 0; i < this.view.getUidCount(); i++) {
+            sum += this.view.getUid(i);
+        }
+        return sum;
+    }
+}
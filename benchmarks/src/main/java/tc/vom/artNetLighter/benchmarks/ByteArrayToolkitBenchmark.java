@@ -0,0 +1,136 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import tc.vom.artNetLighter.infrastructure.ByteArrayToolkit;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Primitives of {@link ByteArrayToolkit}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ByteArrayToolkitBenchmark {
+
+    private final byte[] buffer = new byte[1024];
+    private final byte[] block = new byte[512];
+    private final short[] shorts = new short[512];
+    private final ByteBuffer heapBuffer = ByteBuffer.allocate(1024);
+    private final ByteBuffer directBuffer = ByteBuffer.allocateDirect(1024);
+    private int value = 0x12345678;
+
+    @Benchmark
+    public int get2BytesLowToHigh() {
+        return ByteArrayToolkit.get2BytesLowToHigh(this.buffer, 8);
+    }
+
+    @Benchmark
+    public int get2BytesHighToLow() {
+        return ByteArrayToolkit.get2BytesHighToLow(this.buffer, 8);
+    }
+
+    @Benchmark
+    public int get4BytesHighToLow() {
+        return ByteArrayToolkit.get4BytesHighToLow(this.buffer, 10);
+    }
+
+    @Benchmark
+    public int get4BytesLowToHigh() {
+        return ByteArrayToolkit.get4BytesLowToHigh(this.buffer, 10);
+    }
+
+    @Benchmark
+    public byte[] set2BytesLowToHigh() {
+        ByteArrayToolkit.set2BytesLowToHigh(this.value, this.buffer, 8);
+        return this.buffer;
+    }
+
+    @Benchmark
+    public byte[] set2BytesHighToLow() {
+        ByteArrayToolkit.set2BytesHighToLow(this.value, this.buffer, 8);
+        return this.buffer;
+    }
+
+    @Benchmark
+    public byte[] set4BytesHighToLow() {
+        ByteArrayToolkit.set4BytesHighToLow(this.value, this.buffer, 10);
+        return this.buffer;
+    }
+
+    @Benchmark
+    public byte[] set4BytesLowToHigh() {
+        ByteArrayToolkit.set4BytesLowToHigh(this.value, this.buffer, 10);
+        return this.buffer;
+    }
+
+    @Benchmark
+    public byte[] getBytes() {
+        return ByteArrayToolkit.getBytes(this.buffer, 18, 512);
+    }
+
+    @Benchmark
+    public byte[] setBytes() {
+        ByteArrayToolkit.setBytes(this.block, this.buffer, 18);
+        return this.buffer;
+    }
+
+    @Benchmark
+    public short[] getShorts() {
+        return ByteArrayToolkit.getShorts(this.buffer, 0, 1024);
+    }
+
+    @Benchmark
+    public byte[] setShorts() {
+        ByteArrayToolkit.setShorts(this.shorts, this.buffer, 0);
+        return this.buffer;
+    }
+
+    @Benchmark
+    public byte[] setString() {
+        ByteArrayToolkit.setString("ArtNetLighter Benchmark Node", this.buffer, 26, 64);
+        return this.buffer;
+    }
+
+    @Benchmark
+    public int get4BytesHighToLowHeapBuffer() {
+        return ByteArrayToolkit.get4BytesHighToLow(this.heapBuffer, 10);
+    }
+
+    @Benchmark
+    public int get4BytesHighToLowDirectBuffer() {
+        return ByteArrayToolkit.get4BytesHighToLow(this.directBuffer, 10);
+    }
+
+    @Benchmark
+    public ByteBuffer set2BytesLowToHighDirectBuffer() {
+        ByteArrayToolkit.set2BytesLowToHigh(this.value, this.directBuffer, 8);
+        return this.directBuffer;
+    }
+
+    @Benchmark
+    public ByteBuffer setBytesDirectBuffer() {
+        ByteArrayToolkit.setBytes(this.block, this.directBuffer, 18);
+        return this.directBuffer;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import tc.vom.artNetLighter.infrastructure.packets.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construct and parse the small, fixed-size packets.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SmallPacketBenchmark {
+
+    private static final byte[] FOUR_PORTS = {0, 1, 2, 3};
+
+    private ArtPoll artPoll;
+    private byte[] artPollData;
+    private ArtAddress artAddress;
+    private byte[] artAddressData;
+    private ArtDiagData artDiagData;
+    private byte[] artDiagDataData;
+    private ArtInput artInput;
+    private byte[] artInputData;
+    private ArtIpProg artIpProg;
+    private byte[] artIpProgData;
+    private ArtIpProgReply artIpProgReply;
+    private byte[] artIpProgReplyData;
+    private ArtTimeCode artTimeCode;
+    private byte[] artTimeCodeData;
+    private ArtTodRequest artTodRequest;
+    private byte[] artTodRequestData;
+    private ArtFirmwareReply artFirmwareReply;
+    private byte[] artFirmwareReplyData;
+
+    @Setup
+    public void setUp() {
+        this.artPoll = new ArtPoll((byte) ArtPoll.TALK_TO_ME_UPDATE_ON_ANY_CHANGE, (byte) 0);
+        this.artPollData = this.artPoll.constructPacket();
+        this.artAddress = new ArtAddress((byte) 0, "Benchmark Node", "ArtNetLighter Benchmark Node", SmallPacketBenchmark.FOUR_PORTS, SmallPacketBenchmark.FOUR_PORTS, (byte) 0, (byte) 0, ArtAddress.CommandConstants.AcNone);
+        this.artAddressData = this.artAddress.constructPacket();
+        this.artDiagData = new ArtDiagData((byte) 0x10, "Benchmark diagnostics message");
+        this.artDiagDataData = this.artDiagData.constructPacket();
+        this.artInput = new ArtInput(4, SmallPacketBenchmark.FOUR_PORTS);
+        this.artInputData = this.artInput.constructPacket();
+        this.artIpProg = new ArtIpProg((byte) 0x84, (2 << 24) | 1, 0xff000000, 0x1936);
+        this.artIpProgData = this.artIpProg.constructPacket();
+        this.artIpProgReply = new ArtIpProgReply((2 << 24) | 1, 0xff000000, 0x1936, (byte) 0);
+        this.artIpProgReplyData = this.artIpProgReply.constructPacket();
+        this.artTimeCode = new ArtTimeCode((byte) 12, (byte) 34, (byte) 56, (byte) 1, (byte) 1);
+        this.artTimeCodeData = this.artTimeCode.constructPacket();
+        this.artTodRequest = new ArtTodRequest(0x123, ArtTodRequest.CommandConstants.TodFull);
+        this.artTodRequestData = this.artTodRequest.constructPacket();
+        this.artFirmwareReply = new ArtFirmwareReply((byte) ArtFirmwareReply.TypeConstants.FirmBlockGood);
+        this.artFirmwareReplyData = this.artFirmwareReply.constructPacket();
+    }
+
+    @Benchmark
+    public byte[] artPollConstructPacket() {
+        return this.artPoll.constructPacket();
+    }
+
+    @Benchmark
+    public ArtPoll artPollParse() {
+        return new ArtPoll(this.artPollData);
+    }
+
+    @Benchmark
+    public byte[] artAddressConstructPacket() {
+        return this.artAddress.constructPacket();
+    }
+
+    @Benchmark
+    public ArtAddress artAddressParse() {
+        return new ArtAddress(this.artAddressData);
+    }
+
+    @Benchmark
+    public byte[] artDiagDataConstructPacket() {
+        return this.artDiagData.constructPacket();
+    }
+
+    @Benchmark
+    public ArtDiagData artDiagDataParse() {
+        return new ArtDiagData(this.artDiagDataData);
+    }
+
+    @Benchmark
+    public byte[] artInputConstructPacket() {
+        return this.artInput.constructPacket();
+    }
+
+    @Benchmark
+    public ArtInput artInputParse() {
+        return new ArtInput(this.artInputData);
+    }
+
+    @Benchmark
+    public byte[] artIpProgConstructPacket() {
+        return this.artIpProg.constructPacket();
+    }
+
+    @Benchmark
+    public ArtIpProg artIpProgParse() {
+        return new ArtIpProg(this.artIpProgData);
+    }
+
+    @Benchmark
+    public byte[] artIpProgReplyConstructPacket() {
+        return this.artIpProgReply.constructPacket();
+    }
+
+    @Benchmark
+    public ArtIpProgReply artIpProgReplyParse() {
+        return new ArtIpProgReply(this.artIpProgReplyData);
+    }
+
+    @Benchmark
+    public byte[] artTimeCodeConstructPacket() {
+        return this.artTimeCode.constructPacket();
+    }
+
+    @Benchmark
+    public ArtTimeCode artTimeCodeParse() {
+        return new ArtTimeCode(this.artTimeCodeData);
+    }
+
+    @Benchmark
+    public byte[] artTodRequestConstructPacket() {
+        return this.artTodRequest.constructPacket();
+    }
+
+    @Benchmark
+    public ArtTodRequest artTodRequestParse() {
+        return new ArtTodRequest(this.artTodRequestData);
+    }
+
+    @Benchmark
+    public byte[] artFirmwareReplyConstructPacket() {
+        return this.artFirmwareReply.constructPacket();
+    }
+
+    @Benchmark
+    public ArtFirmwareReply artFirmwareReplyParse() {
+        return new ArtFirmwareReply(this.artFirmwareReplyData);
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+
+package tc.vom.artNetLighter.infrastructure;
+
+import tc.vom.artNetLighter.infrastructure.constants.ArtNetOpCodes;
+import tc.vom.artNetLighter.infrastructure.packets.ArtDmxView;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+
+/**
+ * Checks the sequence numbers of received ArtDmx-packets per source and universe.
+ * Duplicates and packets older than the last accepted one are discarded; all other packets are passed on to the next handler.
+ * Lost packets, duplicates and reordered packets are counted per universe, so packet loss on the network becomes visible.
+ * Packets with sequence 0 have sequencing disabled and are always passed on.
+ *
+ * @author github@cconstruct.de
+ * @version 0.1
+ * @since 2012-07-06
+ */
+public class ArtDmxSequenceFilter implements ArtNetPacketHandler {
+
+    /**
+     * Sequence numbers run from 1 to 255 and then wrap to 1.
+     */
+    public static final int SEQUENCE_RANGE = 255;
+    /**
+     * Packets up to this many sequence numbers ahead of the last accepted packet are newer; all others are older.
+     */
+    public static final int MAXIMUM_SEQUENCE_STEP = 127;
+    /**
+     * After this many discarded packets in a row the source is assumed to have restarted its sequence.
+     */
+    public static final int MAXIMUM_CONSECUTIVE_DISCARDS = 8;
+    /**
+     * A source that sent nothing for 1 second starts a new sequence.
+     */
+    public static final long RESYNC_TIMEOUT_NANOS = ArtNetFrameScheduler.NANOS_PER_SECOND;
+
+    private static final class Source {
+        private final int ipAddress;
+        private final Source next;
+        private int lastSequence = 0;
+        private long lastReceived = 0;
+        private int consecutiveDiscards = 0;
+
+        private Source(final int ipAddress, final Source next) {
+            this.ipAddress = ipAddress;
+            this.next = next;
+        }
+    }
+
+    private static final class Universe {
+        private Source sources = null;
+        private long accepted = 0;
+        private long lost = 0;
+        private long duplicates = 0;
+        private long reordered = 0;
+    }
+
+    private final ArtNetPacketHandler next;
+    private final Universe[] universes = new Universe[ArtNetToolkit.MAX_PORT_ADDRESS + 1];
+
+    /**
+     * Only used on the receiver thread.
+     */
+    private final ArtDmxView dmxView = new ArtDmxView();
+
+    /**
+     * @param next Handler receiving all packets that are not discarded
+     */
+    public ArtDmxSequenceFilter(final ArtNetPacketHandler next) {
+        if (next == null) {
+            throw new IllegalArgumentException("next must not be null");
+        }
+        this.next = next;
+    }
+
+    /**
+     * Handle ArtDmx-packets of the given receiver.
+     *
+     * @param receiver Receiver to register with
+     */
+    public void register(final ArtNetReceiver receiver) {
+        receiver.addHandler(ArtNetOpCodes.OP_CODE_DMX, this);
+    }
+
+    /**
+     * Check a received sequence number and update the statistics of the universe.
+     *
+     * @param ipAddress   IPv4-address of the source
+     * @param portAddress 15 Bit Port Address
+     * @param sequence    Sequence number of the packet; 0 if disabled
+     * @param now         Current {@link System#nanoTime()}
+     * @return true if the packet should be used, false if it is a duplicate or older than the last accepted packet
+     */
+    public synchronized boolean accept(final int ipAddress, final int portAddress, final byte sequence, final long now) {
+        final Universe universe = this.getUniverse(portAddress);
+        final int value = BinaryToolkit.getUnsignedValue(sequence);
+        if (value == 0) {
+            universe.accepted++;
+            return true;
+        }
+        final Source source = ArtDmxSequenceFilter.getSource(universe, ipAddress);
+        final long sinceLast = now - source.lastReceived;
+        source.lastReceived = now;
+        if ((source.lastSequence == 0) || (sinceLast > ArtDmxSequenceFilter.RESYNC_TIMEOUT_NANOS) || (source.consecutiveDiscards >= ArtDmxSequenceFilter.MAXIMUM_CONSECUTIVE_DISCARDS)) {
+            return ArtDmxSequenceFilter.accepted(universe, source, value);
+        }
+        final int step = ((value - source.lastSequence) + ArtDmxSequenceFilter.SEQUENCE_RANGE) % ArtDmxSequenceFilter.SEQUENCE_RANGE;
+        if (step == 0) {
+            universe.duplicates++;
+            source.consecutiveDiscards++;
+            return false;
+        }
+        if (step > ArtDmxSequenceFilter.MAXIMUM_SEQUENCE_STEP) {
+            universe.reordered++;
+            source.consecutiveDiscards++;
+            return false;
+        }
+        universe.lost += step - 1;
+        return ArtDmxSequenceFilter.accepted(universe, source, value);
+    }
+
+    private static boolean accepted(final Universe universe, final Source source, final int sequence) {
+        source.lastSequence = sequence;
+        source.consecutiveDiscards = 0;
+        universe.accepted++;
+        return true;
+    }
+
+    private Universe getUniverse(final int portAddress) {
+        final int index = portAddress & ArtNetToolkit.MAX_PORT_ADDRESS;
+        Universe universe = this.universes[index];
+        if (universe == null) {
+            universe = new Universe();
+            this.universes[index] = universe;
+        }
+        return universe;
+    }
+
+    private static Source getSource(final Universe universe, final int ipAddress) {
+        for (Source source = universe.sources; source != null; source = source.next) {
+            if (source.ipAddress == ipAddress) {
+                return source;
+            }
+        }
+        universe.sources = new Source(ipAddress, universe.sources);
+        return universe.sources;
+    }
+
+    @Override
+    public boolean handlePacket(final int opCode, final ByteBuffer packet, final InetSocketAddress source) {
+        if ((opCode == ArtNetOpCodes.OP_CODE_DMX) && this.dmxView.wrap(packet)) {
+            // Inet4Address.hashCode() is the address itself, so no array gets allocated
+            if (!this.accept(source.getAddress().hashCode(), this.dmxView.getPortAddress(), this.dmxView.getSequence(), System.nanoTime())) {
+                return false;
+            }
+        }
+        return this.next.handlePacket(opCode, packet, source);
+    }
+
+    /**
+     * @param portAddress 15 Bit Port Address
+     * @return Number of packets passed on for the universe
+     */
+    public synchronized long getAccepted(final int portAddress) {
+        final Universe universe = this.universes[portAddress & ArtNetToolkit.MAX_PORT_ADDRESS];
+        return (universe == null) ? 0 : universe.accepted;
+    }
+
+    /**
+     * @param portAddress 15 Bit Port Address
+     * @return Number of sequence numbers skipped, i.e. packets lost or still to arrive late
+     */
+    public synchronized long getLost(final int portAddress) {
+        final Universe universe = this.universes[portAddress & ArtNetToolkit.MAX_PORT_ADDRESS];
+        return (universe == null) ? 0 : universe.lost;
+    }
+
+    /**
+     * @param portAddress 15 Bit Port Address
+     * @return Number of packets discarded because their sequence number was received before
+     */
+    public synchronized long getDuplicates(final int portAddress) {
+        final Universe universe = this.universes[portAddress & ArtNetToolkit.MAX_PORT_ADDRESS];
+        return (universe == null) ? 0 : universe.duplicates;
+    }
+
+    /**
+     * @param portAddress 15 Bit Port Address
+     * @return Number of packets discarded because they arrived after a newer packet
+     */
+    public synchronized long getReordered(final int portAddress) {
+        final Universe universe = this.universes[portAddress & ArtNetToolkit.MAX_PORT_ADDRESS];
+        return (universe == null) ? 0 : universe.reordered;
+    }
+}
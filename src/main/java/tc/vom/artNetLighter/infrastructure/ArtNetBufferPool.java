@@ -0,0 +1,100 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.infrastructure;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Pool of direct {@link ByteBuffer}s large enough for any Art-Net datagram, so receiving needs no allocation in the steady state.
+ */
+public class ArtNetBufferPool {
+
+    /**
+     * Largest datagram handled; ArtTodData with 255 UIDs needs 1558 Bytes.
+     */
+    public static final int BUFFER_SIZE = 2048;
+
+    private final int capacity;
+    private final ArrayDeque<ByteBuffer> buffers;
+    private long allocated;
+
+    /**
+     * @param capacity Maximum number of idle buffers kept; the pool is filled up-front
+     */
+    public ArtNetBufferPool(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.buffers = new ArrayDeque<ByteBuffer>(capacity);
+        for (int i = 0; i < capacity; i++) {
+            this.buffers.add(ByteBuffer.allocateDirect(ArtNetBufferPool.BUFFER_SIZE));
+        }
+        this.allocated = capacity;
+    }
+
+    /**
+     * @return A cleared buffer; a new one is allocated if the pool ran empty
+     */
+    public ByteBuffer acquire() {
+        synchronized (this.buffers) {
+            final ByteBuffer buffer = this.buffers.pollLast();
+            if (buffer != null) {
+                return buffer;
+            }
+            this.allocated++;
+        }
+        return ByteBuffer.allocateDirect(ArtNetBufferPool.BUFFER_SIZE);
+    }
+
+    /**
+     * Return a buffer to the pool. Buffers beyond the capacity are left to the garbage collector.
+     *
+     * @param buffer Buffer obtained from {@link #acquire()}
+     */
+    public void release(final ByteBuffer buffer) {
+        buffer.clear();
+        synchronized (this.buffers) {
+            if (this.buffers.size() < this.capacity) {
+                this.buffers.addLast(buffer);
+            }
+        }
+    }
+
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * @return Number of idle buffers
+     */
+    public int getAvailable() {
+        synchronized (this.buffers) {
+            return this.buffers.size();
+        }
+    }
+
+    /**
+     * @return Number of buffers allocated over the lifetime of this pool; grows beyond the capacity only if buffers are held for too long
+     */
+    public long getAllocated() {
+        synchronized (this.buffers) {
+            return this.allocated;
+        }
+    }
+}
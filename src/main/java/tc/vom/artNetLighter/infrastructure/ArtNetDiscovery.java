@@ -0,0 +1,172 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.infrastructure;
+
+import tc.vom.artNetLighter.infrastructure.constants.ArtNetOpCodes;
+import tc.vom.artNetLighter.infrastructure.packets.ArtPoll;
+import tc.vom.artNetLighter.infrastructure.packets.ArtPollReplyView;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+
+/**
+ * Discovers Nodes by periodically broadcasting ArtPoll and collecting the ArtPollReply-packets into an {@link ArtNetNodeRegistry}.
+ * Polls are sent from the port of the {@link ArtNetReceiver}, which also receives the replies.
+ *
+ * @author github@cconstruct.de
+ * @version 0.1
+ * @since 2012-07-06
+ */
+public class ArtNetDiscovery implements ArtNetPacketHandler {
+
+    /**
+     * The specification asks Controllers to poll every 2.5 to 3 seconds.
+     */
+    public static final long DEFAULT_POLL_INTERVAL_NANOS = 3L * ArtNetFrameScheduler.NANOS_PER_SECOND;
+
+    private final ArtNetReceiver receiver;
+    private final ArtNetNodeRegistry registry;
+    private volatile InetSocketAddress pollDestination;
+    private final ByteBuffer pollPacket = ByteBuffer.wrap(ArtPoll.constructPacket((byte) ArtPoll.TALK_TO_ME_UPDATE_ON_ANY_CHANGE, (byte) 0));
+
+    /**
+     * Only used on the receiver thread.
+     */
+    private final ArtPollReplyView pollReplyView = new ArtPollReplyView();
+
+    private ArtNetFrameScheduler scheduler = null;
+    private volatile long pollsSent = 0;
+    private volatile long repliesReceived = 0;
+    private volatile long pollErrors = 0;
+    private volatile IOException lastPollError = null;
+
+    /**
+     * @param receiver         Receiver used to send polls and receive replies
+     * @param broadcastAddress Destination of the polls
+     */
+    public ArtNetDiscovery(final ArtNetReceiver receiver, final InetAddress broadcastAddress) {
+        this(receiver, new ArtNetNodeRegistry(), broadcastAddress);
+    }
+
+    public ArtNetDiscovery(final ArtNetReceiver receiver, final ArtNetNodeRegistry registry, final InetAddress broadcastAddress) {
+        this.receiver = receiver;
+        this.registry = registry;
+        this.setBroadcastAddress(broadcastAddress);
+        receiver.addHandler(ArtNetOpCodes.OP_CODE_POLL_REPLY, this);
+    }
+
+    public ArtNetNodeRegistry getRegistry() {
+        return this.registry;
+    }
+
+    public InetAddress getBroadcastAddress() {
+        return this.pollDestination.getAddress();
+    }
+
+    public void setBroadcastAddress(final InetAddress broadcastAddress) {
+        this.pollDestination = new InetSocketAddress(broadcastAddress, ArtNetSocketProvider.ART_NET_PORT);
+    }
+
+    /**
+     * Send one ArtPoll now.
+     *
+     * @throws IOException if sending fails
+     */
+    public void poll() throws IOException {
+        synchronized (this.pollPacket) {
+            this.pollPacket.clear();
+            this.receiver.send(this.pollPacket, this.pollDestination);
+        }
+        this.pollsSent++;
+    }
+
+    /**
+     * Start polling every {@link #DEFAULT_POLL_INTERVAL_NANOS}.
+     */
+    public void start() {
+        this.start(ArtNetDiscovery.DEFAULT_POLL_INTERVAL_NANOS);
+    }
+
+    /**
+     * Start polling on a dedicated thread. Each poll also drops Nodes that did not reply within the timeout of the registry.
+     *
+     * @param pollIntervalNanos Time between two polls
+     */
+    public synchronized void start(final long pollIntervalNanos) {
+        this.stop();
+        this.scheduler = new ArtNetFrameScheduler("ArtNetDiscovery-" + this.pollDestination, pollIntervalNanos, new ArtNetFrameScheduler.Task() {
+            @Override
+            public void tick(final long frame, final long latenessNanos) {
+                try {
+                    ArtNetDiscovery.this.poll();
+                } catch (IOException e) {
+                    ArtNetDiscovery.this.pollErrors++;
+                    ArtNetDiscovery.this.lastPollError = e;
+                }
+                ArtNetDiscovery.this.registry.expire(System.nanoTime());
+            }
+        });
+        this.scheduler.start();
+    }
+
+    public synchronized void stop() {
+        if (this.scheduler != null) {
+            this.scheduler.stop();
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return (this.scheduler != null) && this.scheduler.isRunning();
+    }
+
+    @Override
+    public boolean handlePacket(final int opCode, final ByteBuffer packet, final InetSocketAddress source) {
+        if (this.pollReplyView.wrap(packet)) {
+            this.repliesReceived++;
+            this.registry.update(this.pollReplyView, System.nanoTime());
+        }
+        return false;
+    }
+
+    public long getPollsSent() {
+        return this.pollsSent;
+    }
+
+    public long getRepliesReceived() {
+        return this.repliesReceived;
+    }
+
+    public long getPollErrors() {
+        return this.pollErrors;
+    }
+
+    public IOException getLastPollError() {
+        return this.lastPollError;
+    }
+
+    @Override
+    public String toString() {
+        return "ArtNetDiscovery{" +
+                "pollDestination=" + this.pollDestination +
+                ", registry=" + this.registry +
+                ", pollsSent=" + this.pollsSent +
+                ", repliesReceived=" + this.repliesReceived +
+                '}';
+    }
+}
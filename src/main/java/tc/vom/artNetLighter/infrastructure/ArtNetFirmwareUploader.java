@@ -0,0 +1,468 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+
+package tc.vom.artNetLighter.infrastructure;
+
+import tc.vom.artNetLighter.infrastructure.constants.ArtNetOpCodes;
+import tc.vom.artNetLighter.infrastructure.packets.ArtFirmwareMaster;
+import tc.vom.artNetLighter.infrastructure.packets.ArtFirmwareReply;
+import tc.vom.artNetLighter.infrastructure.packets.ArtFirmwareReplyView;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Uploads a firmware or UBEA image to any number of Nodes in parallel.
+ * <p/>
+ * The image is read block by block from a (usually memory-mapped) buffer straight into a packet buffer per Node, so it is never copied as a whole. Every Node gets one block at a
+ * time and the next block is sent as soon as the Node acknowledged the previous one with FirmBlockGood; the upload succeeds with FirmAllGood
+ * after the last block. A block that is not acknowledged within the timeout is sent again, FirmFail restarts the upload with the first
+ * block; both count as retries. Up to {@link #getMaximumConcurrentUploads()} Nodes are served at once, the others wait in a queue.
+ * <p/>
+ * Blocks are sent from the port of the {@link ArtNetReceiver}, which also receives the replies. Timeouts are only detected by
+ * {@link #check(long)}, which is called periodically after {@link #start()}.
+ *
+ * @author github@cconstruct.de
+ * @version 0.1
+ * @since 2012-07-06
+ */
+public class ArtNetFirmwareUploader implements ArtNetPacketHandler {
+
+    public static final long DEFAULT_BLOCK_TIMEOUT_NANOS = 2L * ArtNetFrameScheduler.NANOS_PER_SECOND;
+    public static final int DEFAULT_MAXIMUM_RETRIES = 3;
+    public static final int DEFAULT_MAXIMUM_CONCURRENT_UPLOADS = 16;
+    public static final long CHECK_INTERVAL_NANOS = ArtNetFrameScheduler.NANOS_PER_SECOND / 10;
+
+    /**
+     * Gets notified once the upload to a Node succeeded or finally failed.
+     */
+    public static interface UploadListener {
+        /**
+         * @param ipAddress IPv4-address of the Node
+         * @param success   true if the Node replied FirmAllGood
+         */
+        void uploadFinished(int ipAddress, boolean success);
+    }
+
+    private static final class Upload {
+        private final int ipAddress;
+        private final InetSocketAddress destination;
+        private final ByteBuffer image;
+        private final int firmwareLength;
+        private final boolean ubea;
+        private final int blockCount;
+        private final byte[] packet = new byte[ArtFirmwareMaster.MAXIMUM_PACKET_LENGTH];
+        private final ByteBuffer packetBuffer = ByteBuffer.wrap(this.packet);
+        private boolean started = false;
+        private int blockIndex = 0;
+        private int retries = 0;
+        private long deadline = 0;
+        private boolean success = false;
+
+        private Upload(final int ipAddress, final InetSocketAddress destination, final ByteBuffer image, final boolean ubea) {
+            this.ipAddress = ipAddress;
+            this.destination = destination;
+            this.image = image;
+            this.firmwareLength = image.capacity() / 2;
+            this.ubea = ubea;
+            this.blockCount = ((image.capacity() - 1) / ArtFirmwareMaster.MAX_DATA_BYTES) + 1;
+            ArtFirmwareMaster.encodeHeader(this.packet, 0);
+        }
+
+        private boolean isLastBlock() {
+            return this.blockIndex == (this.blockCount - 1);
+        }
+
+        private byte getType() {
+            if (this.isLastBlock()) {
+                return this.ubea ? ArtFirmwareMaster.TypeConstants.UbeaLast : ArtFirmwareMaster.TypeConstants.FirmLast;
+            }
+            if (this.blockIndex == 0) {
+                return this.ubea ? ArtFirmwareMaster.TypeConstants.UbeaFirst : ArtFirmwareMaster.TypeConstants.FirmFirst;
+            }
+            return this.ubea ? ArtFirmwareMaster.TypeConstants.UbeaCont : ArtFirmwareMaster.TypeConstants.FirmCont;
+        }
+    }
+
+    private final ArtNetReceiver receiver;
+    private volatile UploadListener uploadListener = null;
+    private volatile long blockTimeoutNanos = ArtNetFirmwareUploader.DEFAULT_BLOCK_TIMEOUT_NANOS;
+    private volatile int maximumRetries = ArtNetFirmwareUploader.DEFAULT_MAXIMUM_RETRIES;
+    private volatile int maximumConcurrentUploads = ArtNetFirmwareUploader.DEFAULT_MAXIMUM_CONCURRENT_UPLOADS;
+
+    private final Map<Integer, Upload> uploads = new HashMap<Integer, Upload>();
+    private final LinkedList<Upload> pending = new LinkedList<Upload>();
+    private int uploadsRunning = 0;
+    /**
+     * Finished uploads whose listener was not yet called; guarded by this.
+     */
+    private int notificationsPending = 0;
+
+    /**
+     * Only used on the receiver thread.
+     */
+    private final ArtFirmwareReplyView firmwareReplyView = new ArtFirmwareReplyView();
+
+    private ArtNetFrameScheduler scheduler = null;
+    private long blocksSent = 0;
+    private long blocksRetried = 0;
+    private long uploadsSucceeded = 0;
+    private long uploadsFailed = 0;
+    private long sendErrors = 0;
+    private IOException lastSendError = null;
+
+    /**
+     * @param receiver Receiver used to send blocks and receive replies
+     */
+    public ArtNetFirmwareUploader(final ArtNetReceiver receiver) {
+        this.receiver = receiver;
+        receiver.addHandler(ArtNetOpCodes.OP_CODE_FIRMWARE_REPLY, this);
+    }
+
+    /**
+     * Map a firmware or UBEA file read-only into memory.
+     *
+     * @param file Image to upload, including the firmware header
+     * @return Buffer holding the whole file
+     * @throws IOException if the file can not be read
+     */
+    public static ByteBuffer mapImage(final File file) throws IOException {
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            return randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, randomAccessFile.length());
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    public UploadListener getUploadListener() {
+        return this.uploadListener;
+    }
+
+    public void setUploadListener(final UploadListener uploadListener) {
+        this.uploadListener = uploadListener;
+    }
+
+    public long getBlockTimeoutNanos() {
+        return this.blockTimeoutNanos;
+    }
+
+    public void setBlockTimeoutNanos(final long blockTimeoutNanos) {
+        if (blockTimeoutNanos <= 0) {
+            throw new IllegalArgumentException("blockTimeoutNanos must be positive");
+        }
+        this.blockTimeoutNanos = blockTimeoutNanos;
+    }
+
+    public int getMaximumRetries() {
+        return this.maximumRetries;
+    }
+
+    /**
+     * @param maximumRetries Number of times a block may be repeated or the upload restarted before the upload to a Node fails
+     */
+    public void setMaximumRetries(final int maximumRetries) {
+        if (maximumRetries < 0) {
+            throw new IllegalArgumentException("maximumRetries must not be negative");
+        }
+        this.maximumRetries = maximumRetries;
+    }
+
+    public int getMaximumConcurrentUploads() {
+        return this.maximumConcurrentUploads;
+    }
+
+    /**
+     * @param maximumConcurrentUploads Number of Nodes served at the same time; only affects uploads started later
+     */
+    public void setMaximumConcurrentUploads(final int maximumConcurrentUploads) {
+        if (maximumConcurrentUploads < 1) {
+            throw new IllegalArgumentException("maximumConcurrentUploads must be at least 1");
+        }
+        this.maximumConcurrentUploads = maximumConcurrentUploads;
+    }
+
+    /**
+     * Queue an upload to every given Node on the Art-Net port.
+     *
+     * @see #upload(ByteBuffer, boolean, InetSocketAddress...)
+     */
+    public void upload(final ByteBuffer image, final boolean ubea, final InetAddress... nodes) {
+        final InetSocketAddress[] destinations = new InetSocketAddress[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            destinations[i] = new InetSocketAddress(nodes[i], ArtNetSocketProvider.ART_NET_PORT);
+        }
+        this.upload(image, ubea, destinations);
+    }
+
+    /**
+     * Queue an upload to every given Node and start as many uploads as allowed.
+     * The image is shared by all uploads and must not be modified until they finished.
+     *
+     * @param image Firmware or UBEA image between position and limit; 16 Bit words, High-Byte first
+     * @param ubea  true to upload a UBEA image, false for firmware
+     * @param nodes Destinations of the blocks
+     */
+    public void upload(final ByteBuffer image, final boolean ubea, final InetSocketAddress... nodes) {
+        final int length = image.remaining();
+        if ((length == 0) || ((length % 2) != 0)) {
+            throw new IllegalArgumentException("image must contain at least one 16 Bit word and no odd Byte");
+        }
+        final ByteBuffer slice = image.slice();
+        final List<Upload> finished = new ArrayList<Upload>();
+        synchronized (this) {
+            final Map<Integer, Upload> added = new LinkedHashMap<Integer, Upload>();
+            for (final InetSocketAddress node : nodes) {
+                // Inet4Address.hashCode() is the address itself
+                final int ipAddress = node.getAddress().hashCode();
+                if (this.uploads.containsKey(ipAddress) || added.containsKey(ipAddress)) {
+                    throw new IllegalArgumentException("An upload to " + node.getAddress() + " is already queued");
+                }
+                final Upload upload = new Upload(ipAddress, node, slice.duplicate(), ubea);
+                added.put(ipAddress, upload);
+            }
+            this.uploads.putAll(added);
+            this.pending.addAll(added.values());
+            this.startPending(System.nanoTime(), finished);
+        }
+        this.notifyFinished(finished);
+    }
+
+    /**
+     * Start checking for timeouts every {@link #CHECK_INTERVAL_NANOS} on a dedicated thread.
+     */
+    public synchronized void start() {
+        this.stop();
+        this.scheduler = new ArtNetFrameScheduler("ArtNetFirmwareUploader", ArtNetFirmwareUploader.CHECK_INTERVAL_NANOS, new ArtNetFrameScheduler.Task() {
+            @Override
+            public void tick(final long frame, final long latenessNanos) {
+                ArtNetFirmwareUploader.this.check(System.nanoTime());
+            }
+        });
+        this.scheduler.start();
+    }
+
+    public synchronized void stop() {
+        if (this.scheduler != null) {
+            this.scheduler.stop();
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return (this.scheduler != null) && this.scheduler.isRunning();
+    }
+
+    @Override
+    public boolean handlePacket(final int opCode, final ByteBuffer packet, final InetSocketAddress source) {
+        if (this.firmwareReplyView.wrap(packet)) {
+            // Inet4Address.hashCode() is the address itself
+            this.handleReply(source.getAddress().hashCode(), this.firmwareReplyView.getType(), System.nanoTime());
+        }
+        return false;
+    }
+
+    /**
+     * Advance the upload to a Node according to its reply.
+     *
+     * @param ipAddress IPv4-address of the Node
+     * @param type      Unsigned type of the ArtFirmwareReply
+     * @param now       Current {@link System#nanoTime()}
+     * @return true if the reply belonged to a running upload
+     * @see ArtFirmwareReply.TypeConstants
+     */
+    public boolean handleReply(final int ipAddress, final int type, final long now) {
+        final List<Upload> finished = new ArrayList<Upload>(1);
+        synchronized (this) {
+            final Upload upload = this.uploads.get(ipAddress);
+            if ((upload == null) || !upload.started) {
+                return false;
+            }
+            if (type == ArtFirmwareReply.TypeConstants.FirmBlockGood) {
+                // the last block is confirmed by FirmAllGood
+                if (!upload.isLastBlock()) {
+                    upload.blockIndex++;
+                    upload.retries = 0;
+                    this.sendBlock(upload, now);
+                }
+            } else if (type == ArtFirmwareReply.TypeConstants.FirmAllGood) {
+                if (upload.isLastBlock()) {
+                    upload.success = true;
+                    this.finish(upload, now, finished);
+                }
+            } else if (type == ArtFirmwareReply.TypeConstants.FirmFail) {
+                upload.blockIndex = 0;
+                this.retry(upload, now, finished);
+            }
+        }
+        this.notifyFinished(finished);
+        return true;
+    }
+
+    /**
+     * Repeat every block that was not acknowledged in time.
+     *
+     * @param now Current {@link System#nanoTime()}
+     */
+    public void check(final long now) {
+        final List<Upload> finished = new ArrayList<Upload>();
+        synchronized (this) {
+            if (this.uploadsRunning == 0) {
+                return;
+            }
+            for (final Upload upload : new ArrayList<Upload>(this.uploads.values())) {
+                if (upload.started && ((now - upload.deadline) >= 0)) {
+                    this.retry(upload, now, finished);
+                }
+            }
+        }
+        this.notifyFinished(finished);
+    }
+
+    private void retry(final Upload upload, final long now, final List<Upload> finished) {
+        if (upload.retries >= this.maximumRetries) {
+            this.finish(upload, now, finished);
+            return;
+        }
+        upload.retries++;
+        this.blocksRetried++;
+        this.sendBlock(upload, now);
+    }
+
+    private void finish(final Upload upload, final long now, final List<Upload> finished) {
+        this.uploads.remove(upload.ipAddress);
+        this.uploadsRunning--;
+        if (upload.success) {
+            this.uploadsSucceeded++;
+        } else {
+            this.uploadsFailed++;
+        }
+        finished.add(upload);
+        this.notificationsPending++;
+        this.startPending(now, finished);
+    }
+
+    private void startPending(final long now, final List<Upload> finished) {
+        while ((this.uploadsRunning < this.maximumConcurrentUploads) && !this.pending.isEmpty()) {
+            final Upload upload = this.pending.removeFirst();
+            upload.started = true;
+            this.uploadsRunning++;
+            this.sendBlock(upload, now);
+        }
+    }
+
+    private void sendBlock(final Upload upload, final long now) {
+        final int start = upload.blockIndex * ArtFirmwareMaster.MAX_DATA_BYTES;
+        upload.image.limit(Math.min(start + ArtFirmwareMaster.MAX_DATA_BYTES, upload.image.capacity()));
+        upload.image.position(start);
+        final int length = ArtFirmwareMaster.encodePacket(upload.packet, 0, upload.getType(), (byte) upload.blockIndex, upload.firmwareLength, upload.image);
+        upload.packetBuffer.limit(length);
+        upload.packetBuffer.position(0);
+        upload.deadline = now + this.blockTimeoutNanos;
+        try {
+            this.receiver.send(upload.packetBuffer, upload.destination);
+            this.blocksSent++;
+        } catch (IOException e) {
+            // the block is repeated after the timeout
+            this.sendErrors++;
+            this.lastSendError = e;
+        }
+    }
+
+    private void notifyFinished(final List<Upload> finished) {
+        if (finished.isEmpty()) {
+            return;
+        }
+        try {
+            final UploadListener listener = this.uploadListener;
+            if (listener != null) {
+                for (final Upload upload : finished) {
+                    listener.uploadFinished(upload.ipAddress, upload.success);
+                }
+            }
+        } finally {
+            synchronized (this) {
+                this.notificationsPending -= finished.size();
+                this.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Wait until all queued uploads finished and the listener was called for each of them.
+     *
+     * @param timeoutMillis Maximum time to wait
+     * @return true if no upload is left
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized boolean awaitCompletion(final long timeoutMillis) throws InterruptedException {
+        final long end = System.currentTimeMillis() + timeoutMillis;
+        while (!this.uploads.isEmpty() || (this.notificationsPending > 0)) {
+            final long remaining = end - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            this.wait(remaining);
+        }
+        return true;
+    }
+
+    /**
+     * @return Number of uploads that are running or queued
+     */
+    public synchronized int getUploadsRemaining() {
+        return this.uploads.size();
+    }
+
+    public synchronized int getUploadsRunning() {
+        return this.uploadsRunning;
+    }
+
+    public synchronized long getBlocksSent() {
+        return this.blocksSent;
+    }
+
+    public synchronized long getBlocksRetried() {
+        return this.blocksRetried;
+    }
+
+    public synchronized long getUploadsSucceeded() {
+        return this.uploadsSucceeded;
+    }
+
+    public synchronized long getUploadsFailed() {
+        return this.uploadsFailed;
+    }
+
+    public synchronized long getSendErrors() {
+        return this.sendErrors;
+    }
+
+    public synchronized IOException getLastSendError() {
+        return this.lastSendError;
+    }
+}
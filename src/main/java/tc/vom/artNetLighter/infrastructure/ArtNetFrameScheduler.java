@@ -0,0 +1,254 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.infrastructure;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a {@link Task} on a dedicated thread at a fixed rate.
+ * Deadlines are derived from the start time, so the schedule does not drift, and the lateness of every tick is recorded.
+ * If a tick overruns by one or more whole periods, the missed ticks are skipped instead of being run back-to-back.
+ * <p/>
+ * Periods that are no whole number of nanoseconds, like the 1001/30000 seconds of 29.97fps, are given as a cycle of several frames; each
+ * deadline is then rounded on its own, so the rounding error never accumulates. As parking wakes up late by up to a few hundred
+ * microseconds depending on the platform, the scheduler can park until {@link #getSpinNanos()} before the deadline and spin for the rest.
+ *
+ * @author github@cconstruct.de
+ * @version 0.1
+ * @since 2012-07-06
+ */
+public class ArtNetFrameScheduler {
+
+    public static final long NANOS_PER_SECOND = 1000000000L;
+
+    public static interface Task {
+        /**
+         * Called once per tick on the scheduler thread.
+         *
+         * @param frame         Number of this tick, starting at 0. Skipped ticks are counted as well.
+         * @param latenessNanos Nanoseconds this tick started after its deadline
+         */
+        void tick(long frame, long latenessNanos);
+    }
+
+    private final String name;
+    private final long cycleNanos;
+    private final int framesPerCycle;
+    private final long periodNanos;
+    private final Task task;
+    private volatile long spinNanos = 0;
+
+    private volatile Thread thread = null;
+    private volatile boolean running = false;
+
+    private volatile long tickCount = 0;
+    private volatile long skippedTicks = 0;
+    private volatile long lastLatenessNanos = 0;
+    private volatile long maxLatenessNanos = 0;
+    private volatile long totalLatenessNanos = 0;
+    private volatile RuntimeException lastFailure = null;
+
+    public ArtNetFrameScheduler(final String name, final long periodNanos, final Task task) {
+        this(name, periodNanos, 1, task);
+    }
+
+    /**
+     * @param name           Name of the thread
+     * @param cycleNanos     Length of a cycle of frames
+     * @param framesPerCycle Number of ticks per cycle, e.g. 30 ticks per 1001000000 nanoseconds for 29.97fps
+     * @param task           Task to run on every tick
+     */
+    public ArtNetFrameScheduler(final String name, final long cycleNanos, final int framesPerCycle, final Task task) {
+        if ((cycleNanos <= 0) || (framesPerCycle <= 0) || (cycleNanos < framesPerCycle)) {
+            throw new IllegalArgumentException("Period must be positive");
+        }
+        if (task == null) {
+            throw new IllegalArgumentException("Task must not be null");
+        }
+        this.name = name;
+        this.cycleNanos = cycleNanos;
+        this.framesPerCycle = framesPerCycle;
+        this.periodNanos = cycleNanos / framesPerCycle;
+        this.task = task;
+    }
+
+    /**
+     * Convert a frame rate into a period.
+     *
+     * @param frameRate Frames per second
+     * @return Period in nanoseconds
+     */
+    public static long getPeriodNanos(final double frameRate) {
+        if (!(frameRate > 0)) {
+            throw new IllegalArgumentException("Frame rate must be positive");
+        }
+        return Math.round(ArtNetFrameScheduler.NANOS_PER_SECOND / frameRate);
+    }
+
+    /**
+     * @return Period in nanoseconds, rounded down if the cycle does not divide evenly
+     */
+    public long getPeriodNanos() {
+        return this.periodNanos;
+    }
+
+    public long getSpinNanos() {
+        return this.spinNanos;
+    }
+
+    /**
+     * Busy-waiting keeps a CPU core occupied, but wakes up within microseconds. The default of 0 only parks.
+     *
+     * @param spinNanos Time before each deadline to stop parking and spin instead
+     */
+    public void setSpinNanos(final long spinNanos) {
+        if (spinNanos < 0) {
+            throw new IllegalArgumentException("spinNanos must not be negative");
+        }
+        this.spinNanos = spinNanos;
+    }
+
+    /**
+     * @param frame Number of a tick
+     * @return Nanoseconds from the first to the given tick
+     */
+    private long getDeadlineOffset(final long frame) {
+        return ((frame / this.framesPerCycle) * this.cycleNanos) + (((frame % this.framesPerCycle) * this.cycleNanos) / this.framesPerCycle);
+    }
+
+    public synchronized void start() {
+        if (this.running) {
+            return;
+        }
+        this.running = true;
+        this.thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                ArtNetFrameScheduler.this.runLoop();
+            }
+        }, this.name);
+        this.thread.setDaemon(true);
+        this.thread.setPriority(Thread.MAX_PRIORITY);
+        this.thread.start();
+    }
+
+    /**
+     * Stops the scheduler and waits for a running tick to finish, unless called from within a tick.
+     */
+    public synchronized void stop() {
+        final Thread oldThread = this.thread;
+        this.running = false;
+        this.thread = null;
+        if ((oldThread != null) && (oldThread != Thread.currentThread())) {
+            LockSupport.unpark(oldThread);
+            try {
+                oldThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    private void runLoop() {
+        final long start = System.nanoTime();
+        long deadline = start;
+        long frame = 0;
+        while (this.running) {
+            long now = System.nanoTime();
+            while ((now - deadline) < 0) {
+                final long parkNanos = (deadline - now) - this.spinNanos;
+                if (parkNanos > 0) {
+                    LockSupport.parkNanos(parkNanos);
+                    if (!this.running) {
+                        return;
+                    }
+                }
+                now = System.nanoTime();
+            }
+
+            final long lateness = now - deadline;
+            this.lastLatenessNanos = lateness;
+            if (lateness > this.maxLatenessNanos) {
+                this.maxLatenessNanos = lateness;
+            }
+            this.totalLatenessNanos += lateness;
+            this.tickCount++;
+            try {
+                this.task.tick(frame, lateness);
+            } catch (RuntimeException e) {
+                this.lastFailure = e;
+            }
+
+            frame++;
+            deadline = start + this.getDeadlineOffset(frame);
+            final long behind = System.nanoTime() - deadline;
+            if (behind >= this.periodNanos) {
+                final long skip = behind / this.periodNanos;
+                this.skippedTicks += skip;
+                frame += skip;
+                deadline = start + this.getDeadlineOffset(frame);
+            }
+        }
+    }
+
+    /**
+     * @return Number of ticks run so far
+     */
+    public long getTickCount() {
+        return this.tickCount;
+    }
+
+    /**
+     * @return Number of ticks skipped because a previous tick overran by at least one whole period
+     */
+    public long getSkippedTicks() {
+        return this.skippedTicks;
+    }
+
+    public long getLastLatenessNanos() {
+        return this.lastLatenessNanos;
+    }
+
+    public long getMaxLatenessNanos() {
+        return this.maxLatenessNanos;
+    }
+
+    public long getAverageLatenessNanos() {
+        final long ticks = this.tickCount;
+        return (ticks == 0) ? 0 : (this.totalLatenessNanos / ticks);
+    }
+
+    /**
+     * @return The last {@link RuntimeException} thrown by the {@link Task}, or null
+     */
+    public RuntimeException getLastFailure() {
+        return this.lastFailure;
+    }
+
+    @Override
+    public String toString() {
+        return "ArtNetFrameScheduler{" +
+                "name='" + this.name + '\'' +
+                ", periodNanos=" + this.periodNanos +
+                ", running=" + this.running +
+                '}';
+    }
+}
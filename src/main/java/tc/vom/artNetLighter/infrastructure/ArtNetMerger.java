@@ -0,0 +1,494 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.infrastructure;
+
+import tc.vom.artNetLighter.infrastructure.constants.ArtNetOpCodes;
+import tc.vom.artNetLighter.infrastructure.packets.ArtAddress;
+import tc.vom.artNetLighter.infrastructure.packets.ArtDmxView;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Merges ArtDmx-data of up to two sources per output port, as a Node does according to the Art-Net specification.
+ * Each port keeps one 512 channel buffer per source; only the channels that changed in a received packet are merged again.
+ * Ports merge HTP (highest takes precedence) by default and can be switched to LTP (latest takes precedence) by ArtAddress-commands.
+ * Sources that have not sent for {@link #DEFAULT_SOURCE_TIMEOUT_NANOS} are dropped, a third source is ignored while two are active.
+ *
+ * @author github@cconstruct.de
+ * @version 0.1
+ * @since 2012-07-06
+ */
+public class ArtNetMerger implements ArtNetPacketHandler {
+
+    public static final int MAXIMUM_PORTS = 4;
+    public static final int MAXIMUM_SOURCES = 2;
+    public static final int CHANNELS = 512;
+    public static final long DEFAULT_SOURCE_TIMEOUT_NANOS = 10L * ArtNetFrameScheduler.NANOS_PER_SECOND;
+
+    /**
+     * Highest takes precedence; default mode.
+     */
+    public static final int MERGE_HTP = 0;
+    /**
+     * Latest takes precedence.
+     */
+    public static final int MERGE_LTP = 1;
+
+    /**
+     * Port-Address of a disabled port.
+     */
+    public static final int NO_PORT_ADDRESS = -1;
+
+    private static final int PORT_MASK = 0x03;
+    private static final int COMMAND_MASK = 0xfc;
+    private static final int BITS_PER_WORD = 64;
+    private static final int WORD_SHIFT = 6;
+
+    /**
+     * Gets informed about changed output of a port.
+     */
+    public static interface OutputListener {
+        /**
+         * Called with the lock of the port held; the output array must not be kept or modified.
+         *
+         * @param port        Port index (0 - 3)
+         * @param portAddress 15 Bit Port Address of the port
+         * @param output      Merged 512 channels of the port
+         * @param from        First channel that may have changed
+         * @param to          Channel after the last channel that may have changed
+         */
+        void outputChanged(int port, int portAddress, byte[] output, int from, int to);
+    }
+
+    private static final class Source {
+        private int address;
+        private long lastReceived;
+        private final byte[] data = new byte[ArtNetMerger.CHANNELS];
+    }
+
+    private static final class Port {
+        private final int index;
+        private volatile int portAddress = ArtNetMerger.NO_PORT_ADDRESS;
+        private volatile int mergeMode = ArtNetMerger.MERGE_HTP;
+        private boolean cancelMerge = false;
+        /**
+         * Active sources are kept in the first {@link #sourceCount} slots.
+         */
+        private final Source[] sources = new Source[ArtNetMerger.MAXIMUM_SOURCES];
+        private int sourceCount = 0;
+        private final byte[] output = new byte[ArtNetMerger.CHANNELS];
+        /**
+         * Channels changed by the packet being merged; LTP copies only these, so the latest change wins per channel.
+         */
+        private final long[] changedBits = new long[ArtNetMerger.CHANNELS / ArtNetMerger.BITS_PER_WORD];
+
+        private Port(final int index) {
+            this.index = index;
+            for (int i = 0; i < this.sources.length; i++) {
+                this.sources[i] = new Source();
+            }
+        }
+    }
+
+    private final Port[] ports = new Port[ArtNetMerger.MAXIMUM_PORTS];
+    private volatile long sourceTimeoutNanos = ArtNetMerger.DEFAULT_SOURCE_TIMEOUT_NANOS;
+    private volatile OutputListener outputListener = null;
+    private volatile long sourcesIgnored = 0;
+
+    /**
+     * Only used on the receiver thread.
+     */
+    private final ArtDmxView dmxView = new ArtDmxView();
+    private final byte[] dmxData = new byte[ArtNetMerger.CHANNELS];
+
+    public ArtNetMerger() {
+        for (int i = 0; i < this.ports.length; i++) {
+            this.ports[i] = new Port(i);
+        }
+    }
+
+    /**
+     * Handle ArtDmx- and ArtAddress-packets of the given receiver.
+     *
+     * @param receiver Receiver to register with
+     */
+    public void register(final ArtNetReceiver receiver) {
+        receiver.addHandler(ArtNetOpCodes.OP_CODE_DMX, this);
+        receiver.addHandler(ArtNetOpCodes.OP_CODE_ADDRESS, this);
+    }
+
+    /**
+     * Assign a Port-Address to an output port. Drops all sources of the port.
+     *
+     * @param port        Port index (0 - 3)
+     * @param portAddress 15 Bit Port Address or {@link #NO_PORT_ADDRESS} to disable the port
+     */
+    public void setPortAddress(final int port, final int portAddress) {
+        if ((portAddress != ArtNetMerger.NO_PORT_ADDRESS) && ((portAddress < 0) || (portAddress > ArtNetToolkit.MAX_PORT_ADDRESS))) {
+            throw new IllegalArgumentException("portAddress must be in range [0," + ArtNetToolkit.MAX_PORT_ADDRESS + "]");
+        }
+        final Port p = this.getPort(port);
+        synchronized (p) {
+            p.portAddress = portAddress;
+            p.sourceCount = 0;
+            p.cancelMerge = false;
+        }
+    }
+
+    public int getPortAddress(final int port) {
+        return this.getPort(port).portAddress;
+    }
+
+    /**
+     * @param port      Port index (0 - 3)
+     * @param mergeMode {@link #MERGE_HTP} or {@link #MERGE_LTP}
+     */
+    public void setMergeMode(final int port, final int mergeMode) {
+        if ((mergeMode != ArtNetMerger.MERGE_HTP) && (mergeMode != ArtNetMerger.MERGE_LTP)) {
+            throw new IllegalArgumentException("mergeMode must be MERGE_HTP or MERGE_LTP");
+        }
+        this.getPort(port).mergeMode = mergeMode;
+    }
+
+    public int getMergeMode(final int port) {
+        return this.getPort(port).mergeMode;
+    }
+
+    public long getSourceTimeoutNanos() {
+        return this.sourceTimeoutNanos;
+    }
+
+    public void setSourceTimeoutNanos(final long sourceTimeoutNanos) {
+        if (sourceTimeoutNanos <= 0) {
+            throw new IllegalArgumentException("sourceTimeoutNanos must be positive");
+        }
+        this.sourceTimeoutNanos = sourceTimeoutNanos;
+    }
+
+    public OutputListener getOutputListener() {
+        return this.outputListener;
+    }
+
+    public void setOutputListener(final OutputListener outputListener) {
+        this.outputListener = outputListener;
+    }
+
+    /**
+     * @return Number of packets dropped because two other sources were active
+     */
+    public long getSourcesIgnored() {
+        return this.sourcesIgnored;
+    }
+
+    /**
+     * @param port Port index (0 - 3)
+     * @return Number of active sources
+     */
+    public int getSourceCount(final int port) {
+        final Port p = this.getPort(port);
+        synchronized (p) {
+            return p.sourceCount;
+        }
+    }
+
+    /**
+     * @param port Port index (0 - 3)
+     * @return true if the port currently merges two sources
+     */
+    public boolean isMerging(final int port) {
+        return this.getSourceCount(port) > 1;
+    }
+
+    /**
+     * Copy the merged output of a port.
+     *
+     * @param port   Port index (0 - 3)
+     * @param to     Target array
+     * @param offset Start within the target array
+     */
+    public void copyOutput(final int port, final byte[] to, final int offset) {
+        final Port p = this.getPort(port);
+        synchronized (p) {
+            System.arraycopy(p.output, 0, to, offset, ArtNetMerger.CHANNELS);
+        }
+    }
+
+    /**
+     * @param port Port index (0 - 3)
+     * @return Copy of the merged output of the port
+     */
+    public byte[] getOutput(final int port) {
+        final byte[] output = new byte[ArtNetMerger.CHANNELS];
+        this.copyOutput(port, output, 0);
+        return output;
+    }
+
+    /**
+     * Apply the merge-related commands of an ArtAddress-packet: AcCancelMerge, AcMergeLtp0-3, AcMergeHtp0-3 and AcClearOp0-3.
+     *
+     * @param command Command of the packet
+     * @return true if the command was applied
+     * @see ArtAddress.CommandConstants
+     */
+    public boolean applyCommand(final byte command) {
+        final int port = command & ArtNetMerger.PORT_MASK;
+        switch (command & ArtNetMerger.COMMAND_MASK) {
+            case ArtAddress.CommandConstants.AcMergeLtp0:
+                this.ports[port].mergeMode = ArtNetMerger.MERGE_LTP;
+                return true;
+            case ArtAddress.CommandConstants.AcMergeHtp0:
+                this.ports[port].mergeMode = ArtNetMerger.MERGE_HTP;
+                return true;
+            case ArtAddress.CommandConstants.AcClearOp0 & BinaryToolkit.FIRST_BYTE_MASK:
+                this.clear(this.ports[port]);
+                return true;
+            default:
+                if (command == ArtAddress.CommandConstants.AcCancelMerge) {
+                    for (final Port p : this.ports) {
+                        synchronized (p) {
+                            p.cancelMerge = p.sourceCount > 1;
+                        }
+                    }
+                    return true;
+                }
+                return false;
+        }
+    }
+
+    /**
+     * Merge DMX-data received from a source into all ports with the given Port-Address.
+     *
+     * @param sourceAddress IPv4-Address of the source
+     * @param portAddress   15 Bit Port Address of the packet
+     * @param data          Array holding the channels
+     * @param offset        First channel within data
+     * @param length        Number of channels; at most 512
+     * @param now           Current {@link System#nanoTime()}
+     * @return true if the output of any port changed
+     */
+    public boolean merge(final int sourceAddress, final int portAddress, final byte[] data, final int offset, final int length, final long now) {
+        if ((length < 0) || (length > ArtNetMerger.CHANNELS)) {
+            throw new IllegalArgumentException("length must be in range [0," + ArtNetMerger.CHANNELS + "]");
+        }
+        boolean changed = false;
+        for (final Port port : this.ports) {
+            if (port.portAddress == portAddress) {
+                synchronized (port) {
+                    changed |= this.merge(port, sourceAddress, data, offset, length, now);
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Drop sources that did not send within the timeout. Sources are also checked whenever data for their port arrives.
+     *
+     * @param now Current {@link System#nanoTime()}
+     */
+    public void expireSources(final long now) {
+        for (final Port port : this.ports) {
+            synchronized (port) {
+                if (this.expire(port, now)) {
+                    this.recompute(port, port.sources[0], 0, ArtNetMerger.CHANNELS, true);
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean handlePacket(final int opCode, final ByteBuffer packet, final InetSocketAddress source) {
+        if (opCode == ArtNetOpCodes.OP_CODE_DMX) {
+            if (this.dmxView.wrap(packet) && (this.dmxView.getDataLength() <= ArtNetMerger.CHANNELS)) {
+                final int length = this.dmxView.copyData(this.dmxData, 0);
+                // Inet4Address uses the address itself as hash code, so this does not allocate
+                this.merge(source.getAddress().hashCode(), this.dmxView.getPortAddress(), this.dmxData, 0, length, System.nanoTime());
+            }
+        } else if ((opCode == ArtNetOpCodes.OP_CODE_ADDRESS) && (packet.remaining() >= ArtAddress.PACKET_LENGTH)) {
+            final byte[] data = new byte[packet.remaining()];
+            packet.duplicate().get(data);
+            this.applyCommand(new ArtAddress(data).getCommand());
+        }
+        return false;
+    }
+
+    private boolean merge(final Port port, final int sourceAddress, final byte[] data, final int offset, final int length, final long now) {
+        boolean full = this.expire(port, now);
+        Source source = null;
+        for (int i = 0; i < port.sourceCount; i++) {
+            if (port.sources[i].address == sourceAddress) {
+                source = port.sources[i];
+                break;
+            }
+        }
+        if (source == null) {
+            if (port.sourceCount == ArtNetMerger.MAXIMUM_SOURCES) {
+                this.sourcesIgnored++;
+                if (full) {
+                    this.recompute(port, port.sources[0], 0, ArtNetMerger.CHANNELS, true);
+                }
+                return full;
+            }
+            source = port.sources[port.sourceCount++];
+            source.address = sourceAddress;
+            Arrays.fill(source.data, (byte) 0);
+        }
+        if (port.cancelMerge) {
+            port.cancelMerge = false;
+            this.keepOnly(port, source);
+            full = true;
+        }
+        source.lastReceived = now;
+
+        int from = -1;
+        int to = -1;
+        final byte[] sourceData = source.data;
+        final long[] changedBits = port.changedBits;
+        for (int i = 0; i < length; i++) {
+            final byte value = data[offset + i];
+            if (sourceData[i] != value) {
+                sourceData[i] = value;
+                changedBits[i >>> ArtNetMerger.WORD_SHIFT] |= 1L << i;
+                if (from < 0) {
+                    from = i;
+                }
+                to = i + 1;
+            }
+        }
+        if (full) {
+            from = 0;
+            to = ArtNetMerger.CHANNELS;
+        } else if (from < 0) {
+            return false;
+        }
+        this.recompute(port, source, from, to, full);
+        Arrays.fill(changedBits, from >>> ArtNetMerger.WORD_SHIFT, ((to - 1) >>> ArtNetMerger.WORD_SHIFT) + 1, 0L);
+        return true;
+    }
+
+    /**
+     * Merge a range of channels into the output and inform the listener.
+     *
+     * @param latest Source that sent last; its channels win in LTP
+     * @param full   true if the whole output is rebuilt instead of updating changed channels
+     */
+    private void recompute(final Port port, final Source latest, final int from, final int to, final boolean full) {
+        if (port.sourceCount == 0) {
+            return;
+        }
+        final byte[] output = port.output;
+        if ((port.sourceCount == 1) || (port.mergeMode == ArtNetMerger.MERGE_LTP)) {
+            if (full && (port.sourceCount > 1)) {
+                // LTP has no history for the whole universe; the latest source takes it all
+                System.arraycopy(latest.data, 0, output, 0, ArtNetMerger.CHANNELS);
+            } else if (port.sourceCount == 1) {
+                System.arraycopy(latest.data, from, output, from, to - from);
+            } else {
+                ArtNetMerger.copyChanged(port.changedBits, latest.data, output, from, to);
+            }
+        } else {
+            System.arraycopy(port.sources[0].data, from, output, from, to - from);
+            for (int s = 1; s < port.sourceCount; s++) {
+                final byte[] data = port.sources[s].data;
+                for (int i = from; i < to; i++) {
+                    output[i] = (byte) Math.max(output[i] & BinaryToolkit.FIRST_BYTE_MASK, data[i] & BinaryToolkit.FIRST_BYTE_MASK);
+                }
+            }
+        }
+        final OutputListener listener = this.outputListener;
+        if (listener != null) {
+            listener.outputChanged(port.index, port.portAddress, output, from, to);
+        }
+    }
+
+    /**
+     * Copy only the channels marked in changedBits; channels in between keep the value another source set more recently.
+     */
+    private static void copyChanged(final long[] changedBits, final byte[] data, final byte[] output, final int from, final int to) {
+        final int lastWord = (to - 1) >>> ArtNetMerger.WORD_SHIFT;
+        for (int w = from >>> ArtNetMerger.WORD_SHIFT; w <= lastWord; w++) {
+            long word = changedBits[w];
+            while (word != 0) {
+                final int channel = (w << ArtNetMerger.WORD_SHIFT) + Long.numberOfTrailingZeros(word);
+                output[channel] = data[channel];
+                word &= word - 1;
+            }
+        }
+    }
+
+    /**
+     * @return true if a source was dropped
+     */
+    private boolean expire(final Port port, final long now) {
+        final long timeout = this.sourceTimeoutNanos;
+        boolean expired = false;
+        for (int i = port.sourceCount - 1; i >= 0; i--) {
+            if ((now - port.sources[i].lastReceived) > timeout) {
+                this.removeSource(port, i);
+                expired = true;
+            }
+        }
+        if (port.sourceCount < 2) {
+            port.cancelMerge = false;
+        }
+        return expired;
+    }
+
+    private void keepOnly(final Port port, final Source source) {
+        for (int i = port.sourceCount - 1; i >= 0; i--) {
+            if (port.sources[i] != source) {
+                this.removeSource(port, i);
+            }
+        }
+    }
+
+    private void removeSource(final Port port, final int index) {
+        final Source removed = port.sources[index];
+        port.sourceCount--;
+        port.sources[index] = port.sources[port.sourceCount];
+        port.sources[port.sourceCount] = removed;
+    }
+
+    private void clear(final Port port) {
+        synchronized (port) {
+            port.sourceCount = 0;
+            port.cancelMerge = false;
+            Arrays.fill(port.output, (byte) 0);
+            final OutputListener listener = this.outputListener;
+            if (listener != null) {
+                listener.outputChanged(port.index, port.portAddress, port.output, 0, ArtNetMerger.CHANNELS);
+            }
+        }
+    }
+
+    private Port getPort(final int port) {
+        if ((port < 0) || (port >= ArtNetMerger.MAXIMUM_PORTS)) {
+            throw new IndexOutOfBoundsException("Port must be in range [0," + (ArtNetMerger.MAXIMUM_PORTS - 1) + "]");
+        }
+        return this.ports[port];
+    }
+
+    @Override
+    public String toString() {
+        return "ArtNetMerger{" +
+                "sourceTimeoutNanos=" + this.sourceTimeoutNanos +
+                ", sourcesIgnored=" + this.sourcesIgnored +
+                '}';
+    }
+}
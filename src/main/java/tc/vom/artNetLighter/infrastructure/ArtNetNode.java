@@ -0,0 +1,246 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.infrastructure;
+
+import tc.vom.artNetLighter.infrastructure.packets.ArtPollReply;
+import tc.vom.artNetLighter.infrastructure.packets.ArtPollReplyView;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+
+/**
+ * A Node discovered through ArtPollReply. One physical device may show up as several Nodes with the same IP and different bind indexes.
+ *
+ * @see ArtNetNodeRegistry
+ */
+public class ArtNetNode {
+
+    private static final int PORT_TYPE_OUTPUT_BIT = 7;
+
+    private final int ipAddress;
+    private final int bindIndex;
+    private final InetSocketAddress socketAddress;
+    /**
+     * Raw datagram of the reply; decoded into {@link #pollReply} on first access.
+     */
+    private final byte[] pollReplyData;
+    private volatile ArtPollReply pollReply;
+    /**
+     * Kept per Node, so unchanged names are neither decoded again nor evicted from a shared cache by other Nodes.
+     */
+    private final String shortName;
+    private final String longName;
+    private final int[] outputPortAddresses;
+    private volatile long lastSeen;
+
+    /**
+     * @param pollReply Last ArtPollReply of the Node
+     * @param lastSeen  {@link System#nanoTime()} the reply was received
+     */
+    public ArtNetNode(final ArtPollReply pollReply, final long lastSeen) {
+        this.ipAddress = pollReply.getIpAddress();
+        this.bindIndex = BinaryToolkit.getUnsignedValue(pollReply.getBindIndex());
+        final int port = (pollReply.getPort() != 0) ? pollReply.getPort() : ArtNetSocketProvider.ART_NET_PORT;
+        this.socketAddress = new InetSocketAddress(ArtNetNode.toInetAddress(this.ipAddress), port);
+        this.pollReply = pollReply;
+        this.pollReplyData = pollReply.constructPacket();
+        this.shortName = pollReply.getShortName();
+        this.longName = pollReply.getLongName();
+        this.outputPortAddresses = ArtNetNode.findOutputPortAddresses(pollReply);
+        this.lastSeen = lastSeen;
+    }
+
+    /**
+     * Create a Node from a received reply, reading only the fields needed for addressing. All other fields are decoded on the first
+     * call of {@link #getPollReply()}.
+     *
+     * @param pollReply View of the last ArtPollReply of the Node
+     * @param lastSeen  {@link System#nanoTime()} the reply was received
+     */
+    public ArtNetNode(final ArtPollReplyView pollReply, final long lastSeen) {
+        this(pollReply, lastSeen, null);
+    }
+
+    /**
+     * Create a Node from a changed reply, re-using the names of the previous Node if their bytes did not change.
+     *
+     * @param pollReply View of the last ArtPollReply of the Node
+     * @param lastSeen  {@link System#nanoTime()} the reply was received
+     * @param previous  Node replaced by this one; may be null
+     */
+    ArtNetNode(final ArtPollReplyView pollReply, final long lastSeen, final ArtNetNode previous) {
+        this.ipAddress = pollReply.getIpAddress();
+        this.bindIndex = BinaryToolkit.getUnsignedValue(pollReply.getBindIndex());
+        final int port = (pollReply.getPort() != 0) ? pollReply.getPort() : ArtNetSocketProvider.ART_NET_PORT;
+        this.socketAddress = new InetSocketAddress(ArtNetNode.toInetAddress(this.ipAddress), port);
+        this.pollReply = null;
+        this.pollReplyData = pollReply.copyPacket();
+        if (previous != null) {
+            this.shortName = pollReply.getShortName(previous.pollReplyData, previous.shortName);
+            this.longName = pollReply.getLongName(previous.pollReplyData, previous.longName);
+        } else {
+            this.shortName = pollReply.getShortName(this.pollReplyData, null);
+            this.longName = pollReply.getLongName(this.pollReplyData, null);
+        }
+        this.outputPortAddresses = ArtNetNode.findOutputPortAddresses(pollReply);
+        this.lastSeen = lastSeen;
+    }
+
+    /**
+     * @return 15 Bit Port Addresses of all ports that can output DMX512
+     */
+    static int[] findOutputPortAddresses(final ArtPollReply pollReply) {
+        final int numPorts = Math.min(pollReply.getNumPorts(), ArtPollReply.MAXIMUM_NUM_PORTS);
+        final byte[] portTypes = pollReply.getPortTypes();
+        final byte[] universesOut = pollReply.getUniversesOut();
+        final int[] portAddresses = new int[numPorts];
+        int count = 0;
+        for (int i = 0; i < numPorts; i++) {
+            if (BinaryToolkit.isBitSet(portTypes[i], ArtNetNode.PORT_TYPE_OUTPUT_BIT)) {
+                portAddresses[count++] = ArtNetToolkit.getPortId(pollReply.getNet() & ArtNetToolkit.MAX_NET, pollReply.getSubNet() & ArtNetToolkit.MAX_SUB_NET, universesOut[i] & ArtNetToolkit.MAX_UNIVERSE);
+            }
+        }
+        return Arrays.copyOf(portAddresses, count);
+    }
+
+    /**
+     * @return 15 Bit Port Addresses of all ports that can output DMX512
+     */
+    static int[] findOutputPortAddresses(final ArtPollReplyView pollReply) {
+        final int numPorts = Math.min(pollReply.getNumPorts(), ArtPollReply.MAXIMUM_NUM_PORTS);
+        final int[] portAddresses = new int[numPorts];
+        int count = 0;
+        for (int i = 0; i < numPorts; i++) {
+            if (BinaryToolkit.isBitSet(pollReply.getPortType(i), ArtNetNode.PORT_TYPE_OUTPUT_BIT)) {
+                portAddresses[count++] = pollReply.getPortAddressOut(i);
+            }
+        }
+        return Arrays.copyOf(portAddresses, count);
+    }
+
+    static InetAddress toInetAddress(final int ipAddress) {
+        try {
+            return InetAddress.getByAddress(new byte[]{(byte) (ipAddress >>> BinaryToolkit.SHIFT_FOURTH_BYTE), (byte) (ipAddress >>> BinaryToolkit.SHIFT_THIRD_BYTE), (byte) (ipAddress >>> BinaryToolkit.SHIFT_SECOND_BYTE), (byte) ipAddress});
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("4 Byte address rejected", e);
+        }
+    }
+
+    /**
+     * Identifies a Node by IP and bind index.
+     */
+    static long getKey(final int ipAddress, final int bindIndex) {
+        return ((ipAddress & 0xffffffffL) << BinaryToolkit.SHIFT_SECOND_BYTE) | (bindIndex & BinaryToolkit.FIRST_BYTE_MASK);
+    }
+
+    long getKey() {
+        return ArtNetNode.getKey(this.ipAddress, this.bindIndex);
+    }
+
+    /**
+     * 4 Byte IP-Address as reported in the ArtPollReply
+     */
+    public int getIpAddress() {
+        return this.ipAddress;
+    }
+
+    /**
+     * 1 Byte Bind Index; 0 for Nodes that do not report one.
+     */
+    public int getBindIndex() {
+        return this.bindIndex;
+    }
+
+    /**
+     * @return IP and Port reported by the Node; the Port is always {@link ArtNetSocketProvider#ART_NET_PORT} for conforming Nodes
+     */
+    public InetSocketAddress getSocketAddress() {
+        return this.socketAddress;
+    }
+
+    /**
+     * @return The last ArtPollReply, decoded on first access
+     */
+    public ArtPollReply getPollReply() {
+        ArtPollReply result = this.pollReply;
+        if (result == null) {
+            result = new ArtPollReply(this.pollReplyData);
+            this.pollReply = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return Short name of the last ArtPollReply
+     */
+    public String getShortName() {
+        return this.shortName;
+    }
+
+    /**
+     * @return Long name of the last ArtPollReply
+     */
+    public String getLongName() {
+        return this.longName;
+    }
+
+    /**
+     * @return Raw datagram of the last ArtPollReply; must not be modified
+     */
+    byte[] getPollReplyData() {
+        return this.pollReplyData;
+    }
+
+    /**
+     * @return Copy of the 15 Bit Port Addresses of all output ports
+     */
+    public int[] getOutputPortAddresses() {
+        return this.outputPortAddresses.clone();
+    }
+
+    boolean isOutputting(final int portAddress) {
+        for (final int outputPortAddress : this.outputPortAddresses) {
+            if (outputPortAddress == portAddress) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return {@link System#nanoTime()} of the last ArtPollReply
+     */
+    public long getLastSeen() {
+        return this.lastSeen;
+    }
+
+    void setLastSeen(final long lastSeen) {
+        this.lastSeen = lastSeen;
+    }
+
+    @Override
+    public String toString() {
+        return "ArtNetNode{" +
+                "socketAddress=" + this.socketAddress +
+                ", bindIndex=" + this.bindIndex +
+                ", shortName=" + this.shortName +
+                ", outputPortAddresses=" + Arrays.toString(this.outputPortAddresses) +
+                '}';
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.infrastructure;
+
+import tc.vom.artNetLighter.infrastructure.packets.ArtPollReply;
+import tc.vom.artNetLighter.infrastructure.packets.ArtPollReplyView;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Registry of the Nodes answering ArtPoll, indexed by IP and bind index, by IP alone and by output Port-Address.
+ * For every Port-Address the registry keeps an array of subscribing Nodes, so {@link #getSubscribers(int)} is a single lock-free array access.
+ * Updates are synchronized and replace the affected arrays.
+ *
+ * @see ArtNetDiscovery
+ */
+public class ArtNetNodeRegistry {
+
+    /**
+     * Nodes that did not reply to about three ArtPolls are dropped.
+     */
+    public static final long DEFAULT_NODE_TIMEOUT_NANOS = 10L * ArtNetFrameScheduler.NANOS_PER_SECOND;
+
+    private static final InetSocketAddress[] NO_SUBSCRIBERS = new InetSocketAddress[0];
+
+    /**
+     * Gets informed about changes of the registry. Called after the registry has been updated, on the thread that updated it.
+     */
+    public static interface NodeListener {
+        void nodeAdded(ArtNetNode node);
+
+        void nodeChanged(ArtNetNode oldNode, ArtNetNode newNode);
+
+        void nodeRemoved(ArtNetNode node);
+    }
+
+    private final Map<Long, ArtNetNode> nodes = new HashMap<Long, ArtNetNode>();
+    private final Map<Integer, List<ArtNetNode>> nodesByIp = new HashMap<Integer, List<ArtNetNode>>();
+    private final Map<Integer, List<ArtNetNode>> nodesByPortAddress = new HashMap<Integer, List<ArtNetNode>>();
+    private final AtomicReferenceArray<InetSocketAddress[]> subscribers = new AtomicReferenceArray<InetSocketAddress[]>(ArtNetToolkit.MAX_PORT_ADDRESS + 1);
+
+    private volatile long nodeTimeoutNanos = ArtNetNodeRegistry.DEFAULT_NODE_TIMEOUT_NANOS;
+    private volatile NodeListener nodeListener = null;
+    private long repliesUnchanged = 0;
+
+    public long getNodeTimeoutNanos() {
+        return this.nodeTimeoutNanos;
+    }
+
+    public void setNodeTimeoutNanos(final long nodeTimeoutNanos) {
+        if (nodeTimeoutNanos <= 0) {
+            throw new IllegalArgumentException("nodeTimeoutNanos must be positive");
+        }
+        this.nodeTimeoutNanos = nodeTimeoutNanos;
+    }
+
+    public NodeListener getNodeListener() {
+        return this.nodeListener;
+    }
+
+    public void setNodeListener(final NodeListener nodeListener) {
+        this.nodeListener = nodeListener;
+    }
+
+    /**
+     * Add or refresh the Node that sent an ArtPollReply.
+     *
+     * @param pollReply Received reply
+     * @param now       {@link System#nanoTime()} of reception
+     * @return Node as stored in the registry
+     */
+    public ArtNetNode update(final ArtPollReply pollReply, final long now) {
+        final long key = ArtNetNode.getKey(pollReply.getIpAddress(), BinaryToolkit.getUnsignedValue(pollReply.getBindIndex()));
+        final ArtNetNode oldNode;
+        final ArtNetNode newNode;
+        synchronized (this) {
+            oldNode = this.nodes.get(key);
+            if ((oldNode != null) && oldNode.getPollReply().equals(pollReply)) {
+                oldNode.setLastSeen(now);
+                return oldNode;
+            }
+            newNode = new ArtNetNode(pollReply, now);
+            if (oldNode != null) {
+                this.remove(oldNode);
+            }
+            this.add(newNode);
+        }
+        this.notifyUpdated(oldNode, newNode);
+        return newNode;
+    }
+
+    /**
+     * Add or refresh the Node that sent an ArtPollReply. Only IP and bind index are read unless the reply differs from the last one
+     * of the Node in more than the node report counter, so unchanged replies are dropped before any other field is decoded.
+     * A changed Node takes over the names of the replaced Node if their bytes did not change.
+     *
+     * @param pollReply View of the received reply; only used during the call
+     * @param now       {@link System#nanoTime()} of reception
+     * @return Node as stored in the registry
+     * @see ArtPollReplyView#isSameReply(byte[])
+     */
+    public ArtNetNode update(final ArtPollReplyView pollReply, final long now) {
+        final long key = ArtNetNode.getKey(pollReply.getIpAddress(), BinaryToolkit.getUnsignedValue(pollReply.getBindIndex()));
+        final ArtNetNode oldNode;
+        final ArtNetNode newNode;
+        synchronized (this) {
+            oldNode = this.nodes.get(key);
+            if ((oldNode != null) && pollReply.isSameReply(oldNode.getPollReplyData())) {
+                oldNode.setLastSeen(now);
+                this.repliesUnchanged++;
+                return oldNode;
+            }
+            newNode = new ArtNetNode(pollReply, now, oldNode);
+            if (oldNode != null) {
+                this.remove(oldNode);
+            }
+            this.add(newNode);
+        }
+        this.notifyUpdated(oldNode, newNode);
+        return newNode;
+    }
+
+    private void notifyUpdated(final ArtNetNode oldNode, final ArtNetNode newNode) {
+        final NodeListener listener = this.nodeListener;
+        if (listener != null) {
+            if (oldNode == null) {
+                listener.nodeAdded(newNode);
+            } else {
+                listener.nodeChanged(oldNode, newNode);
+            }
+        }
+    }
+
+    /**
+     * @return Number of replies dropped by {@link #update(ArtPollReplyView, long)} because nothing changed
+     */
+    public synchronized long getRepliesUnchanged() {
+        return this.repliesUnchanged;
+    }
+
+    /**
+     * Drop all Nodes that did not reply within the timeout.
+     *
+     * @param now Current {@link System#nanoTime()}
+     * @return Number of Nodes dropped
+     */
+    public int expire(final long now) {
+        final long timeout = this.nodeTimeoutNanos;
+        final List<ArtNetNode> expired = new ArrayList<ArtNetNode>();
+        synchronized (this) {
+            for (final ArtNetNode node : this.nodes.values()) {
+                if ((now - node.getLastSeen()) > timeout) {
+                    expired.add(node);
+                }
+            }
+            for (final ArtNetNode node : expired) {
+                this.remove(node);
+            }
+        }
+        final NodeListener listener = this.nodeListener;
+        if (listener != null) {
+            for (final ArtNetNode node : expired) {
+                listener.nodeRemoved(node);
+            }
+        }
+        return expired.size();
+    }
+
+    /**
+     * Drop all Nodes without informing the listener.
+     */
+    public synchronized void clear() {
+        for (final Integer portAddress : this.nodesByPortAddress.keySet()) {
+            this.subscribers.set(portAddress, null);
+        }
+        this.nodes.clear();
+        this.nodesByIp.clear();
+        this.nodesByPortAddress.clear();
+    }
+
+    /**
+     * Lock-free lookup of the Nodes outputting a Port-Address.
+     *
+     * @param portAddress 15 Bit Port Address
+     * @return Art-Net socket addresses of all subscribed Nodes, one per IP; the array is shared and must not be modified
+     */
+    public InetSocketAddress[] getSubscribers(final int portAddress) {
+        final InetSocketAddress[] result = this.subscribers.get(portAddress & ArtNetToolkit.MAX_PORT_ADDRESS);
+        return (result != null) ? result : ArtNetNodeRegistry.NO_SUBSCRIBERS;
+    }
+
+    /**
+     * @param ipAddress 4 Byte IP-Address
+     * @param bindIndex Bind index; 0 for Nodes that do not report one
+     * @return Node or null
+     */
+    public synchronized ArtNetNode getNode(final int ipAddress, final int bindIndex) {
+        return this.nodes.get(ArtNetNode.getKey(ipAddress, bindIndex));
+    }
+
+    /**
+     * @param ipAddress 4 Byte IP-Address
+     * @return All Nodes reported for the IP
+     */
+    public synchronized List<ArtNetNode> getNodes(final int ipAddress) {
+        final List<ArtNetNode> nodes = this.nodesByIp.get(ipAddress);
+        return (nodes != null) ? new ArrayList<ArtNetNode>(nodes) : Collections.<ArtNetNode>emptyList();
+    }
+
+    /**
+     * @param inetAddress IPv4-Address
+     * @return All Nodes reported for the IP
+     */
+    public List<ArtNetNode> getNodes(final InetAddress inetAddress) {
+        return this.getNodes(inetAddress.hashCode());
+    }
+
+    /**
+     * @return Snapshot of all Nodes
+     */
+    public synchronized List<ArtNetNode> getNodes() {
+        return new ArrayList<ArtNetNode>(this.nodes.values());
+    }
+
+    public synchronized int size() {
+        return this.nodes.size();
+    }
+
+    private void add(final ArtNetNode node) {
+        this.nodes.put(node.getKey(), node);
+        ArtNetNodeRegistry.addTo(this.nodesByIp, node.getIpAddress(), node);
+        for (final int portAddress : node.getOutputPortAddresses()) {
+            ArtNetNodeRegistry.addTo(this.nodesByPortAddress, portAddress, node);
+            this.updateSubscribers(portAddress);
+        }
+    }
+
+    private void remove(final ArtNetNode node) {
+        this.nodes.remove(node.getKey());
+        ArtNetNodeRegistry.removeFrom(this.nodesByIp, node.getIpAddress(), node);
+        for (final int portAddress : node.getOutputPortAddresses()) {
+            ArtNetNodeRegistry.removeFrom(this.nodesByPortAddress, portAddress, node);
+            this.updateSubscribers(portAddress);
+        }
+    }
+
+    private void updateSubscribers(final int portAddress) {
+        final List<ArtNetNode> nodes = this.nodesByPortAddress.get(portAddress);
+        if (nodes == null) {
+            this.subscribers.set(portAddress, null);
+            return;
+        }
+        final Set<InetSocketAddress> addresses = new LinkedHashSet<InetSocketAddress>();
+        for (final ArtNetNode node : nodes) {
+            addresses.add(node.getSocketAddress());
+        }
+        this.subscribers.set(portAddress, addresses.toArray(new InetSocketAddress[addresses.size()]));
+    }
+
+    private static void addTo(final Map<Integer, List<ArtNetNode>> index, final int key, final ArtNetNode node) {
+        List<ArtNetNode> nodes = index.get(key);
+        if (nodes == null) {
+            nodes = new ArrayList<ArtNetNode>(1);
+            index.put(key, nodes);
+        }
+        if (!nodes.contains(node)) {
+            nodes.add(node);
+        }
+    }
+
+    private static void removeFrom(final Map<Integer, List<ArtNetNode>> index, final int key, final ArtNetNode node) {
+        final List<ArtNetNode> nodes = index.get(key);
+        if (nodes != null) {
+            nodes.remove(node);
+            if (nodes.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ArtNetNodeRegistry{" +
+                "nodes=" + this.nodes.size() +
+                ", nodeTimeoutNanos=" + this.nodeTimeoutNanos +
+                '}';
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.infrastructure;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lookup table from Art-Net OpCodes to values.
+ * Entries are indexed densely by the high byte of the OpCode, which is unique for nearly all OpCodes; the few OpCodes sharing a high byte are chained.
+ * Lookups are lock-free and allocate nothing, updates are synchronized and replace the affected chain.
+ *
+ * @param <T> Type of the values
+ */
+public class ArtNetOpCodeTable<T> {
+
+    private static final int TABLE_SIZE = 256;
+    private static final int MAX_OP_CODE = 0xffff;
+
+    /**
+     * Immutable chain of entries sharing the high byte of their OpCodes.
+     */
+    private static final class Entry<T> {
+        private final int opCode;
+        private final T value;
+        private final Entry<T> next;
+
+        private Entry(final int opCode, final T value, final Entry<T> next) {
+            this.opCode = opCode;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    private final AtomicReferenceArray<Entry<T>> table = new AtomicReferenceArray<Entry<T>>(ArtNetOpCodeTable.TABLE_SIZE);
+
+    /**
+     * @param opCode 2 Byte OpCode
+     * @return Value stored for the OpCode or null
+     */
+    public T get(final int opCode) {
+        Entry<T> entry = this.table.get((opCode >>> BinaryToolkit.SHIFT_SECOND_BYTE) & BinaryToolkit.FIRST_BYTE_MASK);
+        while (entry != null) {
+            if (entry.opCode == opCode) {
+                return entry.value;
+            }
+            entry = entry.next;
+        }
+        return null;
+    }
+
+    /**
+     * @param opCode 2 Byte OpCode
+     * @param value  New value; null to remove the entry
+     * @return Previous value or null
+     */
+    public synchronized T put(final int opCode, final T value) {
+        if ((opCode < 0) || (opCode > ArtNetOpCodeTable.MAX_OP_CODE)) {
+            throw new IllegalArgumentException("OpCode must be in range [0," + ArtNetOpCodeTable.MAX_OP_CODE + "]");
+        }
+        final int index = opCode >>> BinaryToolkit.SHIFT_SECOND_BYTE;
+        T previous = null;
+        Entry<T> chain = (value == null) ? null : new Entry<T>(opCode, value, null);
+        for (Entry<T> entry = this.table.get(index); entry != null; entry = entry.next) {
+            if (entry.opCode == opCode) {
+                previous = entry.value;
+            } else {
+                chain = new Entry<T>(entry.opCode, entry.value, chain);
+            }
+        }
+        this.table.set(index, chain);
+        return previous;
+    }
+
+    /**
+     * @param opCode 2 Byte OpCode
+     * @return Previous value or null
+     */
+    public T remove(final int opCode) {
+        return this.put(opCode, null);
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.infrastructure;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+
+/**
+ * Gets called by {@link ArtNetReceiver} for every received packet of the OpCodes it was registered for.
+ */
+public interface ArtNetPacketHandler {
+    /**
+     * Handle a received packet. Called on the receiver thread, so implementations should return quickly.
+     * The buffer holds the whole datagram between position and limit.
+     * Unless the handler returns true, the buffer is recycled as soon as this method returns, so it must not be kept.
+     *
+     * @param opCode 2 Byte OpCode of the packet
+     * @param packet Datagram; Art-Net ID and OpCode are already validated
+     * @param source Sender of the datagram
+     * @return true if the handler keeps the buffer and will hand it back via {@link ArtNetBufferPool#release(ByteBuffer)}
+     */
+    boolean handlePacket(int opCode, ByteBuffer packet, InetSocketAddress source);
+}
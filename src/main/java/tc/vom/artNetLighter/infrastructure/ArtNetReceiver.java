@@ -0,0 +1,298 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.infrastructure;
+
+import tc.vom.artNetLighter.infrastructure.packets._ArtNetPacket;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+
+/**
+ * Receives Art-Net packets on a non-blocking {@link DatagramChannel} and dispatches them by OpCode to registered {@link ArtNetPacketHandler}s.
+ * Handlers are kept in an {@link ArtNetOpCodeTable}. Datagrams are read into direct buffers of an {@link ArtNetBufferPool}; the receive path itself allocates nothing per packet.
+ *
+ * @author github@cconstruct.de
+ * @version 0.1
+ * @since 2012-07-06
+ */
+public class ArtNetReceiver {
+
+    public static final int DEFAULT_POOL_CAPACITY = 64;
+
+    /**
+     * The 8 Byte Art-Net ID read as one big-endian long.
+     */
+    private static final long ART_NET_ID = ByteBuffer.wrap(_ArtNetPacket.ART_NET_ID).getLong(0);
+    private final DatagramChannel channel;
+    private final Selector selector;
+    private final ArtNetBufferPool bufferPool;
+    private final ArtNetOpCodeTable<ArtNetPacketHandler> handlers = new ArtNetOpCodeTable<ArtNetPacketHandler>();
+    private volatile ArtNetPacketHandler defaultHandler = null;
+
+    private ByteBuffer spareBuffer = null;
+    private volatile Thread thread = null;
+    private volatile boolean running = false;
+
+    private volatile long packetsReceived = 0;
+    private volatile long packetsInvalid = 0;
+    private volatile long packetsUnhandled = 0;
+    private volatile long handlerFailures = 0;
+    private volatile RuntimeException lastHandlerFailure = null;
+
+    /**
+     * Listen on {@link ArtNetSocketProvider#ART_NET_PORT} of all local addresses.
+     *
+     * @throws IOException if the channel can not be opened
+     */
+    public ArtNetReceiver() throws IOException {
+        this(new InetSocketAddress(ArtNetSocketProvider.ART_NET_PORT));
+    }
+
+    public ArtNetReceiver(final InetSocketAddress bindAddress) throws IOException {
+        this(bindAddress, new ArtNetBufferPool(ArtNetReceiver.DEFAULT_POOL_CAPACITY));
+    }
+
+    public ArtNetReceiver(final InetSocketAddress bindAddress, final ArtNetBufferPool bufferPool) throws IOException {
+        this.bufferPool = bufferPool;
+        this.channel = DatagramChannel.open();
+        try {
+            this.channel.configureBlocking(false);
+            this.channel.socket().setReuseAddress(true);
+            this.channel.socket().setBroadcast(true);
+            this.channel.socket().bind(bindAddress);
+            this.selector = Selector.open();
+            this.channel.register(this.selector, SelectionKey.OP_READ);
+        } catch (IOException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    public InetSocketAddress getLocalAddress() {
+        return (InetSocketAddress) this.channel.socket().getLocalSocketAddress();
+    }
+
+    public ArtNetBufferPool getBufferPool() {
+        return this.bufferPool;
+    }
+
+    /**
+     * Send a datagram from the receiving port, so that replies to it reach this receiver.
+     *
+     * @param packet Datagram between position and limit
+     * @param target Destination; may be a broadcast address
+     * @return Number of bytes sent
+     * @throws IOException if sending fails
+     */
+    public int send(final ByteBuffer packet, final SocketAddress target) throws IOException {
+        return this.channel.send(packet, target);
+    }
+
+    /**
+     * Register a handler for an OpCode, replacing any handler registered for it before.
+     *
+     * @param opCode  2 Byte OpCode
+     * @param handler Handler
+     */
+    public void addHandler(final int opCode, final ArtNetPacketHandler handler) {
+        if (handler == null) {
+            throw new IllegalArgumentException("Handler must not be null");
+        }
+        this.handlers.put(opCode, handler);
+    }
+
+    /**
+     * @param opCode 2 Byte OpCode
+     */
+    public void removeHandler(final int opCode) {
+        this.handlers.remove(opCode);
+    }
+
+    /**
+     * @param defaultHandler Handler for all OpCodes without own handler; null to ignore them
+     */
+    public void setDefaultHandler(final ArtNetPacketHandler defaultHandler) {
+        this.defaultHandler = defaultHandler;
+    }
+
+    /**
+     * Read and dispatch all datagrams that are available right now, without blocking.
+     * Must not be called concurrently, i.e. not while the receiver is {@link #start() started}.
+     *
+     * @return Number of datagrams read
+     * @throws IOException if reading from the channel fails
+     */
+    public int receivePackets() throws IOException {
+        int count = 0;
+        ByteBuffer buffer = this.spareBuffer;
+        try {
+            while (true) {
+                if (buffer == null) {
+                    buffer = this.bufferPool.acquire();
+                }
+                final SocketAddress source = this.channel.receive(buffer);
+                if (source == null) {
+                    break;
+                }
+                buffer.flip();
+                count++;
+                if (this.dispatch(buffer, (InetSocketAddress) source)) {
+                    buffer = null;
+                } else {
+                    buffer.clear();
+                }
+            }
+        } finally {
+            this.spareBuffer = buffer;
+            this.packetsReceived += count;
+        }
+        return count;
+    }
+
+    private boolean dispatch(final ByteBuffer packet, final InetSocketAddress source) {
+        if ((packet.remaining() < _ArtNetPacket.SHORT_HEADER_LENGTH) || (packet.getLong(0) != ArtNetReceiver.ART_NET_ID)) {
+            this.packetsInvalid++;
+            return false;
+        }
+        final int opCode = BinaryToolkit.getUnsignedValue(packet.get(8)) | (BinaryToolkit.getUnsignedValue(packet.get(9)) << BinaryToolkit.SHIFT_SECOND_BYTE);
+        ArtNetPacketHandler handler = this.handlers.get(opCode);
+        if (handler == null) {
+            handler = this.defaultHandler;
+        }
+        if (handler == null) {
+            this.packetsUnhandled++;
+            return false;
+        }
+        try {
+            return handler.handlePacket(opCode, packet, source);
+        } catch (RuntimeException e) {
+            this.handlerFailures++;
+            this.lastHandlerFailure = e;
+            return false;
+        }
+    }
+
+    /**
+     * Start receiving on a dedicated thread.
+     */
+    public synchronized void start() {
+        if (this.running) {
+            return;
+        }
+        this.running = true;
+        this.thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                ArtNetReceiver.this.runLoop();
+            }
+        }, "ArtNetReceiver-" + this.getLocalAddress());
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    private void runLoop() {
+        try {
+            while (this.running) {
+                this.selector.select();
+                this.selector.selectedKeys().clear();
+                this.receivePackets();
+            }
+        } catch (IOException e) {
+            this.running = false;
+        }
+    }
+
+    /**
+     * Stop the receiver thread and wait for it to finish.
+     */
+    public synchronized void stop() {
+        final Thread oldThread = this.thread;
+        this.running = false;
+        this.thread = null;
+        if (oldThread != null) {
+            this.selector.wakeup();
+            if (oldThread != Thread.currentThread()) {
+                try {
+                    oldThread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    /**
+     * Stop receiving and release the channel.
+     *
+     * @throws IOException if closing fails
+     */
+    public synchronized void close() throws IOException {
+        this.stop();
+        try {
+            this.selector.close();
+        } finally {
+            this.channel.close();
+        }
+        if (this.spareBuffer != null) {
+            this.bufferPool.release(this.spareBuffer);
+            this.spareBuffer = null;
+        }
+    }
+
+    public long getPacketsReceived() {
+        return this.packetsReceived;
+    }
+
+    /**
+     * @return Number of datagrams that were too short or did not start with the Art-Net ID
+     */
+    public long getPacketsInvalid() {
+        return this.packetsInvalid;
+    }
+
+    /**
+     * @return Number of packets no handler was registered for
+     */
+    public long getPacketsUnhandled() {
+        return this.packetsUnhandled;
+    }
+
+    public long getHandlerFailures() {
+        return this.handlerFailures;
+    }
+
+    public RuntimeException getLastHandlerFailure() {
+        return this.lastHandlerFailure;
+    }
+
+    @Override
+    public String toString() {
+        return "ArtNetReceiver{" +
+                "localAddress=" + this.getLocalAddress() +
+                ", running=" + this.running +
+                '}';
+    }
+}
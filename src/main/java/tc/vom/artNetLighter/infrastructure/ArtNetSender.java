@@ -16,12 +16,29 @@
 
 package tc.vom.artNetLighter.infrastructure;
 
+import tc.vom.artNetLighter.infrastructure.packets.ArtDmx;
+import tc.vom.artNetLighter.infrastructure.packets.ArtSync;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.SocketException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class is used to send out Art-Net universes.
+ * <p/>
+ * The sender owns one {@link DmxUniverseBuffer} per Port Address. Once {@link #start(double)} was called, a {@link ArtNetFrameScheduler} transmits every
+ * universe with changed channels on each tick and re-sends unchanged universes only after {@link #getKeepAliveNanos()} as keep-alive.
+ * <p/>
+ * Universes are broadcast unless a fixed destination is set. With a {@link #setNodeRegistry(ArtNetNodeRegistry) node registry} the sender
+ * unicasts each universe to the Nodes outputting its Port Address and only broadcasts universes without known subscribers.
+ * In {@link #setSynchronous(boolean) synchronous mode} every frame is followed by an ArtSync, so Nodes output all universes of the frame at once.
  *
  * @author github@cconstruct.de
  * @version 0.1
@@ -29,10 +46,123 @@ import java.net.SocketException;
  */
 public class ArtNetSender {
 
+    public static final double DEFAULT_FRAME_RATE = 44;
+    public static final long DEFAULT_KEEP_ALIVE_NANOS = ArtNetFrameScheduler.NANOS_PER_SECOND;
+    /**
+     * A started sender checks once per second whether the interface of an automatically selected address is still up.
+     */
+    public static final long INTERFACE_CHECK_INTERVAL_NANOS = ArtNetFrameScheduler.NANOS_PER_SECOND;
+
+    private static final int INITIAL_BATCH_CAPACITY = 32;
+
+    /**
+     * Gets notified after each scheduled frame.
+     */
+    public static interface FrameListener {
+        /**
+         * @param frame         Number of the frame
+         * @param latenessNanos Nanoseconds the frame started after its deadline
+         * @param packetsSent   Number of ArtDmx-packets sent in this frame
+         */
+        void frameSent(long frame, long latenessNanos, int packetsSent);
+    }
+
+    /**
+     * Universe of a single Port Address. The channel data is guarded by its {@link DmxUniverseBuffer},
+     * {@link #lastSent} as well as encoding and sending of the reusable {@link #packet} are guarded by {@link ArtNetSender#sendLock}.
+     */
+    private static final class Universe {
+        private final int portAddress;
+        private final DmxUniverseBuffer buffer = new DmxUniverseBuffer();
+        private long lastSent = 0;
+        /**
+         * Last sequence number sent; 0 before the first packet.
+         */
+        private int sequence = 0;
+
+        private final byte[] packet = new byte[ArtDmx.MAXIMUM_PACKET_SIZE];
+        /**
+         * One datagram per destination, all sharing {@link #packet}, so a destination is only set when it changes.
+         */
+        private DatagramPacket[] datagrams = new DatagramPacket[0];
+        private InetSocketAddress[] destinations = new InetSocketAddress[0];
+
+        private Universe(final int portAddress) {
+            this.portAddress = portAddress;
+            ArtDmx.encodeHeader(this.packet, 0);
+        }
+
+        private byte nextSequence() {
+            this.sequence = (this.sequence % ArtDmxSequenceFilter.SEQUENCE_RANGE) + 1;
+            return (byte) this.sequence;
+        }
+
+        private DatagramPacket getDatagram(final int index, final InetSocketAddress destination, final int length) {
+            if (index >= this.datagrams.length) {
+                this.datagrams = Arrays.copyOf(this.datagrams, index + 1);
+                this.destinations = Arrays.copyOf(this.destinations, index + 1);
+            }
+            DatagramPacket datagram = this.datagrams[index];
+            if (datagram == null) {
+                datagram = new DatagramPacket(this.packet, length, destination.getAddress(), destination.getPort());
+                this.datagrams[index] = datagram;
+                this.destinations[index] = destination;
+            } else {
+                if (this.destinations[index] != destination) {
+                    datagram.setSocketAddress(destination);
+                    this.destinations[index] = destination;
+                }
+                datagram.setLength(length);
+            }
+            return datagram;
+        }
+    }
+
     private int portAddress;
     private InetAddress inetAddress;
-    @SuppressWarnings("FieldCanBeLocal")
-    private DatagramSocket udpSocket;
+    private volatile DatagramSocket udpSocket;
+    /**
+     * true if the local address was selected by {@link ArtNetSocketProvider#getHostAddress()} and may be replaced.
+     */
+    private volatile boolean automaticInetAddress;
+    /**
+     * Only used by the scheduler thread.
+     */
+    private long lastInterfaceCheck = 0;
+    private volatile InetSocketAddress broadcastDestination;
+    private volatile InetSocketAddress destination = null;
+    private volatile ArtNetNodeRegistry nodeRegistry = null;
+    private byte physical = 0;
+
+    private final Map<Integer, Universe> universes = new TreeMap<Integer, Universe>();
+    private volatile Universe[] universeList = new Universe[0];
+
+    private volatile long keepAliveNanos = ArtNetSender.DEFAULT_KEEP_ALIVE_NANOS;
+    private volatile FrameListener frameListener = null;
+    private volatile DmxUniverseStore universeStore = null;
+    private ArtNetFrameScheduler scheduler = null;
+
+    /**
+     * Guards the packet buffers of all universes and the {@link #batch} from encoding until the datagrams were flushed.
+     */
+    private final Object sendLock = new Object();
+    private DatagramPacket[] batch = new DatagramPacket[ArtNetSender.INITIAL_BATCH_CAPACITY];
+    private int batchSize = 0;
+    private final DatagramPacket syncDatagram = new DatagramPacket(ArtSync.constructPacket((byte) 0, (byte) 0), ArtSync.PACKET_LENGTH);
+    private InetSocketAddress syncDestination = null;
+    private volatile boolean synchronous = false;
+    private volatile boolean trimming = false;
+    private volatile boolean sequencing = true;
+
+    private final AtomicLong packetsSent = new AtomicLong();
+    private final AtomicLong sendCalls = new AtomicLong();
+    private final AtomicLong framesSent = new AtomicLong();
+    private volatile int lastFrameSendCalls = 0;
+    private final AtomicLong broadcastFallbacks = new AtomicLong();
+    private final AtomicLong staleSnapshots = new AtomicLong();
+    private final AtomicLong universesSuppressed = new AtomicLong();
+    private final AtomicLong sendErrors = new AtomicLong();
+    private volatile IOException lastSendError = null;
 
     public ArtNetSender(final int portAddress) throws SocketException {
         this(portAddress, null);
@@ -72,9 +202,7 @@ public class ArtNetSender {
     }
 
     public void setPortAddress(final int newPortAddress) {
-        if ((newPortAddress > ArtNetToolkit.MAX_PORT_ADDRESS) || (newPortAddress < 0)) {
-            throw new IllegalArgumentException("Port Address must be in range [0," + ArtNetToolkit.MAX_PORT_ADDRESS + "]");
-        }
+        ArtNetSender.checkPortAddress(newPortAddress);
         this.portAddress = newPortAddress;
     }
 
@@ -82,15 +210,539 @@ public class ArtNetSender {
         return this.inetAddress;
     }
 
+    /**
+     * @param inetAddress Local address to send from; null to use {@link ArtNetSocketProvider#getHostAddress()} and re-bind automatically
+     *                    when its interface goes down
+     * @throws SocketException if the socket can not be bound
+     */
     public void setInetAddress(final InetAddress inetAddress) throws SocketException {
+        this.automaticInetAddress = (inetAddress == null);
         this.udpSocket = ArtNetSocketProvider.getArtNetSocket(inetAddress);
         this.inetAddress = this.udpSocket.getLocalAddress();
+        this.broadcastDestination = new InetSocketAddress(ArtNetSocketProvider.findBroadcastAddress(this.inetAddress), ArtNetSocketProvider.ART_NET_PORT);
+    }
+
+    /**
+     * @return Where ArtDmx-packets are sent to; the broadcast address of the bound network unless set otherwise.
+     */
+    public InetSocketAddress getDestination() {
+        final InetSocketAddress result = this.destination;
+        if (result != null) {
+            return result;
+        }
+        return this.broadcastDestination;
+    }
+
+    /**
+     * @param destination Where ArtDmx-packets are sent to; null to use the broadcast address of the bound network
+     */
+    public void setDestination(final InetSocketAddress destination) {
+        this.destination = destination;
+    }
+
+    public ArtNetNodeRegistry getNodeRegistry() {
+        return this.nodeRegistry;
+    }
+
+    /**
+     * Switch between unicast and broadcast. A fixed {@link #setDestination(InetSocketAddress) destination} takes precedence.
+     *
+     * @param nodeRegistry Registry used to find the subscribers of each universe, e.g. {@link ArtNetDiscovery#getRegistry()}; null to broadcast
+     */
+    public void setNodeRegistry(final ArtNetNodeRegistry nodeRegistry) {
+        this.nodeRegistry = nodeRegistry;
+    }
+
+    /**
+     * @return true if universes are unicast to their subscribers
+     */
+    public boolean isUnicast() {
+        return (this.nodeRegistry != null) && (this.destination == null);
+    }
+
+    public boolean isSynchronous() {
+        return this.synchronous;
+    }
+
+    /**
+     * @param synchronous true to follow every frame by an ArtSync, which is broadcast unless a fixed destination is set.
+     *                    Nodes fall back to immediate output 4 seconds after the last ArtSync.
+     */
+    public void setSynchronous(final boolean synchronous) {
+        this.synchronous = synchronous;
+    }
+
+    public boolean isTrimming() {
+        return this.trimming;
+    }
+
+    /**
+     * @param trimming true to end each ArtDmx after the highest non-zero channel, or the patched length of its
+     *                 {@link DmxUniverseBuffer#setPatchedLength(int) buffer} if that is higher
+     */
+    public void setTrimming(final boolean trimming) {
+        this.trimming = trimming;
+    }
+
+    public boolean isSequencing() {
+        return this.sequencing;
+    }
+
+    /**
+     * @param sequencing true to number the ArtDmx-packets of each universe from 1 to 255, false to send sequence 0
+     */
+    public void setSequencing(final boolean sequencing) {
+        this.sequencing = sequencing;
+    }
+
+    public byte getPhysical() {
+        return this.physical;
+    }
+
+    /**
+     * @param physical Physical input port reported in ArtDmx-packets. For information only.
+     */
+    public void setPhysical(final byte physical) {
+        this.physical = physical;
+    }
+
+    public long getKeepAliveNanos() {
+        return this.keepAliveNanos;
+    }
+
+    /**
+     * @param keepAliveNanos Maximum time an unchanged universe is not re-sent
+     */
+    public void setKeepAliveNanos(final long keepAliveNanos) {
+        if (keepAliveNanos <= 0) {
+            throw new IllegalArgumentException("Keep-alive interval must be positive");
+        }
+        this.keepAliveNanos = keepAliveNanos;
+    }
+
+    public FrameListener getFrameListener() {
+        return this.frameListener;
+    }
+
+    public void setFrameListener(final FrameListener frameListener) {
+        this.frameListener = frameListener;
+    }
+
+    public DmxUniverseStore getUniverseStore() {
+        return this.universeStore;
+    }
+
+    /**
+     * @param universeStore Store written by render threads; its snapshots are published before each frame sent by {@link #start(double)}
+     */
+    public void setUniverseStore(final DmxUniverseStore universeStore) {
+        this.universeStore = universeStore;
+    }
+
+    /**
+     * Set a single channel of the universe at {@link #getPortAddress()}.
+     *
+     * @param channel Channel index (0 - 511)
+     * @param value   Channel value (0 - 255)
+     */
+    public void setChannel(final int channel, final int value) {
+        this.setChannel(this.portAddress, channel, value);
+    }
+
+    /**
+     * Set a single channel of a universe; the universe is created if needed.
+     *
+     * @param portAddress 15 Bit Port Address
+     * @param channel     Channel index (0 - 511)
+     * @param value       Channel value (0 - 255)
+     */
+    public void setChannel(final int portAddress, final int channel, final int value) {
+        if ((channel < 0) || (channel >= ArtDmx.MAXIMUM_DATA_LENGTH)) {
+            throw new IllegalArgumentException("Channel must be in range [0," + (ArtDmx.MAXIMUM_DATA_LENGTH - 1) + "]");
+        }
+        this.getOrCreateUniverse(portAddress).buffer.setChannel(channel, value);
+    }
+
+    /**
+     * Replace the data of the universe at {@link #getPortAddress()}.
+     *
+     * @param data Up to 512 channel values; missing channels are set to 0
+     */
+    public void setData(final byte[] data) {
+        this.setData(this.portAddress, data);
+    }
+
+    /**
+     * Replace the data of a universe; the universe is created if needed.
+     *
+     * @param portAddress 15 Bit Port Address
+     * @param data        Up to 512 channel values; missing channels are set to 0
+     */
+    public void setData(final int portAddress, final byte[] data) {
+        if (data.length > ArtDmx.MAXIMUM_DATA_LENGTH) {
+            throw new IllegalArgumentException("data has a maximum length of " + ArtDmx.MAXIMUM_DATA_LENGTH + " Bytes.");
+        }
+        this.getOrCreateUniverse(portAddress).buffer.setData(data);
+    }
+
+    /**
+     * Access the buffer of a universe to write channels directly; the universe is created if needed.
+     * Only channels whose value actually changes cause the universe to be sent before the next keep-alive.
+     *
+     * @param portAddress 15 Bit Port Address
+     * @return Live buffer of the universe
+     */
+    public DmxUniverseBuffer getUniverseBuffer(final int portAddress) {
+        return this.getOrCreateUniverse(portAddress).buffer;
+    }
+
+    /**
+     * @param portAddress 15 Bit Port Address
+     * @return Copy of the current data of the universe or null if the universe is unknown
+     */
+    public byte[] getData(final int portAddress) {
+        final Universe universe;
+        synchronized (this.universes) {
+            universe = this.universes.get(portAddress);
+        }
+        if (universe == null) {
+            return null;
+        }
+        return universe.buffer.getData();
+    }
+
+    /**
+     * @param portAddress 15 Bit Port Address
+     * @return true if the universe was known
+     */
+    public boolean removeUniverse(final int portAddress) {
+        synchronized (this.universes) {
+            final boolean removed = this.universes.remove(portAddress) != null;
+            if (removed) {
+                this.universeList = this.universes.values().toArray(new Universe[this.universes.size()]);
+            }
+            return removed;
+        }
+    }
+
+    /**
+     * @return Port Addresses of all universes of this sender in ascending order
+     */
+    public int[] getPortAddresses() {
+        final Universe[] list = this.universeList;
+        final int[] result = new int[list.length];
+        for (int i = 0; i < list.length; i++) {
+            result[i] = list[i].portAddress;
+        }
+        return result;
+    }
+
+    private Universe getOrCreateUniverse(final int portAddress) {
+        synchronized (this.universes) {
+            Universe universe = this.universes.get(portAddress);
+            if (universe == null) {
+                ArtNetSender.checkPortAddress(portAddress);
+                universe = new Universe(portAddress);
+                this.universes.put(portAddress, universe);
+                this.universeList = this.universes.values().toArray(new Universe[this.universes.size()]);
+            }
+            return universe;
+        }
+    }
+
+    private static void checkPortAddress(final int portAddress) {
+        if ((portAddress > ArtNetToolkit.MAX_PORT_ADDRESS) || (portAddress < 0)) {
+            throw new IllegalArgumentException("Port Address must be in range [0," + ArtNetToolkit.MAX_PORT_ADDRESS + "]");
+        }
+    }
+
+    /**
+     * Immediately send a universe, regardless whether it changed. Also flushes datagrams queued before.
+     *
+     * @param portAddress 15 Bit Port Address
+     * @throws IOException if the packet could not be sent
+     */
+    public void sendUniverse(final int portAddress) throws IOException {
+        final Universe universe = this.getOrCreateUniverse(portAddress);
+        synchronized (this.sendLock) {
+            this.queueUniverse(universe, System.nanoTime());
+            final IOException error = this.flushBatch();
+            if (error != null) {
+                throw error;
+            }
+        }
+    }
+
+    /**
+     * Send every changed universe and every universe whose keep-alive interval elapsed.
+     * This is what the scheduler does on each tick; call it directly to drive the sender from an own timer.
+     *
+     * @return Number of datagrams sent
+     */
+    public int sendFrame() {
+        synchronized (this.sendLock) {
+            final int count = this.queueFrame();
+            this.flush();
+            return count;
+        }
+    }
+
+    /**
+     * Encode every changed universe and every universe whose keep-alive interval elapsed, and queue its datagrams until {@link #flush()}.
+     * Universes are encoded once, regardless of the number of their destinations. In synchronous mode an ArtSync is queued last.
+     *
+     * @return Number of datagrams queued
+     */
+    public int queueFrame() {
+        final long now = System.nanoTime();
+        final long keepAlive = this.keepAliveNanos;
+        int count = 0;
+        synchronized (this.sendLock) {
+            for (final Universe universe : this.universeList) {
+                if (universe.buffer.isDirty() || ((now - universe.lastSent) >= keepAlive)) {
+                    count += this.queueUniverse(universe, now);
+                } else {
+                    this.universesSuppressed.incrementAndGet();
+                }
+            }
+            if ((count > 0) && this.synchronous) {
+                final InetSocketAddress target = this.getDestination();
+                if (this.syncDestination != target) {
+                    this.syncDatagram.setSocketAddress(target);
+                    this.syncDestination = target;
+                }
+                this.enqueue(this.syncDatagram);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Send all queued datagrams in one tight loop.
+     * Java offers no way to pass several datagrams to the operating system at once, so this issues one send call per datagram;
+     * {@link #getLastFrameSendCalls()} shows the resulting number of system calls.
+     *
+     * @return Number of send calls
+     */
+    public int flush() {
+        synchronized (this.sendLock) {
+            final int calls = this.batchSize;
+            this.flushBatch();
+            this.lastFrameSendCalls = calls;
+            this.framesSent.incrementAndGet();
+            return calls;
+        }
+    }
+
+    /**
+     * Must be called with {@link #sendLock} held.
+     *
+     * @return Number of datagrams queued
+     */
+    private int queueUniverse(final Universe universe, final long now) {
+        final int length = universe.buffer.encodeArtDmx(universe.packet, 0, this.sequencing ? universe.nextSequence() : 0, this.physical, universe.portAddress, this.trimming);
+        universe.lastSent = now;
+        final ArtNetNodeRegistry registry = this.nodeRegistry;
+        if ((registry != null) && (this.destination == null)) {
+            final InetSocketAddress[] subscribers = registry.getSubscribers(universe.portAddress);
+            if (subscribers.length > 0) {
+                for (int i = 0; i < subscribers.length; i++) {
+                    this.enqueue(universe.getDatagram(i, subscribers[i], length));
+                }
+                return subscribers.length;
+            }
+            this.broadcastFallbacks.incrementAndGet();
+        }
+        this.enqueue(universe.getDatagram(0, this.getDestination(), length));
+        return 1;
+    }
+
+    private void enqueue(final DatagramPacket datagram) {
+        if (this.batchSize == this.batch.length) {
+            this.batch = Arrays.copyOf(this.batch, this.batch.length * 2);
+        }
+        this.batch[this.batchSize++] = datagram;
+    }
+
+    /**
+     * Must be called with {@link #sendLock} held. A failing datagram does not stop the others from being sent.
+     *
+     * @return Last error or null
+     */
+    private IOException flushBatch() {
+        final DatagramSocket socket = this.udpSocket;
+        IOException error = null;
+        int sent = 0;
+        for (int i = 0; i < this.batchSize; i++) {
+            try {
+                socket.send(this.batch[i]);
+                sent++;
+            } catch (IOException e) {
+                this.sendErrors.incrementAndGet();
+                this.lastSendError = e;
+                error = e;
+            }
+            this.batch[i] = null;
+        }
+        this.sendCalls.addAndGet(this.batchSize);
+        this.packetsSent.addAndGet(sent);
+        this.batchSize = 0;
+        return error;
+    }
+
+    /**
+     * Re-bind to the current host address if the local address was selected automatically and its interface is no longer up.
+     * Called about every {@link #INTERFACE_CHECK_INTERVAL_NANOS} and after failed sends while started.
+     *
+     * @return true if the sender was re-bound
+     * @throws SocketException if the interfaces can not be queried or the new socket can not be bound
+     */
+    public boolean checkInetAddress() throws SocketException {
+        if (!this.automaticInetAddress) {
+            return false;
+        }
+        if (this.inetAddress.isAnyLocalAddress()) {
+            // Bound to the wildcard address because there was no interface; re-bind once one shows up
+            if (ArtNetSocketProvider.getHostAddress() == null) {
+                return false;
+            }
+        } else if (ArtNetSocketProvider.isUsable(this.inetAddress)) {
+            return false;
+        }
+        ArtNetSocketProvider.refreshHostAddress();
+        final InetAddress previous = this.inetAddress;
+        this.setInetAddress(null);
+        return !this.inetAddress.equals(previous);
+    }
+
+    /**
+     * Start sending at {@link #DEFAULT_FRAME_RATE}.
+     */
+    public void start() {
+        this.start(ArtNetSender.DEFAULT_FRAME_RATE);
+    }
+
+    /**
+     * Start sending frames on a dedicated thread.
+     *
+     * @param frameRate Frames per second
+     */
+    public synchronized void start(final double frameRate) {
+        this.stop();
+        this.scheduler = new ArtNetFrameScheduler("ArtNetSender-" + this.inetAddress, ArtNetFrameScheduler.getPeriodNanos(frameRate), new ArtNetFrameScheduler.Task() {
+            @Override
+            public void tick(final long frame, final long latenessNanos) {
+                final DmxUniverseStore store = ArtNetSender.this.universeStore;
+                if (store != null) {
+                    store.publish(ArtNetSender.this);
+                }
+                final long errors = ArtNetSender.this.sendErrors.get();
+                final int count = ArtNetSender.this.sendFrame();
+                ArtNetSender.this.checkInterface(errors != ArtNetSender.this.sendErrors.get());
+                final FrameListener listener = ArtNetSender.this.frameListener;
+                if (listener != null) {
+                    listener.frameSent(frame, latenessNanos, count);
+                }
+            }
+        });
+        this.scheduler.start();
+    }
+
+    private void checkInterface(final boolean sendFailed) {
+        final long now = System.nanoTime();
+        if (!sendFailed && ((now - this.lastInterfaceCheck) < ArtNetSender.INTERFACE_CHECK_INTERVAL_NANOS)) {
+            return;
+        }
+        this.lastInterfaceCheck = now;
+        try {
+            this.checkInetAddress();
+        } catch (SocketException e) {
+            this.lastSendError = e;
+        }
+    }
+
+    public synchronized void stop() {
+        if (this.scheduler != null) {
+            this.scheduler.stop();
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return (this.scheduler != null) && this.scheduler.isRunning();
+    }
+
+    /**
+     * @return The scheduler of the last {@link #start(double)} holding the lateness-statistics, or null if never started
+     */
+    public synchronized ArtNetFrameScheduler getScheduler() {
+        return this.scheduler;
+    }
+
+    /**
+     * @return Number of universes broadcast in unicast mode because no subscriber was known
+     */
+    public long getBroadcastFallbacks() {
+        return this.broadcastFallbacks.get();
+    }
+
+    /**
+     * Called by {@link DmxUniverseStore#publish(ArtNetSender)} for every universe sent with its previous snapshot.
+     */
+    void staleSnapshot() {
+        this.staleSnapshots.incrementAndGet();
+    }
+
+    /**
+     * @return Number of universes sent with their previous snapshot, because render threads were still writing at the frame boundary
+     */
+    public long getStaleSnapshots() {
+        return this.staleSnapshots.get();
+    }
+
+    /**
+     * @return Number of send calls of the last {@link #flush()}
+     */
+    public int getLastFrameSendCalls() {
+        return this.lastFrameSendCalls;
+    }
+
+    /**
+     * @return Average number of send calls per flushed frame
+     */
+    public double getSendCallsPerFrame() {
+        final long frames = this.framesSent.get();
+        return (frames == 0) ? 0 : ((double) this.sendCalls.get() / frames);
+    }
+
+    public long getSendCalls() {
+        return this.sendCalls.get();
+    }
+
+    /**
+     * @return Number of times a universe was not sent in a frame because it did not change
+     */
+    public long getUniversesSuppressed() {
+        return this.universesSuppressed.get();
+    }
+
+    public long getPacketsSent() {
+        return this.packetsSent.get();
+    }
+
+    public long getSendErrors() {
+        return this.sendErrors.get();
+    }
+
+    public IOException getLastSendError() {
+        return this.lastSendError;
     }
 
     @Override
     public String toString() {
         return "ArtNetSender{" +
                 "portAddress=" + this.portAddress +
+                ", universes=" + this.universeList.length +
                 '}';
     }
 }
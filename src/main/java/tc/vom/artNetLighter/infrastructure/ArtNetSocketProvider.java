@@ -16,15 +16,26 @@
 
 package tc.vom.artNetLighter.infrastructure;
 
+import java.io.IOException;
 import java.net.DatagramSocket;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.InterfaceAddress;
 import java.net.NetworkInterface;
 import java.net.SocketException;
+import java.net.UnknownHostException;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
 import java.util.Enumeration;
-import java.util.WeakHashMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * This class is used to send to manage the bound {@link java.net.DatagramSocket}s so we don't get {@link java.net.BindException} when having multiple {@link ArtNetSender}.
+ * <p/>
+ * Exactly one blocking {@link DatagramChannel} is bound to {@link #ART_NET_PORT} per local address; all methods are thread-safe. Channels stay
+ * open until {@link #close(InetAddress)} or {@link #closeAll()} is called. Socket options set here apply to channels bound afterwards.
  *
  * @author github@cconstruct.de
  * @version 0.1
@@ -33,32 +44,207 @@ import java.util.WeakHashMap;
 public class ArtNetSocketProvider {
     public static final int ART_NET_PORT = 0x1936;
 
-    private static final WeakHashMap<InetAddress, DatagramSocket> map = new WeakHashMap<InetAddress, DatagramSocket>();
+    /**
+     * Buffer size telling the provider to keep the default of the operating system.
+     */
+    public static final int SYSTEM_DEFAULT_BUFFER_SIZE = 0;
+
+    /**
+     * The selected host address is re-used for 30 seconds before the interfaces are scanned again.
+     */
+    public static final long DEFAULT_HOST_ADDRESS_REFRESH_NANOS = 30L * ArtNetFrameScheduler.NANOS_PER_SECOND;
+
+    private static final Map<InetAddress, DatagramChannel> channels = new HashMap<InetAddress, DatagramChannel>();
+
+    private static volatile boolean reuseAddress = true;
+    private static volatile boolean broadcast = true;
+    private static volatile int sendBufferSize = ArtNetSocketProvider.SYSTEM_DEFAULT_BUFFER_SIZE;
+    private static volatile int receiveBufferSize = ArtNetSocketProvider.SYSTEM_DEFAULT_BUFFER_SIZE;
+
+    private static final Object hostAddressLock = new Object();
+    private static volatile long hostAddressRefreshNanos = ArtNetSocketProvider.DEFAULT_HOST_ADDRESS_REFRESH_NANOS;
+    private static InetAddress hostAddress = null;
+    private static long hostAddressSelected = 0;
+    private static boolean hostAddressValid = false;
 
     public static DatagramSocket getArtNetSocket() throws SocketException {
         return ArtNetSocketProvider.getArtNetSocket(null);
     }
 
-    public static DatagramSocket getArtNetSocket(InetAddress inetAddress) throws SocketException {
+    public static DatagramSocket getArtNetSocket(final InetAddress inetAddress) throws SocketException {
+        return ArtNetSocketProvider.getArtNetChannel(inetAddress).socket();
+    }
+
+    /**
+     * @param inetAddress Local address to bind to; null for {@link #getHostAddress()}
+     * @return The channel bound to {@link #ART_NET_PORT} of the address, bound if necessary
+     * @throws SocketException if the channel can not be bound
+     */
+    public static DatagramChannel getArtNetChannel(InetAddress inetAddress) throws SocketException {
         if (inetAddress == null) {
-            inetAddress = ArtNetSocketProvider.findHostAddress();
+            inetAddress = ArtNetSocketProvider.getHostAddress();
+        }
+        synchronized (ArtNetSocketProvider.channels) {
+            DatagramChannel result = ArtNetSocketProvider.channels.get(inetAddress);
+            if ((result == null) || !result.isOpen()) {
+                result = ArtNetSocketProvider.openChannel(inetAddress);
+                ArtNetSocketProvider.channels.put(inetAddress, result);
+            }
+            return result;
         }
-        DatagramSocket result = ArtNetSocketProvider.map.get(inetAddress);
-        if (result == null) {
-            result = new DatagramSocket(ArtNetSocketProvider.ART_NET_PORT, inetAddress);
-            ArtNetSocketProvider.map.put(inetAddress, result);
+    }
+
+    /**
+     * Bind a channel to every local address on the Art-Net primary (2.x.x.x) and secondary (10.x.x.x) networks.
+     *
+     * @return Channels in the order of {@link #findArtNetAddresses()}
+     * @throws SocketException if a channel can not be bound
+     */
+    public static List<DatagramChannel> getArtNetChannels() throws SocketException {
+        final List<InetAddress> addresses = ArtNetSocketProvider.findArtNetAddresses();
+        final List<DatagramChannel> result = new ArrayList<DatagramChannel>(addresses.size());
+        for (final InetAddress address : addresses) {
+            result.add(ArtNetSocketProvider.getArtNetChannel(address));
         }
         return result;
     }
 
-    public static InetAddress findHostAddress() throws SocketException {
-        InetAddress hostAddress = null;
-        InetAddress fallbackAddress = null;
-        InetAddress lastAddress = null;
+    private static DatagramChannel openChannel(final InetAddress inetAddress) throws SocketException {
+        final DatagramChannel channel;
+        try {
+            channel = DatagramChannel.open();
+        } catch (IOException e) {
+            final SocketException socketException = new SocketException("Could not open channel: " + e.getMessage());
+            socketException.initCause(e);
+            throw socketException;
+        }
+        final DatagramSocket socket = channel.socket();
+        try {
+            socket.setReuseAddress(ArtNetSocketProvider.reuseAddress);
+            socket.setBroadcast(ArtNetSocketProvider.broadcast);
+            if (ArtNetSocketProvider.sendBufferSize != ArtNetSocketProvider.SYSTEM_DEFAULT_BUFFER_SIZE) {
+                socket.setSendBufferSize(ArtNetSocketProvider.sendBufferSize);
+            }
+            if (ArtNetSocketProvider.receiveBufferSize != ArtNetSocketProvider.SYSTEM_DEFAULT_BUFFER_SIZE) {
+                socket.setReceiveBufferSize(ArtNetSocketProvider.receiveBufferSize);
+            }
+            socket.bind(new InetSocketAddress(inetAddress, ArtNetSocketProvider.ART_NET_PORT));
+        } catch (SocketException e) {
+            socket.close();
+            throw e;
+        }
+        return channel;
+    }
 
-        final Enumeration<NetworkInterface> networkInterfaces = NetworkInterface.getNetworkInterfaces();
+    /**
+     * Close the channel bound to the address, if any. Senders using it fail until they bind again.
+     *
+     * @param inetAddress Local address
+     * @return true if a channel was closed
+     */
+    public static boolean close(final InetAddress inetAddress) {
+        final DatagramChannel channel;
+        synchronized (ArtNetSocketProvider.channels) {
+            channel = ArtNetSocketProvider.channels.remove(inetAddress);
+        }
+        if (channel == null) {
+            return false;
+        }
+        channel.socket().close();
+        return true;
+    }
+
+    /**
+     * Close all channels bound by this provider.
+     */
+    public static void closeAll() {
+        final List<DatagramChannel> closing;
+        synchronized (ArtNetSocketProvider.channels) {
+            closing = new ArrayList<DatagramChannel>(ArtNetSocketProvider.channels.values());
+            ArtNetSocketProvider.channels.clear();
+        }
+        for (final DatagramChannel channel : closing) {
+            channel.socket().close();
+        }
+    }
+
+    public static boolean isReuseAddress() {
+        return ArtNetSocketProvider.reuseAddress;
+    }
+
+    /**
+     * @param reuseAddress SO_REUSEADDR, so a {@link ArtNetReceiver} can listen on the same port; default true
+     */
+    public static void setReuseAddress(final boolean reuseAddress) {
+        ArtNetSocketProvider.reuseAddress = reuseAddress;
+    }
+
+    public static boolean isBroadcast() {
+        return ArtNetSocketProvider.broadcast;
+    }
+
+    /**
+     * @param broadcast SO_BROADCAST; default true
+     */
+    public static void setBroadcast(final boolean broadcast) {
+        ArtNetSocketProvider.broadcast = broadcast;
+    }
+
+    public static int getSendBufferSize() {
+        return ArtNetSocketProvider.sendBufferSize;
+    }
+
+    /**
+     * @param sendBufferSize SO_SNDBUF in Bytes; {@link #SYSTEM_DEFAULT_BUFFER_SIZE} to keep the default
+     */
+    public static void setSendBufferSize(final int sendBufferSize) {
+        if (sendBufferSize < 0) {
+            throw new IllegalArgumentException("sendBufferSize must not be negative");
+        }
+        ArtNetSocketProvider.sendBufferSize = sendBufferSize;
+    }
+
+    public static int getReceiveBufferSize() {
+        return ArtNetSocketProvider.receiveBufferSize;
+    }
+
+    /**
+     * @param receiveBufferSize SO_RCVBUF in Bytes; {@link #SYSTEM_DEFAULT_BUFFER_SIZE} to keep the default
+     */
+    public static void setReceiveBufferSize(final int receiveBufferSize) {
+        if (receiveBufferSize < 0) {
+            throw new IllegalArgumentException("receiveBufferSize must not be negative");
+        }
+        ArtNetSocketProvider.receiveBufferSize = receiveBufferSize;
+    }
+
+    /**
+     * @return All IPv4-addresses of interfaces that are up and belong to the Art-Net primary (2.x.x.x) or secondary (10.x.x.x) network;
+     * primary addresses first
+     * @throws SocketException if the network interfaces can not be queried
+     */
+    public static List<InetAddress> findArtNetAddresses() throws SocketException {
+        final List<InetAddress> result = new ArrayList<InetAddress>();
+        for (final InetAddress candidate : ArtNetSocketProvider.findCandidateAddresses()) {
+            final byte first = candidate.getAddress()[0];
+            if ((first == 2) || (first == 10)) {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
 
-        selection:
+    /**
+     * Scan all interfaces that are up for non-loopback IPv4-addresses.
+     *
+     * @return Addresses ranked by preference: Art-Net primary (2.x.x.x), Art-Net secondary (10.x.x.x), all others
+     * @throws SocketException if the network interfaces can not be queried
+     */
+    public static List<InetAddress> findCandidateAddresses() throws SocketException {
+        final List<InetAddress> primary = new ArrayList<InetAddress>();
+        final List<InetAddress> secondary = new ArrayList<InetAddress>();
+        final List<InetAddress> others = new ArrayList<InetAddress>();
+        final Enumeration<NetworkInterface> networkInterfaces = NetworkInterface.getNetworkInterfaces();
         while (networkInterfaces.hasMoreElements()) {
             final NetworkInterface networkInterface = networkInterfaces.nextElement();
             if (!networkInterface.isUp()) {
@@ -74,26 +260,117 @@ public class ArtNetSocketProvider {
                 switch (address[0]) {
                     case 127:
                         continue;
+                    case 2:
+                        primary.add(inetAddress);
+                        break;
                     case 10:
-                        fallbackAddress = inetAddress;
+                        secondary.add(inetAddress);
                         break;
-                    case 2:
-                        hostAddress = inetAddress;
-                        break selection;
                     default:
-                        lastAddress = inetAddress;
+                        others.add(inetAddress);
                         break;
                 }
             }
         }
+        primary.addAll(secondary);
+        primary.addAll(others);
+        return primary;
+    }
+
+    /**
+     * Scan the interfaces for the preferred host address. Prefer {@link #getHostAddress()}, which caches the result.
+     *
+     * @return First of {@link #findCandidateAddresses()}; null if there is none
+     * @throws SocketException if the network interfaces can not be queried
+     */
+    public static InetAddress findHostAddress() throws SocketException {
+        final List<InetAddress> candidates = ArtNetSocketProvider.findCandidateAddresses();
+        return candidates.isEmpty() ? null : candidates.get(0);
+    }
+
+    /**
+     * @return The host address selected by {@link #findHostAddress()} within the last {@link #getHostAddressRefreshNanos()}
+     * @throws SocketException if the network interfaces can not be queried
+     */
+    public static InetAddress getHostAddress() throws SocketException {
+        synchronized (ArtNetSocketProvider.hostAddressLock) {
+            final long now = System.nanoTime();
+            if (!ArtNetSocketProvider.hostAddressValid || ((now - ArtNetSocketProvider.hostAddressSelected) >= ArtNetSocketProvider.hostAddressRefreshNanos)) {
+                ArtNetSocketProvider.hostAddress = ArtNetSocketProvider.findHostAddress();
+                ArtNetSocketProvider.hostAddressSelected = now;
+                ArtNetSocketProvider.hostAddressValid = true;
+            }
+            return ArtNetSocketProvider.hostAddress;
+        }
+    }
+
+    /**
+     * Forget the cached host address, so the next {@link #getHostAddress()} scans the interfaces again.
+     */
+    public static void refreshHostAddress() {
+        synchronized (ArtNetSocketProvider.hostAddressLock) {
+            ArtNetSocketProvider.hostAddressValid = false;
+        }
+    }
+
+    public static long getHostAddressRefreshNanos() {
+        return ArtNetSocketProvider.hostAddressRefreshNanos;
+    }
+
+    /**
+     * @param hostAddressRefreshNanos Time to re-use the selected host address; 0 to scan on every call, {@link Long#MAX_VALUE} to never scan again
+     */
+    public static void setHostAddressRefreshNanos(final long hostAddressRefreshNanos) {
+        if (hostAddressRefreshNanos < 0) {
+            throw new IllegalArgumentException("hostAddressRefreshNanos must not be negative");
+        }
+        ArtNetSocketProvider.hostAddressRefreshNanos = hostAddressRefreshNanos;
+    }
+
+    /**
+     * @param inetAddress Local address
+     * @return true if the address still belongs to an interface that is up
+     * @throws SocketException if the network interfaces can not be queried
+     */
+    public static boolean isUsable(final InetAddress inetAddress) throws SocketException {
+        if (inetAddress == null) {
+            return false;
+        }
+        final NetworkInterface networkInterface = NetworkInterface.getByInetAddress(inetAddress);
+        return (networkInterface != null) && networkInterface.isUp();
+    }
 
-        if (hostAddress == null) {
-            if (fallbackAddress != null) {
-                hostAddress = fallbackAddress;
-            } else {
-                hostAddress = lastAddress;
+    /**
+     * Find the broadcast address of the network the given host address belongs to.
+     * Falls back to the Art-Net primary (2.255.255.255) or secondary (10.255.255.255) broadcast address and finally to the limited broadcast address.
+     *
+     * @param hostAddress Local address
+     * @return Broadcast address
+     * @throws SocketException if the network interfaces can not be queried
+     */
+    public static InetAddress findBroadcastAddress(final InetAddress hostAddress) throws SocketException {
+        final NetworkInterface networkInterface = NetworkInterface.getByInetAddress(hostAddress);
+        if (networkInterface != null) {
+            for (final InterfaceAddress interfaceAddress : networkInterface.getInterfaceAddresses()) {
+                if (hostAddress.equals(interfaceAddress.getAddress()) && (interfaceAddress.getBroadcast() != null)) {
+                    return interfaceAddress.getBroadcast();
+                }
+            }
+        }
+        final byte[] address = hostAddress.getAddress();
+        try {
+            if (address.length == 4) {
+                switch (address[0]) {
+                    case 2:
+                    case 10:
+                        return InetAddress.getByAddress(new byte[]{address[0], (byte) 0xff, (byte) 0xff, (byte) 0xff});
+                    default:
+                        break;
+                }
             }
+            return InetAddress.getByAddress(new byte[]{(byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff});
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("Raw IPv4-address was rejected", e);
         }
-        return hostAddress;
     }
 }
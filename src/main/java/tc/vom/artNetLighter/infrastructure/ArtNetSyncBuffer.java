@@ -0,0 +1,222 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.infrastructure;
+
+import tc.vom.artNetLighter.infrastructure.constants.ArtNetOpCodes;
+import tc.vom.artNetLighter.infrastructure.packets.ArtDmx;
+import tc.vom.artNetLighter.infrastructure.packets.ArtDmxView;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+
+/**
+ * Receiver-side ArtSync handling as done by a Node.
+ * As long as ArtSync-packets arrive, received universes are held and handed to the {@link UniverseListener} together when the next ArtSync arrives.
+ * Without ArtSync for {@link #SYNC_TIMEOUT_NANOS} the buffer falls back to passing every universe on as soon as it is received.
+ * Only ArtSync from the IP that sent the last ArtDmx is honoured, so a second controller cannot release or hold the universes of another.
+ *
+ * @author github@cconstruct.de
+ * @version 0.1
+ * @since 2012-07-06
+ */
+public class ArtNetSyncBuffer implements ArtNetPacketHandler {
+
+    /**
+     * Nodes return to non-synchronous output if no ArtSync was received for 4 seconds.
+     */
+    public static final long SYNC_TIMEOUT_NANOS = 4L * ArtNetFrameScheduler.NANOS_PER_SECOND;
+
+    /**
+     * Receives the universes to output.
+     */
+    public static interface UniverseListener {
+        /**
+         * @param portAddress 15 Bit Port Address
+         * @param data        Array holding the channels; only valid during the call
+         * @param offset      First channel within data
+         * @param length      Number of channels
+         */
+        void outputUniverse(int portAddress, byte[] data, int offset, int length);
+    }
+
+    private static final class PendingUniverse {
+        private final int portAddress;
+        private final byte[] data = new byte[ArtDmx.MAXIMUM_DATA_LENGTH];
+        private int length = 0;
+        private boolean pending = false;
+
+        private PendingUniverse(final int portAddress) {
+            this.portAddress = portAddress;
+        }
+    }
+
+    private final UniverseListener listener;
+    private final PendingUniverse[] universes = new PendingUniverse[ArtNetToolkit.MAX_PORT_ADDRESS + 1];
+    /**
+     * Universes waiting for the next ArtSync in order of arrival.
+     */
+    private PendingUniverse[] pending = new PendingUniverse[16];
+    private int pendingCount = 0;
+
+    private boolean synchronous = false;
+    private long lastSync = 0;
+    private long syncsReceived = 0;
+    private long syncsIgnored = 0;
+    private boolean dmxReceived = false;
+    /**
+     * IP of the controller that sent the last ArtDmx.
+     */
+    private int dmxSource = 0;
+
+    /**
+     * Only used on the receiver thread.
+     */
+    private final ArtDmxView dmxView = new ArtDmxView();
+    private final byte[] dmxData = new byte[ArtDmx.MAXIMUM_DATA_LENGTH];
+
+    public ArtNetSyncBuffer(final UniverseListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener must not be null");
+        }
+        this.listener = listener;
+    }
+
+    /**
+     * Handle ArtDmx- and ArtSync-packets of the given receiver.
+     *
+     * @param receiver Receiver to register with
+     */
+    public void register(final ArtNetReceiver receiver) {
+        receiver.addHandler(ArtNetOpCodes.OP_CODE_DMX, this);
+        receiver.addHandler(ArtNetOpCodes.OP_CODE_SYNC, this);
+    }
+
+    /**
+     * @param sourceIp    4 Byte IP-Address of the controller that sent the ArtDmx
+     * @param portAddress 15 Bit Port Address
+     * @param data        Array holding the channels
+     * @param offset      First channel within data
+     * @param length      Number of channels; at most 512
+     * @param now         Current {@link System#nanoTime()}
+     */
+    public synchronized void dmxReceived(final int sourceIp, final int portAddress, final byte[] data, final int offset, final int length, final long now) {
+        if ((length < 0) || (length > ArtDmx.MAXIMUM_DATA_LENGTH)) {
+            throw new IllegalArgumentException("length must be in range [0," + ArtDmx.MAXIMUM_DATA_LENGTH + "]");
+        }
+        this.dmxReceived = true;
+        this.dmxSource = sourceIp;
+        if (this.synchronous && ((now - this.lastSync) > ArtNetSyncBuffer.SYNC_TIMEOUT_NANOS)) {
+            this.synchronous = false;
+            this.outputPending();
+        }
+        if (!this.synchronous) {
+            this.listener.outputUniverse(portAddress, data, offset, length);
+            return;
+        }
+        final int index = portAddress & ArtNetToolkit.MAX_PORT_ADDRESS;
+        PendingUniverse universe = this.universes[index];
+        if (universe == null) {
+            universe = new PendingUniverse(index);
+            this.universes[index] = universe;
+        }
+        System.arraycopy(data, offset, universe.data, 0, length);
+        universe.length = length;
+        if (!universe.pending) {
+            universe.pending = true;
+            if (this.pendingCount == this.pending.length) {
+                final PendingUniverse[] grown = new PendingUniverse[this.pending.length * 2];
+                System.arraycopy(this.pending, 0, grown, 0, this.pendingCount);
+                this.pending = grown;
+            }
+            this.pending[this.pendingCount++] = universe;
+        }
+    }
+
+    /**
+     * Output all held universes and stay in synchronous mode. Ignored if the ArtSync was not sent by the controller of the last ArtDmx.
+     *
+     * @param sourceIp 4 Byte IP-Address of the controller that sent the ArtSync
+     * @param now      Current {@link System#nanoTime()}
+     * @return false if the ArtSync was ignored
+     */
+    public synchronized boolean syncReceived(final int sourceIp, final long now) {
+        if (this.dmxReceived && (sourceIp != this.dmxSource)) {
+            this.syncsIgnored++;
+            return false;
+        }
+        this.synchronous = true;
+        this.lastSync = now;
+        this.syncsReceived++;
+        this.outputPending();
+        return true;
+    }
+
+    private void outputPending() {
+        for (int i = 0; i < this.pendingCount; i++) {
+            final PendingUniverse universe = this.pending[i];
+            universe.pending = false;
+            this.pending[i] = null;
+            this.listener.outputUniverse(universe.portAddress, universe.data, 0, universe.length);
+        }
+        this.pendingCount = 0;
+    }
+
+    @Override
+    public boolean handlePacket(final int opCode, final ByteBuffer packet, final InetSocketAddress source) {
+        // Inet4Address.hashCode() is the address itself
+        final int sourceIp = source.getAddress().hashCode();
+        if (opCode == ArtNetOpCodes.OP_CODE_SYNC) {
+            this.syncReceived(sourceIp, System.nanoTime());
+        } else if ((opCode == ArtNetOpCodes.OP_CODE_DMX) && this.dmxView.wrap(packet) && (this.dmxView.getDataLength() <= ArtDmx.MAXIMUM_DATA_LENGTH)) {
+            final int length = this.dmxView.copyData(this.dmxData, 0);
+            this.dmxReceived(sourceIp, this.dmxView.getPortAddress(), this.dmxData, 0, length, System.nanoTime());
+        }
+        return false;
+    }
+
+    /**
+     * @return true while ArtSync-packets arrive within {@link #SYNC_TIMEOUT_NANOS}
+     */
+    public synchronized boolean isSynchronous() {
+        return this.synchronous;
+    }
+
+    public synchronized int getPendingCount() {
+        return this.pendingCount;
+    }
+
+    public synchronized long getSyncsReceived() {
+        return this.syncsReceived;
+    }
+
+    /**
+     * @return Number of ArtSync-packets ignored because they were not sent by the controller of the last ArtDmx
+     */
+    public synchronized long getSyncsIgnored() {
+        return this.syncsIgnored;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ArtNetSyncBuffer{" +
+                "synchronous=" + this.synchronous +
+                ", pendingCount=" + this.pendingCount +
+                ", syncsReceived=" + this.syncsReceived +
+                ", syncsIgnored=" + this.syncsIgnored +
+                '}';
+    }
+}
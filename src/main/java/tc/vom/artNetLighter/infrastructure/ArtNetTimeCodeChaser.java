@@ -0,0 +1,211 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+
+package tc.vom.artNetLighter.infrastructure;
+
+import tc.vom.artNetLighter.infrastructure.constants.ArtNetOpCodes;
+import tc.vom.artNetLighter.infrastructure.packets.ArtTimeCode;
+import tc.vom.artNetLighter.infrastructure.packets.ArtTimeCodeView;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+
+/**
+ * Chases received ArtTimeCode and provides a show time that advances smoothly between frames.
+ * <p/>
+ * Every packet yields the offset between the show time of its frame and the local {@link System#nanoTime()} at arrival. The deviation
+ * of a packet from the current offset is recorded as jitter and only a fraction of it is applied, so network jitter does not make the
+ * show time stutter. A jump of more than {@link #RELOCATE_FRAMES} frames, a change of type or a packet after a dropout is taken as a
+ * locate and applied at once. Between locates, {@link #getShowTimeNanos(long)} never runs backwards; without packets it stops after
+ * {@link #getTimeoutNanos()}.
+ *
+ * @author github@cconstruct.de
+ * @version 0.1
+ * @since 2012-07-06
+ */
+public class ArtNetTimeCodeChaser implements ArtNetPacketHandler {
+
+    public static final long DEFAULT_TIMEOUT_NANOS = ArtNetFrameScheduler.NANOS_PER_SECOND / 2;
+    /**
+     * Deviation, in frames, above which a packet is taken as a locate.
+     */
+    public static final int RELOCATE_FRAMES = 2;
+    /**
+     * Each packet corrects the offset by 1/SMOOTHING of its deviation.
+     */
+    public static final int SMOOTHING = 8;
+
+    private volatile long timeoutNanos = ArtNetTimeCodeChaser.DEFAULT_TIMEOUT_NANOS;
+
+    /**
+     * Only used on the receiver thread.
+     */
+    private final ArtTimeCodeView timeCodeView = new ArtTimeCodeView();
+
+    private int type = -1;
+    private long offsetNanos = 0;
+    private long lastReceivedNanos = 0;
+    private long lastShowTimeNanos = 0;
+
+    private long packetsReceived = 0;
+    private long relocations = 0;
+    private long jitterSamples = 0;
+    private long lastJitterNanos = 0;
+    private long maxJitterNanos = 0;
+    private long totalJitterNanos = 0;
+
+    public ArtNetTimeCodeChaser() {
+    }
+
+    /**
+     * @param receiver Receiver to chase the time code of
+     */
+    public ArtNetTimeCodeChaser(final ArtNetReceiver receiver) {
+        receiver.addHandler(ArtNetOpCodes.OP_CODE_TIME_CODE, this);
+    }
+
+    public long getTimeoutNanos() {
+        return this.timeoutNanos;
+    }
+
+    /**
+     * @param timeoutNanos Time without packets after which the show time stops and the chaser is no longer locked
+     */
+    public void setTimeoutNanos(final long timeoutNanos) {
+        if (timeoutNanos <= 0) {
+            throw new IllegalArgumentException("timeoutNanos must be positive");
+        }
+        this.timeoutNanos = timeoutNanos;
+    }
+
+    @Override
+    public boolean handlePacket(final int opCode, final ByteBuffer packet, final InetSocketAddress source) {
+        if (this.timeCodeView.wrap(packet) && (this.timeCodeView.getType() <= ArtTimeCode.MAX_TYPE)) {
+            this.update(this.timeCodeView.getType(), this.timeCodeView.getFrameIndex(), System.nanoTime());
+        }
+        return false;
+    }
+
+    /**
+     * Chase one received frame.
+     *
+     * @param type       Type of the time code
+     * @param frameIndex Frame counted from 00:00:00:00
+     * @param now        {@link System#nanoTime()} at arrival
+     * @return true if the frame was taken as a locate
+     * @see ArtTimeCode#getFrameIndex(int, int, int, int, int)
+     */
+    public synchronized boolean update(final int type, final int frameIndex, final long now) {
+        final long measuredOffset = ArtTimeCode.getFrameTimeNanos(type, frameIndex) - now;
+        final long deviation = measuredOffset - this.offsetNanos;
+        final long relocateNanos = ArtNetTimeCodeChaser.RELOCATE_FRAMES * ArtTimeCode.getFrameTimeNanos(type, 1);
+        this.packetsReceived++;
+        final boolean relocate = (type != this.type) || !this.isLocked(now) || (Math.abs(deviation) > relocateNanos);
+        if (relocate) {
+            this.type = type;
+            this.offsetNanos = measuredOffset;
+            this.lastShowTimeNanos = now + measuredOffset;
+            this.relocations++;
+        } else {
+            final long jitter = Math.abs(deviation);
+            this.lastJitterNanos = jitter;
+            if (jitter > this.maxJitterNanos) {
+                this.maxJitterNanos = jitter;
+            }
+            this.totalJitterNanos += jitter;
+            this.jitterSamples++;
+            this.offsetNanos += deviation / ArtNetTimeCodeChaser.SMOOTHING;
+        }
+        this.lastReceivedNanos = now;
+        return relocate;
+    }
+
+    /**
+     * @param now Current {@link System#nanoTime()}
+     * @return true if time code was received within the timeout
+     */
+    public synchronized boolean isLocked(final long now) {
+        return (this.type >= 0) && ((now - this.lastReceivedNanos) < this.timeoutNanos);
+    }
+
+    public boolean isLocked() {
+        return this.isLocked(System.nanoTime());
+    }
+
+    /**
+     * @param now Current {@link System#nanoTime()}
+     * @return Interpolated real time since 00:00:00:00; 0 before the first packet
+     */
+    public synchronized long getShowTimeNanos(final long now) {
+        if (this.type < 0) {
+            return 0;
+        }
+        final long until = ((now - this.lastReceivedNanos) < this.timeoutNanos) ? now : (this.lastReceivedNanos + this.timeoutNanos);
+        final long showTime = until + this.offsetNanos;
+        if (showTime > this.lastShowTimeNanos) {
+            this.lastShowTimeNanos = showTime;
+        }
+        return this.lastShowTimeNanos;
+    }
+
+    public long getShowTimeNanos() {
+        return this.getShowTimeNanos(System.nanoTime());
+    }
+
+    /**
+     * @return Type of the chased time code, or -1 before the first packet
+     */
+    public synchronized int getType() {
+        return this.type;
+    }
+
+    public synchronized long getPacketsReceived() {
+        return this.packetsReceived;
+    }
+
+    /**
+     * @return Number of locates, including the first lock
+     */
+    public synchronized long getRelocations() {
+        return this.relocations;
+    }
+
+    /**
+     * @return Absolute deviation of the last packet from the chased clock
+     */
+    public synchronized long getLastJitterNanos() {
+        return this.lastJitterNanos;
+    }
+
+    public synchronized long getMaxJitterNanos() {
+        return this.maxJitterNanos;
+    }
+
+    public synchronized long getAverageJitterNanos() {
+        return (this.jitterSamples == 0) ? 0 : (this.totalJitterNanos / this.jitterSamples);
+    }
+
+    /**
+     * Forget the jitter measured so far, e.g. after the network settled.
+     */
+    public synchronized void resetStatistics() {
+        this.jitterSamples = 0;
+        this.lastJitterNanos = 0;
+        this.maxJitterNanos = 0;
+        this.totalJitterNanos = 0;
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+
+package tc.vom.artNetLighter.infrastructure;
+
+import tc.vom.artNetLighter.infrastructure.packets.ArtTimeCode;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+
+/**
+ * Time code master: broadcasts one ArtTimeCode-packet per frame on a dedicated {@link ArtNetFrameScheduler} thread.
+ * <p/>
+ * Frame deadlines are derived from the exact frame rate of the type, so DF (29.97fps) neither drifts nor accumulates rounding errors. The
+ * scheduler parks until {@link #DEFAULT_SPIN_NANOS} before each frame and spins for the rest, which keeps the jitter below a millisecond
+ * at the cost of some CPU time. Packets are encoded into a reusable buffer, so running the generator allocates nothing.
+ *
+ * @author github@cconstruct.de
+ * @version 0.1
+ * @since 2012-07-06
+ */
+public class ArtNetTimeCodeGenerator {
+
+    /**
+     * Covers the usual wake-up latency of {@link java.util.concurrent.locks.LockSupport#parkNanos(long)}.
+     */
+    public static final long DEFAULT_SPIN_NANOS = 250000L;
+
+    private final ArtNetReceiver receiver;
+    private final byte type;
+    private volatile InetSocketAddress destination;
+    private volatile long spinNanos = ArtNetTimeCodeGenerator.DEFAULT_SPIN_NANOS;
+
+    /**
+     * Only used on the scheduler thread.
+     */
+    private final byte[] packet = new byte[ArtTimeCode.PACKET_LENGTH];
+    private final ByteBuffer packetBuffer = ByteBuffer.wrap(this.packet);
+
+    private ArtNetFrameScheduler scheduler = null;
+    private int startFrame = 0;
+    private volatile int frameIndex = 0;
+    private volatile long packetsSent = 0;
+    private volatile long sendErrors = 0;
+    private volatile IOException lastSendError = null;
+
+    /**
+     * @param receiver         Receiver used to send the packets
+     * @param broadcastAddress Destination of the packets
+     * @param type             Type of the time code
+     * @see ArtTimeCode.TypeConstants
+     */
+    public ArtNetTimeCodeGenerator(final ArtNetReceiver receiver, final InetAddress broadcastAddress, final byte type) {
+        this(receiver, new InetSocketAddress(broadcastAddress, ArtNetSocketProvider.ART_NET_PORT), type);
+    }
+
+    public ArtNetTimeCodeGenerator(final ArtNetReceiver receiver, final InetSocketAddress destination, final byte type) {
+        // rejects unknown types
+        ArtTimeCode.getFramesPerSecond(type);
+        this.receiver = receiver;
+        this.destination = destination;
+        this.type = type;
+        ArtTimeCode.encodeHeader(this.packet, 0);
+    }
+
+    public byte getType() {
+        return this.type;
+    }
+
+    public InetSocketAddress getDestination() {
+        return this.destination;
+    }
+
+    public void setDestination(final InetSocketAddress destination) {
+        this.destination = destination;
+    }
+
+    public long getSpinNanos() {
+        return this.spinNanos;
+    }
+
+    /**
+     * @param spinNanos Time before each frame to stop parking and spin instead; 0 to only park. Applies from the next start.
+     */
+    public void setSpinNanos(final long spinNanos) {
+        if (spinNanos < 0) {
+            throw new IllegalArgumentException("spinNanos must not be negative");
+        }
+        this.spinNanos = spinNanos;
+    }
+
+    /**
+     * Locate to a time code. A running generator restarts its frame clock at the new position.
+     */
+    public synchronized void setPosition(final int hours, final int minutes, final int seconds, final int frames) {
+        final int index = ArtTimeCode.getFrameIndex(this.type, hours, minutes, seconds, frames);
+        if ((index < 0) || (index >= ArtTimeCode.getFramesPerDay(this.type))) {
+            throw new IllegalArgumentException("Time code must be in range [00:00:00:00,24:00:00:00)");
+        }
+        final boolean wasRunning = this.isRunning();
+        this.stop();
+        this.startFrame = index;
+        this.frameIndex = index;
+        if (wasRunning) {
+            this.start();
+        }
+    }
+
+    /**
+     * @return Frame last sent, counted from 00:00:00:00
+     */
+    public int getFrameIndex() {
+        return this.frameIndex;
+    }
+
+    /**
+     * Start sending from the current position.
+     */
+    public synchronized void start() {
+        this.stop();
+        final int first = this.startFrame;
+        final int framesPerDay = ArtTimeCode.getFramesPerDay(this.type);
+        this.scheduler = new ArtNetFrameScheduler("ArtNetTimeCodeGenerator-" + this.destination, ArtTimeCode.getCycleNanos(this.type), ArtTimeCode.getFramesPerSecond(this.type), new ArtNetFrameScheduler.Task() {
+            @Override
+            public void tick(final long frame, final long latenessNanos) {
+                ArtNetTimeCodeGenerator.this.sendFrame((int) ((first + frame) % framesPerDay));
+            }
+        });
+        this.scheduler.setSpinNanos(this.spinNanos);
+        this.scheduler.start();
+    }
+
+    /**
+     * Stop sending; a later {@link #start()} continues after the frame last sent.
+     */
+    public synchronized void stop() {
+        if (this.scheduler != null) {
+            this.scheduler.stop();
+            if (this.scheduler.getTickCount() > 0) {
+                this.startFrame = (this.frameIndex + 1) % ArtTimeCode.getFramesPerDay(this.type);
+            }
+            this.scheduler = null;
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return (this.scheduler != null) && this.scheduler.isRunning();
+    }
+
+    private void sendFrame(final int index) {
+        this.frameIndex = index;
+        final int length = ArtTimeCode.encodePacket(this.packet, 0, this.type, index);
+        this.packetBuffer.limit(length);
+        this.packetBuffer.position(0);
+        try {
+            this.receiver.send(this.packetBuffer, this.destination);
+            this.packetsSent++;
+        } catch (IOException e) {
+            this.sendErrors++;
+            this.lastSendError = e;
+        }
+    }
+
+    /**
+     * @return Scheduler of the running generator with its lateness statistics, or null
+     */
+    public synchronized ArtNetFrameScheduler getScheduler() {
+        return this.scheduler;
+    }
+
+    public long getPacketsSent() {
+        return this.packetsSent;
+    }
+
+    public long getSendErrors() {
+        return this.sendErrors;
+    }
+
+    public IOException getLastSendError() {
+        return this.lastSendError;
+    }
+
+    @Override
+    public String toString() {
+        return "ArtNetTimeCodeGenerator{" +
+                "destination=" + this.destination +
+                ", type=" + this.type +
+                ", frameIndex=" + this.frameIndex +
+                ", packetsSent=" + this.packetsSent +
+                '}';
+    }
+}
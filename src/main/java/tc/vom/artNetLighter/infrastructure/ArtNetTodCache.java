@@ -0,0 +1,338 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+
+package tc.vom.artNetLighter.infrastructure;
+
+import tc.vom.artNetLighter.infrastructure.constants.ArtNetOpCodes;
+import tc.vom.artNetLighter.infrastructure.packets.ArtTodData;
+import tc.vom.artNetLighter.infrastructure.packets.ArtTodDataView;
+import tc.vom.artNetLighter.infrastructure.packets.ArtTodRequest;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caches the RDM Table of Devices of every Output Gateway port, assembled from ArtTodData-packets.
+ * <p/>
+ * Large TODs arrive in several blocks; a TOD replaces the cached one once all {@code UidTotal} UIDs were received. Every UID is indexed
+ * by an {@link RdmUidIndex}, so the gateway and Port Address of a device are found without scanning. Ports that answered with TodNak,
+ * lost a block or announced a different {@code UidTotal} without sending the complete table are marked stale; {@link #requestStale()}
+ * re-requests only those instead of flooding the network with requests for every port.
+ *
+ * @author github@cconstruct.de
+ * @version 0.1
+ * @since 2012-07-06
+ */
+public class ArtNetTodCache implements ArtNetPacketHandler {
+
+    /**
+     * One ArtTodRequest addresses up to 32 ports of the same Net.
+     */
+    public static final int MAXIMUM_ADDRESSES_PER_REQUEST = 32;
+
+    /**
+     * Gets notified whenever a complete TOD was received that differs from the cached one.
+     */
+    public static interface TodListener {
+        /**
+         * @param ipAddress   IPv4-address of the gateway
+         * @param portAddress 15 Bit Port Address of the gateway port
+         * @param uids        48 Bit RDM UIDs of all devices of the port
+         */
+        void todChanged(int ipAddress, int portAddress, long[] uids);
+    }
+
+    private static final long[] NO_UIDS = new long[0];
+
+    private static final class Port {
+        private final int id;
+        private final int ipAddress;
+        private final int portAddress;
+        private long[] uids = ArtNetTodCache.NO_UIDS;
+        private boolean stale = true;
+        private long[] pending = null;
+        private int pendingCount = 0;
+        private int nextBlock = 0;
+
+        private Port(final int id, final int ipAddress, final int portAddress) {
+            this.id = id;
+            this.ipAddress = ipAddress;
+            this.portAddress = portAddress;
+        }
+    }
+
+    private final ArtNetReceiver receiver;
+    private volatile InetSocketAddress requestDestination;
+    private volatile TodListener todListener = null;
+
+    private final Map<Long, Port> ports = new HashMap<Long, Port>();
+    private final List<Port> portsById = new ArrayList<Port>();
+    private final RdmUidIndex index = new RdmUidIndex();
+
+    /**
+     * Only used on the receiver thread.
+     */
+    private final ArtTodDataView todDataView = new ArtTodDataView();
+
+    private long todDataReceived = 0;
+    private long todNaksReceived = 0;
+    private long blocksMissed = 0;
+    private volatile long requestsSent = 0;
+
+    /**
+     * @param receiver         Receiver used to send requests and receive ArtTodData
+     * @param broadcastAddress Destination of the requests
+     */
+    public ArtNetTodCache(final ArtNetReceiver receiver, final InetAddress broadcastAddress) {
+        this.receiver = receiver;
+        this.setBroadcastAddress(broadcastAddress);
+        receiver.addHandler(ArtNetOpCodes.OP_CODE_TOD_DATA, this);
+    }
+
+    public InetAddress getBroadcastAddress() {
+        return this.requestDestination.getAddress();
+    }
+
+    public void setBroadcastAddress(final InetAddress broadcastAddress) {
+        this.requestDestination = new InetSocketAddress(broadcastAddress, ArtNetSocketProvider.ART_NET_PORT);
+    }
+
+    public TodListener getTodListener() {
+        return this.todListener;
+    }
+
+    public void setTodListener(final TodListener todListener) {
+        this.todListener = todListener;
+    }
+
+    @Override
+    public boolean handlePacket(final int opCode, final ByteBuffer packet, final InetSocketAddress source) {
+        if (this.todDataView.wrap(packet)) {
+            // Inet4Address.hashCode() is the address itself
+            this.update(source.getAddress().hashCode(), this.todDataView);
+        }
+        return false;
+    }
+
+    /**
+     * Add one ArtTodData-packet to the TOD of its port.
+     *
+     * @param ipAddress IPv4-address of the gateway
+     * @param todData   View of the received packet; only used during the call
+     * @return true if the packet completed a TOD that differs from the cached one
+     */
+    public boolean update(final int ipAddress, final ArtTodDataView todData) {
+        final Port changed;
+        final long[] uids;
+        synchronized (this) {
+            changed = this.assemble(ipAddress, todData);
+            uids = (changed == null) ? null : changed.uids;
+        }
+        if (changed == null) {
+            return false;
+        }
+        final TodListener listener = this.todListener;
+        if (listener != null) {
+            listener.todChanged(ipAddress, changed.portAddress, uids.clone());
+        }
+        return true;
+    }
+
+    private Port assemble(final int ipAddress, final ArtTodDataView todData) {
+        this.todDataReceived++;
+        final Port port = this.getOrCreatePort(ipAddress, todData.getPortAddress());
+        if (todData.getCommandResponse() == ArtTodData.CommandResponseConstants.TodNak) {
+            this.todNaksReceived++;
+            port.pending = null;
+            port.stale = true;
+            return null;
+        }
+        final int uidTotal = todData.getUidTotal();
+        final int block = todData.getBlockCount();
+        if (block == 0) {
+            if ((port.pending == null) || (port.pending.length != uidTotal)) {
+                port.pending = new long[uidTotal];
+            }
+            port.pendingCount = 0;
+            port.nextBlock = 0;
+        }
+        if ((port.pending == null) || (block != port.nextBlock) || (port.pending.length != uidTotal)) {
+            this.blocksMissed++;
+            port.pending = null;
+            port.stale = true;
+            return null;
+        }
+        final int uidCount = Math.min(todData.getUidCount(), uidTotal - port.pendingCount);
+        for (int i = 0; i < uidCount; i++) {
+            port.pending[port.pendingCount++] = todData.getUid(i);
+        }
+        port.nextBlock++;
+        if (port.pendingCount < uidTotal) {
+            return null;
+        }
+        final long[] uids = port.pending;
+        port.pending = null;
+        port.stale = false;
+        if (Arrays.equals(uids, port.uids)) {
+            return null;
+        }
+        for (final long uid : port.uids) {
+            if (this.index.get(uid) == port.id) {
+                this.index.remove(uid);
+            }
+        }
+        for (final long uid : uids) {
+            this.index.put(uid, port.id);
+        }
+        port.uids = uids;
+        return port;
+    }
+
+    private Port getOrCreatePort(final int ipAddress, final int portAddress) {
+        final Long key = ArtNetTodCache.getKey(ipAddress, portAddress);
+        Port port = this.ports.get(key);
+        if (port == null) {
+            port = new Port(this.portsById.size(), ipAddress, portAddress);
+            this.ports.put(key, port);
+            this.portsById.add(port);
+        }
+        return port;
+    }
+
+    private static long getKey(final int ipAddress, final int portAddress) {
+        return ((ipAddress & 0xffffffffL) << BinaryToolkit.SHIFT_THIRD_BYTE) | (portAddress & ArtNetToolkit.MAX_PORT_ADDRESS);
+    }
+
+    /**
+     * Send ArtTodRequest-packets for the given ports, grouped by Net.
+     *
+     * @param portAddresses 15 Bit Port Addresses
+     * @return Number of packets sent
+     * @throws IOException if sending fails
+     */
+    public int requestTod(final int... portAddresses) throws IOException {
+        final int[] sorted = portAddresses.clone();
+        Arrays.sort(sorted);
+        int sent = 0;
+        int start = 0;
+        while (start < sorted.length) {
+            final int net = ArtNetToolkit.getNet(sorted[start]);
+            int end = start;
+            while ((end < sorted.length) && ((end - start) < ArtNetTodCache.MAXIMUM_ADDRESSES_PER_REQUEST) && (ArtNetToolkit.getNet(sorted[end]) == net)) {
+                end++;
+            }
+            final byte[] addresses = new byte[end - start];
+            for (int i = start; i < end; i++) {
+                addresses[i - start] = (byte) sorted[i];
+            }
+            this.receiver.send(ByteBuffer.wrap(new ArtTodRequest((byte) net, ArtTodRequest.CommandConstants.TodFull, addresses).constructPacket()), this.requestDestination);
+            this.requestsSent++;
+            sent++;
+            start = end;
+        }
+        return sent;
+    }
+
+    /**
+     * Re-request the TOD of every stale port.
+     *
+     * @return Number of packets sent
+     * @throws IOException if sending fails
+     */
+    public int requestStale() throws IOException {
+        return this.requestTod(this.getStalePortAddresses());
+    }
+
+    /**
+     * @return Distinct Port Addresses of all ports whose TOD is incomplete or outdated
+     */
+    public synchronized int[] getStalePortAddresses() {
+        final int[] result = new int[this.portsById.size()];
+        int count = 0;
+        for (final Port port : this.portsById) {
+            if (port.stale) {
+                result[count++] = port.portAddress;
+            }
+        }
+        Arrays.sort(result, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if ((distinct == 0) || (result[distinct - 1] != result[i])) {
+                result[distinct++] = result[i];
+            }
+        }
+        return Arrays.copyOf(result, distinct);
+    }
+
+    /**
+     * @param uid 48 Bit RDM UID
+     * @return 15 Bit Port Address of the port the device is connected to, or {@link RdmUidIndex#NOT_FOUND}
+     */
+    public synchronized int getPortAddress(final long uid) {
+        final int id = this.index.get(uid);
+        return (id == RdmUidIndex.NOT_FOUND) ? RdmUidIndex.NOT_FOUND : this.portsById.get(id).portAddress;
+    }
+
+    /**
+     * @param uid 48 Bit RDM UID
+     * @return IPv4-address of the gateway the device is connected to, or 0 if unknown
+     */
+    public synchronized int getGatewayAddress(final long uid) {
+        final int id = this.index.get(uid);
+        return (id == RdmUidIndex.NOT_FOUND) ? 0 : this.portsById.get(id).ipAddress;
+    }
+
+    /**
+     * @param ipAddress   IPv4-address of the gateway
+     * @param portAddress 15 Bit Port Address
+     * @return Copy of the last complete TOD of the port
+     */
+    public synchronized long[] getUids(final int ipAddress, final int portAddress) {
+        final Port port = this.ports.get(ArtNetTodCache.getKey(ipAddress, portAddress));
+        return (port == null) ? ArtNetTodCache.NO_UIDS : port.uids.clone();
+    }
+
+    /**
+     * @return Number of devices in all cached TODs
+     */
+    public synchronized int getUidCount() {
+        return this.index.size();
+    }
+
+    public synchronized long getTodDataReceived() {
+        return this.todDataReceived;
+    }
+
+    public synchronized long getTodNaksReceived() {
+        return this.todNaksReceived;
+    }
+
+    public synchronized long getBlocksMissed() {
+        return this.blocksMissed;
+    }
+
+    public long getRequestsSent() {
+        return this.requestsSent;
+    }
+}
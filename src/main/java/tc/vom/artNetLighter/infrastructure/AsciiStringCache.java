@@ -0,0 +1,214 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+
+package tc.vom.artNetLighter.infrastructure;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes ASCII fields and re-uses the Strings of recently decoded fields.
+ * Nodes repeat the same names in every ArtPollReply, so decoding them again only compares the bytes against the cached field.
+ * The cache is a small direct-mapped table: a field replaces whatever field was stored in its slot before.
+ * Entries are immutable, so the cache can be shared between threads without locking.
+ *
+ * @author github@cconstruct.de
+ * @version 0.1
+ * @since 2012-07-06
+ */
+public class AsciiStringCache {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * Decoded in place of bytes outside of the ASCII range, as done by the ASCII {@link java.nio.charset.Charset}.
+     */
+    public static final char REPLACEMENT_CHARACTER = '\uFFFD';
+
+    private static final AsciiStringCache DEFAULT = new AsciiStringCache(AsciiStringCache.DEFAULT_CAPACITY);
+
+    private static final class Entry {
+        private final byte[] bytes;
+        private final String string;
+
+        private Entry(final byte[] bytes, final String string) {
+            this.bytes = bytes;
+            this.string = string;
+        }
+    }
+
+    private final Entry[] entries;
+    private final int mask;
+
+    /**
+     * @param capacity Number of cached fields; rounded up to a power of two
+     */
+    public AsciiStringCache(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.entries = new Entry[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * @return Cache shared by the packet decoders
+     */
+    public static AsciiStringCache getDefault() {
+        return AsciiStringCache.DEFAULT;
+    }
+
+    /**
+     * Decode a null-terminated ASCII field.
+     *
+     * @param from      Array holding the field
+     * @param offset    Start of the field
+     * @param maxLength Length of the field
+     * @return Decoded String without terminator; allocates only if the field was not decoded recently
+     */
+    public String get(final byte[] from, final int offset, final int maxLength) {
+        int length = 0;
+        int hash = 0;
+        while ((length < maxLength) && (from[offset + length] != 0)) {
+            hash = (31 * hash) + from[offset + length];
+            length++;
+        }
+        if (length == 0) {
+            return "";
+        }
+        final int slot = AsciiStringCache.spread(hash) & this.mask;
+        final Entry entry = this.entries[slot];
+        if ((entry != null) && AsciiStringCache.matches(entry.bytes, from, offset, length)) {
+            return entry.string;
+        }
+        final byte[] bytes = new byte[length];
+        System.arraycopy(from, offset, bytes, 0, length);
+        return this.store(slot, bytes);
+    }
+
+    /**
+     * Decode a null-terminated ASCII field. Position and limit of the buffer are not changed.
+     *
+     * @param from      Buffer holding the field
+     * @param offset    Start of the field
+     * @param maxLength Length of the field
+     * @return Decoded String without terminator; allocates only if the field was not decoded recently
+     */
+    public String get(final ByteBuffer from, final int offset, final int maxLength) {
+        if (from.hasArray()) {
+            return this.get(from.array(), from.arrayOffset() + offset, maxLength);
+        }
+        int length = 0;
+        int hash = 0;
+        while ((length < maxLength) && (from.get(offset + length) != 0)) {
+            hash = (31 * hash) + from.get(offset + length);
+            length++;
+        }
+        if (length == 0) {
+            return "";
+        }
+        final int slot = AsciiStringCache.spread(hash) & this.mask;
+        final Entry entry = this.entries[slot];
+        if ((entry != null) && (entry.bytes.length == length)) {
+            boolean matches = true;
+            for (int i = 0; matches && (i < length); i++) {
+                matches = entry.bytes[i] == from.get(offset + i);
+            }
+            if (matches) {
+                return entry.string;
+            }
+        }
+        final byte[] bytes = new byte[length];
+        ByteArrayToolkit.getBytes(from, offset, bytes, 0, length);
+        return this.store(slot, bytes);
+    }
+
+    /**
+     * Decode a null-terminated ASCII field without caching, e.g. for the node report whose counter changes with every reply.
+     *
+     * @param from      Array holding the field
+     * @param offset    Start of the field
+     * @param maxLength Length of the field
+     * @return Decoded String without terminator
+     */
+    public static String decode(final byte[] from, final int offset, final int maxLength) {
+        int length = 0;
+        while ((length < maxLength) && (from[offset + length] != 0)) {
+            length++;
+        }
+        final char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            final byte b = from[offset + i];
+            chars[i] = (b < 0) ? AsciiStringCache.REPLACEMENT_CHARACTER : (char) b;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Decode a null-terminated ASCII field without caching. Position and limit of the buffer are not changed.
+     *
+     * @param from      Buffer holding the field
+     * @param offset    Start of the field
+     * @param maxLength Length of the field
+     * @return Decoded String without terminator
+     */
+    public static String decode(final ByteBuffer from, final int offset, final int maxLength) {
+        if (from.hasArray()) {
+            return AsciiStringCache.decode(from.array(), from.arrayOffset() + offset, maxLength);
+        }
+        int length = 0;
+        while ((length < maxLength) && (from.get(offset + length) != 0)) {
+            length++;
+        }
+        final byte[] bytes = new byte[length];
+        ByteArrayToolkit.getBytes(from, offset, bytes, 0, length);
+        return AsciiStringCache.decode(bytes);
+    }
+
+    private String store(final int slot, final byte[] bytes) {
+        final String string = AsciiStringCache.decode(bytes);
+        this.entries[slot] = new Entry(bytes, string);
+        return string;
+    }
+
+    private static String decode(final byte[] bytes) {
+        final char[] chars = new char[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i] = (bytes[i] < 0) ? AsciiStringCache.REPLACEMENT_CHARACTER : (char) bytes[i];
+        }
+        return new String(chars);
+    }
+
+    private static boolean matches(final byte[] cached, final byte[] from, final int offset, final int length) {
+        if (cached.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (cached[i] != from[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16) ^ (hash >>> 8);
+    }
+}
@@ -18,10 +18,15 @@ package tc.vom.artNetLighter.infrastructure;
 
 import tc.vom.artNetLighter.infrastructure.packets._ArtNetPacket;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
 
 /**
  * Some functions to convert various data-types contained in byte-arrays.
+ * <p/>
+ * The {@link ByteBuffer} variants work on heap and direct buffers alike. They use absolute indices, so position and limit are not
+ * changed, and read or write each field with a single wide access whatever the {@link ByteBuffer#order() byte order} of the buffer is.
  */
 public class ByteArrayToolkit {
 
@@ -39,7 +44,22 @@ public class ByteArrayToolkit {
         }
     }
 
+    /**
+     * Write a String as null-padded ASCII field. Pure ASCII is written char by char without an intermediate array.
+     */
     public static void setString(final String from, final byte[] to, final int offset, final int maxLength) {
+        final int length = from.length();
+        if (length <= maxLength) {
+            int i = 0;
+            while ((i < length) && (from.charAt(i) < 0x80)) {
+                to[offset + i] = (byte) from.charAt(i);
+                i++;
+            }
+            if (i == length) {
+                Arrays.fill(to, offset + length, offset + maxLength, (byte) 0);
+                return;
+            }
+        }
         final byte[] strBytes = from.getBytes(_ArtNetPacket.STRING_CHARSET);
         if (strBytes.length > maxLength) {
             throw new IllegalArgumentException("String too long");
@@ -85,13 +105,11 @@ public class ByteArrayToolkit {
         return ByteArrayToolkit.getShorts(from, offset, from.length - offset);
     }
 
+    /**
+     * Decode a null-terminated ASCII field using {@link AsciiStringCache#getDefault()}.
+     */
     public static String getString(final byte[] from, final int offset, final int length) {
-        final String shortName = new String(from, offset, length, _ArtNetPacket.STRING_CHARSET);
-        final int nullTerminator = shortName.indexOf(0);
-        if (nullTerminator != -1) {
-            return shortName.substring(0, nullTerminator);
-        }
-        return shortName;
+        return AsciiStringCache.getDefault().get(from, offset, length);
     }
 
     public static int get4BytesHighToLow(final byte[] from, final int offset) {
@@ -142,4 +160,109 @@ public class ByteArrayToolkit {
         to[offset] = (byte) (from & BinaryToolkit.FIRST_BYTE_MASK);
     }
 
+    public static int get4BytesHighToLow(final ByteBuffer from, final int offset) {
+        final int value = from.getInt(offset);
+        return (from.order() == ByteOrder.BIG_ENDIAN) ? value : Integer.reverseBytes(value);
+    }
+
+    public static int get4BytesLowToHigh(final ByteBuffer from, final int offset) {
+        final int value = from.getInt(offset);
+        return (from.order() == ByteOrder.LITTLE_ENDIAN) ? value : Integer.reverseBytes(value);
+    }
+
+    public static int get2BytesHighToLow(final ByteBuffer from, final int offset) {
+        final short value = from.getShort(offset);
+        return ((from.order() == ByteOrder.BIG_ENDIAN) ? value : Short.reverseBytes(value)) & 0xffff;
+    }
+
+    public static int get2BytesLowToHigh(final ByteBuffer from, final int offset) {
+        final short value = from.getShort(offset);
+        return ((from.order() == ByteOrder.LITTLE_ENDIAN) ? value : Short.reverseBytes(value)) & 0xffff;
+    }
+
+    public static void set4BytesHighToLow(final int from, final ByteBuffer to, final int offset) {
+        to.putInt(offset, (to.order() == ByteOrder.BIG_ENDIAN) ? from : Integer.reverseBytes(from));
+    }
+
+    public static void set4BytesLowToHigh(final int from, final ByteBuffer to, final int offset) {
+        to.putInt(offset, (to.order() == ByteOrder.LITTLE_ENDIAN) ? from : Integer.reverseBytes(from));
+    }
+
+    public static void set2BytesHighToLow(final int from, final ByteBuffer to, final int offset) {
+        to.putShort(offset, (to.order() == ByteOrder.BIG_ENDIAN) ? (short) from : Short.reverseBytes((short) from));
+    }
+
+    public static void set2BytesLowToHigh(final int from, final ByteBuffer to, final int offset) {
+        to.putShort(offset, (to.order() == ByteOrder.LITTLE_ENDIAN) ? (short) from : Short.reverseBytes((short) from));
+    }
+
+    /**
+     * Copy bytes out of a buffer into an array.
+     *
+     * @param from     Source buffer
+     * @param offset   First byte to copy
+     * @param to       Target array
+     * @param toOffset Start within the target array
+     * @param length   Number of bytes to copy
+     */
+    public static void getBytes(final ByteBuffer from, final int offset, final byte[] to, final int toOffset, final int length) {
+        if ((offset < 0) || (length < 0) || (length > (from.limit() - offset))) {
+            throw new IndexOutOfBoundsException("offset and length must be within the limit of the buffer");
+        }
+        if (from.hasArray()) {
+            System.arraycopy(from.array(), from.arrayOffset() + offset, to, toOffset, length);
+        } else {
+            // bulk get on a duplicate keeps the position of the shared buffer untouched
+            final ByteBuffer source = from.duplicate();
+            source.position(offset);
+            source.get(to, toOffset, length);
+        }
+    }
+
+    public static byte[] getBytes(final ByteBuffer from, final int offset, final int length) {
+        final byte[] result = new byte[length];
+        ByteArrayToolkit.getBytes(from, offset, result, 0, length);
+        return result;
+    }
+
+    /**
+     * Copy bytes from an array into a buffer.
+     *
+     * @param from       Source array
+     * @param fromOffset First byte to copy
+     * @param to         Target buffer
+     * @param offset     Start within the target buffer
+     * @param length     Number of bytes to copy
+     */
+    public static void setBytes(final byte[] from, final int fromOffset, final ByteBuffer to, final int offset, final int length) {
+        if ((offset < 0) || (length < 0) || (length > (to.limit() - offset))) {
+            throw new IndexOutOfBoundsException("offset and length must be within the limit of the buffer");
+        }
+        if (to.hasArray()) {
+            System.arraycopy(from, fromOffset, to.array(), to.arrayOffset() + offset, length);
+        } else {
+            final ByteBuffer target = to.duplicate();
+            target.position(offset);
+            target.put(from, fromOffset, length);
+        }
+    }
+
+    public static void setBytes(final byte[] from, final ByteBuffer to, final int offset) {
+        ByteArrayToolkit.setBytes(from, 0, to, offset, from.length);
+    }
+
+    public static short[] getShorts(final ByteBuffer from, final int offset, final int byteLength) {
+        assert (byteLength % 2) == 0;
+        final short[] result = new short[byteLength / 2];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (short) ByteArrayToolkit.get2BytesHighToLow(from, offset + (i * 2));
+        }
+        return result;
+    }
+
+    public static void setShorts(final short[] from, final ByteBuffer to, final int offset) {
+        for (int i = 0; i < from.length; i++) {
+            ByteArrayToolkit.set2BytesHighToLow(from[i], to, offset + (i * 2));
+        }
+    }
 }
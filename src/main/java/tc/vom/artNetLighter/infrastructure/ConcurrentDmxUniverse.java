@@ -0,0 +1,185 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+
+package tc.vom.artNetLighter.infrastructure;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A universe written by several render threads and read by one transmit thread without locks.
+ * <p/>
+ * Render threads write disjoint channel ranges between {@link #beginWrite()} and {@link #endWrite()}; they never wait for each other or
+ * for the transmit thread. At each frame boundary the transmit thread calls {@link #swap()}, which copies the written channels into a
+ * second buffer if no write was in progress during the copy. While writes are in progress it yields for up to
+ * {@link #getSwapWaitNanos()}; if the writers do not finish in time the previous snapshot is kept, so a half-written frame is never
+ * transmitted. Render threads that write for most of each frame should keep their writes short or the frame is sent stale, which is
+ * counted by {@link #getSwapsFailed()}.
+ * <p/>
+ * The written channels are kept in an {@link AtomicIntegerArray}, one element per channel: plain array reads during the copy could be
+ * reordered after the following check of the writer counters, so a torn frame could pass as consistent.
+ *
+ * @author github@cconstruct.de
+ * @version 0.1
+ * @since 2012-07-06
+ */
+public class ConcurrentDmxUniverse {
+
+    /**
+     * Time {@link #swap()} waits for writes in progress before the previous snapshot is kept; about 1% of a frame at 44 fps.
+     */
+    public static final long DEFAULT_SWAP_WAIT_NANOS = ArtNetFrameScheduler.NANOS_PER_SECOND / 4000;
+
+    private final AtomicIntegerArray back = new AtomicIntegerArray(DmxUniverseBuffer.CHANNELS);
+    /**
+     * Only used by the transmit thread.
+     */
+    private byte[] front = new byte[DmxUniverseBuffer.CHANNELS];
+    private byte[] spare = new byte[DmxUniverseBuffer.CHANNELS];
+
+    private final AtomicInteger activeWriters = new AtomicInteger();
+    /**
+     * Incremented after every completed write, so a snapshot can detect writes that started and ended during the copy.
+     */
+    private final AtomicLong generation = new AtomicLong();
+    private long snapshotGeneration = 0;
+    private volatile long swapsFailed = 0;
+    private volatile long swapWaitNanos = ConcurrentDmxUniverse.DEFAULT_SWAP_WAIT_NANOS;
+
+    public long getSwapWaitNanos() {
+        return this.swapWaitNanos;
+    }
+
+    /**
+     * @param swapWaitNanos Time {@link #swap()} yields to writes in progress; 0 to fail at once
+     */
+    public void setSwapWaitNanos(final long swapWaitNanos) {
+        if (swapWaitNanos < 0) {
+            throw new IllegalArgumentException("swapWaitNanos must not be negative");
+        }
+        this.swapWaitNanos = swapWaitNanos;
+    }
+
+    /**
+     * Start writing channels. Every call must be followed by {@link #endWrite()}, preferably in a finally-block.
+     */
+    public void beginWrite() {
+        this.activeWriters.incrementAndGet();
+    }
+
+    /**
+     * Finish writing and allow the next snapshot.
+     */
+    public void endWrite() {
+        this.generation.incrementAndGet();
+        this.activeWriters.decrementAndGet();
+    }
+
+    /**
+     * Write a channel; only valid between {@link #beginWrite()} and {@link #endWrite()}.
+     *
+     * @param channel Channel index (0 - 511)
+     * @param value   Channel value (0 - 255)
+     */
+    public void setChannel(final int channel, final int value) {
+        DmxUniverseBuffer.checkChannel(channel);
+        this.back.set(channel, value & 0xff);
+    }
+
+    /**
+     * Write consecutive channels; only valid between {@link #beginWrite()} and {@link #endWrite()}.
+     *
+     * @param channel First channel to write
+     * @param values  Array holding the new values
+     * @param offset  First value within values
+     * @param length  Number of channels to write
+     */
+    public void setChannels(final int channel, final byte[] values, final int offset, final int length) {
+        if ((channel < 0) || (length < 0) || (length > (DmxUniverseBuffer.CHANNELS - channel))) {
+            throw new IllegalArgumentException("Channels must be in range [0," + (DmxUniverseBuffer.CHANNELS - 1) + "]");
+        }
+        for (int i = 0; i < length; i++) {
+            this.back.set(channel + i, values[offset + i] & 0xff);
+        }
+    }
+
+    /**
+     * Write consecutive channels as one complete write.
+     *
+     * @param channel First channel to write
+     * @param values  Array holding the new values
+     * @param offset  First value within values
+     * @param length  Number of channels to write
+     */
+    public void write(final int channel, final byte[] values, final int offset, final int length) {
+        this.beginWrite();
+        try {
+            this.setChannels(channel, values, offset, length);
+        } finally {
+            this.endWrite();
+        }
+    }
+
+    /**
+     * Take a consistent snapshot of all completed writes. Must only be called by the transmit thread.
+     *
+     * @return true if {@link #getSnapshot()} changed, false if nothing was written or writes were still in progress after
+     *         {@link #getSwapWaitNanos()}
+     */
+    public boolean swap() {
+        final long deadline = System.nanoTime() + this.swapWaitNanos;
+        while (true) {
+            final long before = this.generation.get();
+            if (before == this.snapshotGeneration) {
+                return false;
+            }
+            if (this.activeWriters.get() == 0) {
+                final byte[] copy = this.spare;
+                for (int i = 0; i < DmxUniverseBuffer.CHANNELS; i++) {
+                    copy[i] = (byte) this.back.get(i);
+                }
+                if ((this.activeWriters.get() == 0) && (this.generation.get() == before)) {
+                    final byte[] previous = this.front;
+                    this.front = this.spare;
+                    this.spare = previous;
+                    this.snapshotGeneration = before;
+                    return true;
+                }
+            }
+            if ((System.nanoTime() - deadline) >= 0) {
+                this.swapsFailed++;
+                return false;
+            }
+            Thread.yield();
+        }
+    }
+
+    /**
+     * @return Channels of the last snapshot; only valid on the transmit thread until the next {@link #swap()}
+     */
+    public byte[] getSnapshot() {
+        return this.front;
+    }
+
+    /**
+     * @return Number of frame boundaries at which writes were in progress and the previous snapshot was kept
+     */
+    public long getSwapsFailed() {
+        return this.swapsFailed;
+    }
+}
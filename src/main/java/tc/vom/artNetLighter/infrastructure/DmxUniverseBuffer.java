@@ -0,0 +1,275 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.infrastructure;
+
+import tc.vom.artNetLighter.infrastructure.packets.ArtDmx;
+
+import java.util.Arrays;
+
+/**
+ * 512 channel DMX-buffer that tracks which channels changed since it was last transmitted.
+ * Writes that do not change a value leave the buffer clean, so a sender only transmits universes that really changed.
+ * Dirty channels are kept as a bit set together with the range they span. All methods are synchronized on the buffer.
+ *
+ * @author github@cconstruct.de
+ * @version 0.1
+ * @since 2012-07-06
+ */
+public class DmxUniverseBuffer {
+
+    public static final int CHANNELS = ArtDmx.MAXIMUM_DATA_LENGTH;
+
+    private static final int BITS_PER_WORD = 64;
+    private static final int WORD_SHIFT = 6;
+
+    private final byte[] data = new byte[DmxUniverseBuffer.CHANNELS];
+    private final long[] dirtyBits = new long[DmxUniverseBuffer.CHANNELS / DmxUniverseBuffer.BITS_PER_WORD];
+    private int dirtyFrom = DmxUniverseBuffer.CHANNELS;
+    private int dirtyTo = 0;
+    private int patchedLength = 0;
+    private int lastTrimmedLength = DmxUniverseBuffer.CHANNELS;
+
+    /**
+     * Creates a buffer with all channels at 0 and marked dirty, so it gets transmitted once.
+     */
+    public DmxUniverseBuffer() {
+        this.markDirty();
+    }
+
+    /**
+     * @param channel Channel index (0 - 511)
+     * @param value   Channel value (0 - 255)
+     * @return true if the value changed
+     */
+    public synchronized boolean setChannel(final int channel, final int value) {
+        DmxUniverseBuffer.checkChannel(channel);
+        final byte b = (byte) value;
+        if (this.data[channel] == b) {
+            return false;
+        }
+        this.data[channel] = b;
+        this.markDirty(channel);
+        return true;
+    }
+
+    /**
+     * Write consecutive channels.
+     *
+     * @param channel First channel to write
+     * @param values  Array holding the new values
+     * @param offset  First value within values
+     * @param length  Number of channels to write
+     * @return Number of channels that changed
+     */
+    public synchronized int setChannels(final int channel, final byte[] values, final int offset, final int length) {
+        if ((channel < 0) || (length < 0) || (length > (DmxUniverseBuffer.CHANNELS - channel))) {
+            throw new IllegalArgumentException("Channels must be in range [0," + (DmxUniverseBuffer.CHANNELS - 1) + "]");
+        }
+        int changed = 0;
+        for (int i = 0; i < length; i++) {
+            final byte b = values[offset + i];
+            if (this.data[channel + i] != b) {
+                this.data[channel + i] = b;
+                this.markDirty(channel + i);
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Replace all channels.
+     *
+     * @param values Up to 512 channel values; missing channels are set to 0
+     * @return Number of channels that changed
+     */
+    public synchronized int setData(final byte[] values) {
+        if (values.length > DmxUniverseBuffer.CHANNELS) {
+            throw new IllegalArgumentException("data has a maximum length of " + DmxUniverseBuffer.CHANNELS + " Bytes.");
+        }
+        int changed = this.setChannels(0, values, 0, values.length);
+        for (int i = values.length; i < DmxUniverseBuffer.CHANNELS; i++) {
+            if (this.data[i] != 0) {
+                this.data[i] = 0;
+                this.markDirty(i);
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * @param channel Channel index (0 - 511)
+     * @return Unsigned channel value
+     */
+    public synchronized int getChannel(final int channel) {
+        DmxUniverseBuffer.checkChannel(channel);
+        return this.data[channel] & BinaryToolkit.FIRST_BYTE_MASK;
+    }
+
+    /**
+     * @param to     Target array
+     * @param offset Start within the target array
+     */
+    public synchronized void copyData(final byte[] to, final int offset) {
+        System.arraycopy(this.data, 0, to, offset, DmxUniverseBuffer.CHANNELS);
+    }
+
+    /**
+     * @return Copy of all channels
+     */
+    public synchronized byte[] getData() {
+        return this.data.clone();
+    }
+
+    /**
+     * @return true if any channel changed since the last {@link #clearDirty()}
+     */
+    public synchronized boolean isDirty() {
+        return this.dirtyFrom < this.dirtyTo;
+    }
+
+    /**
+     * @param channel Channel index (0 - 511)
+     * @return true if the channel changed since the last {@link #clearDirty()}
+     */
+    public synchronized boolean isDirty(final int channel) {
+        DmxUniverseBuffer.checkChannel(channel);
+        return (this.dirtyBits[channel >>> DmxUniverseBuffer.WORD_SHIFT] & (1L << channel)) != 0;
+    }
+
+    /**
+     * @return First dirty channel; 512 if clean
+     */
+    public synchronized int getDirtyFrom() {
+        return this.dirtyFrom;
+    }
+
+    /**
+     * @return Channel after the last dirty channel; 0 if clean
+     */
+    public synchronized int getDirtyTo() {
+        return this.dirtyTo;
+    }
+
+    /**
+     * @return Number of dirty channels
+     */
+    public synchronized int getDirtyCount() {
+        int count = 0;
+        for (final long word : this.dirtyBits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Mark all channels dirty, e.g. to force a transmission.
+     */
+    public synchronized void markDirty() {
+        Arrays.fill(this.dirtyBits, -1L);
+        this.dirtyFrom = 0;
+        this.dirtyTo = DmxUniverseBuffer.CHANNELS;
+    }
+
+    public synchronized void clearDirty() {
+        if (this.isDirty()) {
+            Arrays.fill(this.dirtyBits, this.dirtyFrom >>> DmxUniverseBuffer.WORD_SHIFT, ((this.dirtyTo - 1) >>> DmxUniverseBuffer.WORD_SHIFT) + 1, 0L);
+            this.dirtyFrom = DmxUniverseBuffer.CHANNELS;
+            this.dirtyTo = 0;
+        }
+    }
+
+    public synchronized int getPatchedLength() {
+        return this.patchedLength;
+    }
+
+    /**
+     * @param patchedLength Number of channels in use by patched fixtures; trimmed packets never get shorter
+     */
+    public synchronized void setPatchedLength(final int patchedLength) {
+        if ((patchedLength < 0) || (patchedLength > DmxUniverseBuffer.CHANNELS)) {
+            throw new IllegalArgumentException("patchedLength must be in range [0," + DmxUniverseBuffer.CHANNELS + "]");
+        }
+        this.patchedLength = patchedLength;
+    }
+
+    /**
+     * Encode all channels into an ArtDmx-packet and mark the buffer clean.
+     *
+     * @param to          Array prepared by {@link ArtDmx#encodeHeader(byte[], int)}
+     * @param offset      Start of the packet within the array
+     * @param sequence    Sequence number; 0 to disable sequencing
+     * @param physical    Physical input port
+     * @param portAddress 15 Bit Port Address
+     * @return Length of the packet
+     */
+    public synchronized int encodeArtDmx(final byte[] to, final int offset, final byte sequence, final byte physical, final int portAddress) {
+        return this.encodeArtDmx(to, offset, sequence, physical, portAddress, false);
+    }
+
+    /**
+     * Encode channels into an ArtDmx-packet and mark the buffer clean.
+     * A trimmed packet ends after the highest non-zero or patched channel. When the trimmed length shrinks, the previous length is
+     * sent once more, so Nodes receive the zeros of the channels that are dropped.
+     *
+     * @param to          Array prepared by {@link ArtDmx#encodeHeader(byte[], int)}
+     * @param offset      Start of the packet within the array
+     * @param sequence    Sequence number; 0 to disable sequencing
+     * @param physical    Physical input port
+     * @param portAddress 15 Bit Port Address
+     * @param trim        true to send only the used channels
+     * @return Length of the packet
+     */
+    public synchronized int encodeArtDmx(final byte[] to, final int offset, final byte sequence, final byte physical, final int portAddress, final boolean trim) {
+        int dataLength = DmxUniverseBuffer.CHANNELS;
+        if (trim) {
+            final int trimmed = ArtDmx.getTrimmedLength(this.data, 0, DmxUniverseBuffer.CHANNELS, this.patchedLength);
+            dataLength = Math.max(trimmed, this.lastTrimmedLength);
+            this.lastTrimmedLength = trimmed;
+        } else {
+            this.lastTrimmedLength = DmxUniverseBuffer.CHANNELS;
+        }
+        final int length = ArtDmx.encodePacket(to, offset, sequence, physical, portAddress, this.data, 0, dataLength);
+        this.clearDirty();
+        return length;
+    }
+
+    private void markDirty(final int channel) {
+        this.dirtyBits[channel >>> DmxUniverseBuffer.WORD_SHIFT] |= 1L << channel;
+        if (channel < this.dirtyFrom) {
+            this.dirtyFrom = channel;
+        }
+        if (channel >= this.dirtyTo) {
+            this.dirtyTo = channel + 1;
+        }
+    }
+
+    static void checkChannel(final int channel) {
+        if ((channel < 0) || (channel >= DmxUniverseBuffer.CHANNELS)) {
+            throw new IllegalArgumentException("Channel must be in range [0," + (DmxUniverseBuffer.CHANNELS - 1) + "]");
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "DmxUniverseBuffer{" +
+                "dirtyFrom=" + this.dirtyFrom +
+                ", dirtyTo=" + this.dirtyTo +
+                '}';
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+
+package tc.vom.artNetLighter.infrastructure;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free {@link ConcurrentDmxUniverse}s by Port Address, shared between render threads and the transmit thread of an {@link ArtNetSender}.
+ * Universes are created on first use; looking up an existing universe never blocks.
+ *
+ * @author github@cconstruct.de
+ * @version 0.1
+ * @since 2012-07-06
+ */
+public class DmxUniverseStore {
+
+    private final AtomicReferenceArray<ConcurrentDmxUniverse> universes = new AtomicReferenceArray<ConcurrentDmxUniverse>(ArtNetToolkit.MAX_PORT_ADDRESS + 1);
+    /**
+     * Port Addresses of all created universes; copy-on-write.
+     */
+    private final AtomicReference<int[]> portAddresses = new AtomicReference<int[]>(new int[0]);
+
+    /**
+     * @param portAddress 15 Bit Port Address
+     * @return The universe, created if necessary
+     */
+    public ConcurrentDmxUniverse getUniverse(final int portAddress) {
+        if ((portAddress < 0) || (portAddress > ArtNetToolkit.MAX_PORT_ADDRESS)) {
+            throw new IllegalArgumentException("portAddress must be in range [0," + ArtNetToolkit.MAX_PORT_ADDRESS + "]");
+        }
+        final ConcurrentDmxUniverse universe = this.universes.get(portAddress);
+        if (universe != null) {
+            return universe;
+        }
+        final ConcurrentDmxUniverse created = new ConcurrentDmxUniverse();
+        if (!this.universes.compareAndSet(portAddress, null, created)) {
+            return this.universes.get(portAddress);
+        }
+        int[] current;
+        int[] updated;
+        do {
+            current = this.portAddresses.get();
+            updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = portAddress;
+        } while (!this.portAddresses.compareAndSet(current, updated));
+        return created;
+    }
+
+    /**
+     * @return Port Addresses of all universes in order of creation
+     */
+    public int[] getPortAddresses() {
+        return this.portAddresses.get().clone();
+    }
+
+    /**
+     * Take a snapshot of every universe and copy changed snapshots into the buffers of the sender.
+     * Universes whose snapshot failed because of writes in progress are counted by {@link ArtNetSender#getStaleSnapshots()}.
+     * Must only be called by the transmit thread; {@link ArtNetSender} does so before each frame once the store is
+     * {@link ArtNetSender#setUniverseStore(DmxUniverseStore) set}.
+     *
+     * @param sender Sender to update
+     * @return Number of universes with a new snapshot
+     */
+    public int publish(final ArtNetSender sender) {
+        final int[] addresses = this.portAddresses.get();
+        int published = 0;
+        for (int i = 0; i < addresses.length; i++) {
+            final ConcurrentDmxUniverse universe = this.universes.get(addresses[i]);
+            final long failed = universe.getSwapsFailed();
+            if (universe.swap()) {
+                sender.getUniverseBuffer(addresses[i]).setChannels(0, universe.getSnapshot(), 0, DmxUniverseBuffer.CHANNELS);
+                published++;
+            } else if (universe.getSwapsFailed() != failed) {
+                sender.staleSnapshot();
+            }
+        }
+        return published;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+
+package tc.vom.artNetLighter.infrastructure;
+
+/**
+ * 48 Bit RDM UID packed into a long: 16 Bit ESTA manufacturer ID in the upper and 32 Bit device ID in the lower Bits.
+ * The static methods work on the packed long directly, so tables of UIDs can be kept in a long[] without one object per device.
+ *
+ * @author github@cconstruct.de
+ * @version 0.1
+ * @since 2012-07-06
+ */
+public final class RdmUid {
+
+    public static final int LENGTH = 6;
+    public static final long MAX_VALUE = 0xffffffffffffL;
+    public static final int MAX_MANUFACTURER_ID = 0xffff;
+    public static final long MAX_DEVICE_ID = 0xffffffffL;
+    /**
+     * All devices of all manufacturers.
+     */
+    public static final long BROADCAST = RdmUid.MAX_VALUE;
+
+    private static final int SHIFT_MANUFACTURER_ID = 32;
+
+    private final long value;
+
+    /**
+     * @param value 48 Bit UID
+     */
+    public RdmUid(final long value) {
+        if ((value < 0) || (value > RdmUid.MAX_VALUE)) {
+            throw new IllegalArgumentException("value must be in range [0," + RdmUid.MAX_VALUE + "]");
+        }
+        this.value = value;
+    }
+
+    /**
+     * @param manufacturerId 16 Bit ESTA manufacturer ID
+     * @param deviceId       32 Bit device ID
+     */
+    public RdmUid(final int manufacturerId, final long deviceId) {
+        this(RdmUid.pack(manufacturerId, deviceId));
+    }
+
+    public static long pack(final int manufacturerId, final long deviceId) {
+        if ((manufacturerId < 0) || (manufacturerId > RdmUid.MAX_MANUFACTURER_ID)) {
+            throw new IllegalArgumentException("manufacturerId must be in range [0," + RdmUid.MAX_MANUFACTURER_ID + "]");
+        }
+        if ((deviceId < 0) || (deviceId > RdmUid.MAX_DEVICE_ID)) {
+            throw new IllegalArgumentException("deviceId must be in range [0," + RdmUid.MAX_DEVICE_ID + "]");
+        }
+        return ((long) manufacturerId << RdmUid.SHIFT_MANUFACTURER_ID) | deviceId;
+    }
+
+    public static int getManufacturerId(final long uid) {
+        return (int) (uid >>> RdmUid.SHIFT_MANUFACTURER_ID) & RdmUid.MAX_MANUFACTURER_ID;
+    }
+
+    public static long getDeviceId(final long uid) {
+        return uid & RdmUid.MAX_DEVICE_ID;
+    }
+
+    /**
+     * Read a UID as transmitted: 6 Bytes, manufacturer ID first, High-Byte first.
+     *
+     * @param from   Array holding the UID
+     * @param offset Start of the UID
+     * @return 48 Bit UID
+     */
+    public static long read(final byte[] from, final int offset) {
+        return ((ByteArrayToolkit.get2BytesHighToLow(from, offset) & 0xffffL) << RdmUid.SHIFT_MANUFACTURER_ID) | (ByteArrayToolkit.get4BytesHighToLow(from, offset + 2) & RdmUid.MAX_DEVICE_ID);
+    }
+
+    /**
+     * Write a UID as transmitted: 6 Bytes, manufacturer ID first, High-Byte first.
+     *
+     * @param uid    48 Bit UID
+     * @param to     Target array
+     * @param offset Start of the UID
+     */
+    public static void write(final long uid, final byte[] to, final int offset) {
+        ByteArrayToolkit.set2BytesHighToLow(RdmUid.getManufacturerId(uid), to, offset);
+        ByteArrayToolkit.set4BytesHighToLow((int) uid, to, offset + 2);
+    }
+
+    /**
+     * @return UID in the usual notation, e.g. "4a4c:00000001"
+     */
+    public static String toString(final long uid) {
+        final String manufacturer = Integer.toHexString(RdmUid.getManufacturerId(uid));
+        final String device = Long.toHexString(RdmUid.getDeviceId(uid));
+        return "0000".substring(manufacturer.length()) + manufacturer + ':' + "00000000".substring(device.length()) + device;
+    }
+
+    public long getValue() {
+        return this.value;
+    }
+
+    public int getManufacturerId() {
+        return RdmUid.getManufacturerId(this.value);
+    }
+
+    public long getDeviceId() {
+        return RdmUid.getDeviceId(this.value);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RdmUid)) {
+            return false;
+        }
+        return this.value == ((RdmUid) o).value;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (this.value ^ (this.value >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return RdmUid.toString(this.value);
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+
+package tc.vom.artNetLighter.infrastructure;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from 48 Bit RDM UIDs to int values without boxing.
+ * Not thread-safe; callers synchronize.
+ *
+ * @author github@cconstruct.de
+ * @version 0.1
+ * @since 2012-07-06
+ */
+public class RdmUidIndex {
+
+    /**
+     * Returned for UIDs that are not in the index.
+     */
+    public static final int NOT_FOUND = -1;
+    /**
+     * Largest 48 Bit UID.
+     */
+    public static final long MAX_UID = RdmUid.MAX_VALUE;
+
+    private static final long EMPTY = -1L;
+    private static final int MINIMUM_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size = 0;
+
+    public RdmUidIndex() {
+        this(RdmUidIndex.MINIMUM_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize Number of UIDs that fit without growing the table
+     */
+    public RdmUidIndex(final int expectedSize) {
+        int capacity = RdmUidIndex.MINIMUM_CAPACITY;
+        while (capacity < (expectedSize * 2)) {
+            capacity <<= 1;
+        }
+        this.allocate(capacity);
+    }
+
+    private void allocate(final int capacity) {
+        this.keys = new long[capacity];
+        Arrays.fill(this.keys, RdmUidIndex.EMPTY);
+        this.values = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    private int slot(final long uid) {
+        final long hash = uid * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & this.mask;
+    }
+
+    private static long checkUid(final long uid) {
+        if ((uid < 0) || (uid > RdmUidIndex.MAX_UID)) {
+            throw new IllegalArgumentException("uid must be in range [0," + RdmUidIndex.MAX_UID + "]");
+        }
+        return uid;
+    }
+
+    /**
+     * @param uid 48 Bit RDM UID
+     * @return Value stored for the UID or {@link #NOT_FOUND}
+     */
+    public int get(final long uid) {
+        for (int i = this.slot(uid); ; i = (i + 1) & this.mask) {
+            final long key = this.keys[i];
+            if (key == uid) {
+                return this.values[i];
+            }
+            if (key == RdmUidIndex.EMPTY) {
+                return RdmUidIndex.NOT_FOUND;
+            }
+        }
+    }
+
+    public boolean contains(final long uid) {
+        return this.get(uid) != RdmUidIndex.NOT_FOUND;
+    }
+
+    /**
+     * @param uid   48 Bit RDM UID
+     * @param value Value to store; must not be {@link #NOT_FOUND}
+     * @return Previous value or {@link #NOT_FOUND}
+     */
+    public int put(final long uid, final int value) {
+        RdmUidIndex.checkUid(uid);
+        if (value == RdmUidIndex.NOT_FOUND) {
+            throw new IllegalArgumentException("value must not be NOT_FOUND");
+        }
+        if (((this.size + 1) * 2) > this.keys.length) {
+            this.grow();
+        }
+        for (int i = this.slot(uid); ; i = (i + 1) & this.mask) {
+            final long key = this.keys[i];
+            if (key == uid) {
+                final int previous = this.values[i];
+                this.values[i] = value;
+                return previous;
+            }
+            if (key == RdmUidIndex.EMPTY) {
+                this.keys[i] = uid;
+                this.values[i] = value;
+                this.size++;
+                return RdmUidIndex.NOT_FOUND;
+            }
+        }
+    }
+
+    /**
+     * @param uid 48 Bit RDM UID
+     * @return Removed value or {@link #NOT_FOUND}
+     */
+    public int remove(final long uid) {
+        int i = this.slot(uid);
+        while (this.keys[i] != uid) {
+            if (this.keys[i] == RdmUidIndex.EMPTY) {
+                return RdmUidIndex.NOT_FOUND;
+            }
+            i = (i + 1) & this.mask;
+        }
+        final int removed = this.values[i];
+        // Shift following entries of the probe sequence back, so no tombstones are needed
+        int gap = i;
+        for (int j = (gap + 1) & this.mask; this.keys[j] != RdmUidIndex.EMPTY; j = (j + 1) & this.mask) {
+            final int home = this.slot(this.keys[j]);
+            if (((j - home) & this.mask) >= ((j - gap) & this.mask)) {
+                this.keys[gap] = this.keys[j];
+                this.values[gap] = this.values[j];
+                gap = j;
+            }
+        }
+        this.keys[gap] = RdmUidIndex.EMPTY;
+        this.size--;
+        return removed;
+    }
+
+    private void grow() {
+        final long[] oldKeys = this.keys;
+        final int[] oldValues = this.values;
+        this.allocate(oldKeys.length * 2);
+        this.size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != RdmUidIndex.EMPTY) {
+                this.put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public void clear() {
+        Arrays.fill(this.keys, RdmUidIndex.EMPTY);
+        this.size = 0;
+    }
+}
@@ -46,6 +46,10 @@ public interface ArtNetOpCodes {
      * This is an ArtNzs data packet. It contains non-zero start code (except RDM) DMX512 information for a single Universe.
      */
     int OP_CODE_NZS = 0x5100;
+    /**
+     * This is an ArtSync data packet. It is used to force synchronous transfer of ArtDmx packets to a node’s output.
+     */
+    int OP_CODE_SYNC = 0x5200;
     /**
      * This is an ArtAddress packet. It contains remote programming information for a Node.
      */
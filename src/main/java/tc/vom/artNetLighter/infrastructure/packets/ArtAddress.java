@@ -250,12 +250,20 @@ public class ArtAddress extends _VersionedArtNetPacket {
         if (shortName == null) {
             shortName = "";
         }
-        final byte[] shortNameBytes = shortName.getBytes(_ArtNetPacket.STRING_CHARSET);
         if (longName == null) {
             longName = "";
         }
-        final byte[] longNameBytes = longName.getBytes(_ArtNetPacket.STRING_CHARSET);
-        return ArtAddress.constructPacket(net, filler, shortNameBytes, longNameBytes, universesIn, universesOut, subNet, video, command);
+        // ASCII encodes every char as one byte, so the lengths can be checked before encoding
+        if ((shortName.length() >= _ArtNetPacket.SHORT_NAME_LENGTH) && ((shortName.length() != _ArtNetPacket.SHORT_NAME_LENGTH) || (shortName.charAt(_ArtNetPacket.SHORT_NAME_LENGTH - 1) != 0))) {
+            throw new IllegalArgumentException("Short Name has a maximum length of " + (_ArtNetPacket.SHORT_NAME_LENGTH - 1) + " Bytes.");
+        }
+        if ((longName.length() >= _ArtNetPacket.LONG_NAME_LENGTH) && ((longName.length() != _ArtNetPacket.LONG_NAME_LENGTH) || (longName.charAt(_ArtNetPacket.LONG_NAME_LENGTH - 1) != 0))) {
+            throw new IllegalArgumentException("Long Name has a maximum length of " + (_ArtNetPacket.LONG_NAME_LENGTH - 1) + " Bytes.");
+        }
+        final byte[] pData = ArtAddress.constructPacket(net, filler, _ArtNetPacket.EMPTY_FIELD, _ArtNetPacket.EMPTY_FIELD, universesIn, universesOut, subNet, video, command);
+        ByteArrayToolkit.setString(shortName, pData, ArtAddress.START_SHORT_NAME, _ArtNetPacket.SHORT_NAME_LENGTH);
+        ByteArrayToolkit.setString(longName, pData, ArtAddress.START_LONG_NAME, _ArtNetPacket.LONG_NAME_LENGTH);
+        return pData;
     }
 
     public static byte[] constructPacket(final byte net, final byte filler, final byte[] shortName, final byte[] longName, final byte[] universesIn, final byte[] universesOut, final byte subNet, final byte video, final byte command) {
@@ -21,6 +21,7 @@ import tc.vom.artNetLighter.infrastructure.BinaryToolkit;
 import tc.vom.artNetLighter.infrastructure.ByteArrayToolkit;
 import tc.vom.artNetLighter.infrastructure.constants.ArtNetOpCodes;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 /**
@@ -28,14 +29,22 @@ import java.util.Arrays;
  */
 public class ArtDmx extends _VersionedArtNetPacket {
     public static final int MAXIMUM_DATA_LENGTH = 512;
+    /**
+     * The length field should be an even number in the range 2 - 512.
+     */
+    public static final int MINIMUM_DATA_LENGTH = 2;
 
-    private static final int START_SEQUENCE = _VersionedArtNetPacket.FULL_HEADER_LENGTH;
-    private static final int START_PHYSICAL = ArtDmx.START_SEQUENCE + 1;
-    private static final int START_PORT_ADDRESS = ArtDmx.START_PHYSICAL + 1;
-    private static final int START_LENGTH = ArtDmx.START_PORT_ADDRESS + 2;
-    private static final int START_DATA = ArtDmx.START_LENGTH + 2;
+    static final int START_SEQUENCE = _VersionedArtNetPacket.FULL_HEADER_LENGTH;
+    static final int START_PHYSICAL = ArtDmx.START_SEQUENCE + 1;
+    static final int START_PORT_ADDRESS = ArtDmx.START_PHYSICAL + 1;
+    static final int START_LENGTH = ArtDmx.START_PORT_ADDRESS + 2;
+    static final int START_DATA = ArtDmx.START_LENGTH + 2;
 
     public static final int MINIMUM_PACKET_SIZE = _VersionedArtNetPacket.FULL_HEADER_LENGTH + 6;
+    /**
+     * Size of a buffer able to hold every ArtDmx-packet.
+     */
+    public static final int MAXIMUM_PACKET_SIZE = ArtDmx.MINIMUM_PACKET_SIZE + ArtDmx.MAXIMUM_DATA_LENGTH;
 
     /**
      * 1 Byte Sequence.
@@ -110,15 +119,105 @@ public class ArtDmx extends _VersionedArtNetPacket {
         if (data.length > ArtDmx.MAXIMUM_DATA_LENGTH) {
             throw new IllegalArgumentException("data has a maximum length of " + ArtDmx.MAXIMUM_DATA_LENGTH + " Bytes.");
         }
-        final byte[] result = _VersionedArtNetPacket.constructPacket(ArtDmx.MINIMUM_PACKET_SIZE + data.length, ArtNetOpCodes.OP_CODE_DMX);
-        result[ArtDmx.START_SEQUENCE] = sequence;
-        result[ArtDmx.START_PHYSICAL] = physical;
-        ByteArrayToolkit.set2BytesLowToHigh(portAddress, result, ArtDmx.START_PORT_ADDRESS);
-        ByteArrayToolkit.set2BytesHighToLow(data.length, result, ArtDmx.START_LENGTH);
-        ByteArrayToolkit.setBytes(data, result, ArtDmx.START_DATA);
+        final byte[] result = new byte[ArtDmx.MINIMUM_PACKET_SIZE + data.length];
+        ArtDmx.encodeHeader(result, 0);
+        ArtDmx.encodePacket(result, 0, sequence, physical, portAddress, data, 0, data.length);
         return result;
     }
 
+    /**
+     * Find the shortest valid length that still carries all non-zero channels.
+     *
+     * @param data          DMX-data
+     * @param dataOffset    Start of DMX-data within data
+     * @param length        Number of channels available
+     * @param minimumLength Number of channels to transmit in any case, e.g. the highest patched channel
+     * @return Even length in the range 2 - 512
+     */
+    public static int getTrimmedLength(final byte[] data, final int dataOffset, final int length, final int minimumLength) {
+        int used = length;
+        while ((used > minimumLength) && (data[(dataOffset + used) - 1] == 0)) {
+            used--;
+        }
+        used = Math.max(used, Math.max(minimumLength, ArtDmx.MINIMUM_DATA_LENGTH));
+        return Math.min((used + 1) & ~1, ArtDmx.MAXIMUM_DATA_LENGTH);
+    }
+
+    /**
+     * Write the parts of an ArtDmx-packet that never change into a reusable buffer.
+     * Afterwards {@link #encodePacket(byte[], int, byte, byte, int, byte[], int, int)} only needs to patch the remaining fields.
+     *
+     * @param to     Target buffer; needs {@link #MAXIMUM_PACKET_SIZE} Bytes after offset to hold any packet
+     * @param offset Start of the packet within the buffer
+     */
+    public static void encodeHeader(final byte[] to, final int offset) {
+        _VersionedArtNetPacket.encodeHeader(to, offset, ArtNetOpCodes.OP_CODE_DMX);
+    }
+
+    /**
+     * Patch sequence, physical, Port Address, length and data into a buffer prepared by {@link #encodeHeader(byte[], int)}. Allocates nothing.
+     *
+     * @param to          Target buffer
+     * @param offset      Start of the packet within the buffer
+     * @param sequence    Sequence number; 0 to disable
+     * @param physical    Physical input port
+     * @param portAddress 15 Bit Port Address
+     * @param data        DMX-data
+     * @param dataOffset  Start of DMX-data within data
+     * @param length      Number of channels to encode
+     * @return Length of the encoded packet
+     */
+    public static int encodePacket(final byte[] to, final int offset, final byte sequence, final byte physical, final int portAddress, final byte[] data, final int dataOffset, final int length) {
+        if ((length < 0) || (length > ArtDmx.MAXIMUM_DATA_LENGTH)) {
+            throw new IllegalArgumentException("data has a maximum length of " + ArtDmx.MAXIMUM_DATA_LENGTH + " Bytes.");
+        }
+        to[offset + ArtDmx.START_SEQUENCE] = sequence;
+        to[offset + ArtDmx.START_PHYSICAL] = physical;
+        ByteArrayToolkit.set2BytesLowToHigh(portAddress, to, offset + ArtDmx.START_PORT_ADDRESS);
+        ByteArrayToolkit.set2BytesHighToLow(length, to, offset + ArtDmx.START_LENGTH);
+        System.arraycopy(data, dataOffset, to, offset + ArtDmx.START_DATA, length);
+        return ArtDmx.MINIMUM_PACKET_SIZE + length;
+    }
+
+    /**
+     * Write the parts of an ArtDmx-packet that never change into a reusable buffer. The position of the buffer is not changed.
+     *
+     * @param to     Target buffer; needs {@link #MAXIMUM_PACKET_SIZE} Bytes after offset to hold any packet
+     * @param offset Start of the packet within the buffer
+     */
+    public static void encodeHeader(final ByteBuffer to, final int offset) {
+        _VersionedArtNetPacket.encodeHeader(to, offset, ArtNetOpCodes.OP_CODE_DMX);
+    }
+
+    /**
+     * Patch sequence, physical, Port Address, length and data into a buffer prepared by {@link #encodeHeader(ByteBuffer, int)}.
+     * Position and limit are set to frame the encoded packet, so the buffer can be handed to a channel directly.
+     *
+     * @param to          Target buffer
+     * @param offset      Start of the packet within the buffer
+     * @param sequence    Sequence number; 0 to disable
+     * @param physical    Physical input port
+     * @param portAddress 15 Bit Port Address
+     * @param data        DMX-data
+     * @param dataOffset  Start of DMX-data within data
+     * @param length      Number of channels to encode
+     * @return Length of the encoded packet
+     */
+    public static int encodePacket(final ByteBuffer to, final int offset, final byte sequence, final byte physical, final int portAddress, final byte[] data, final int dataOffset, final int length) {
+        if ((length < 0) || (length > ArtDmx.MAXIMUM_DATA_LENGTH)) {
+            throw new IllegalArgumentException("data has a maximum length of " + ArtDmx.MAXIMUM_DATA_LENGTH + " Bytes.");
+        }
+        to.put(offset + ArtDmx.START_SEQUENCE, sequence);
+        to.put(offset + ArtDmx.START_PHYSICAL, physical);
+        ByteArrayToolkit.set2BytesLowToHigh(portAddress, to, offset + ArtDmx.START_PORT_ADDRESS);
+        ByteArrayToolkit.set2BytesHighToLow(length, to, offset + ArtDmx.START_LENGTH);
+        to.limit(offset + ArtDmx.MINIMUM_PACKET_SIZE + length);
+        to.position(offset + ArtDmx.START_DATA);
+        to.put(data, dataOffset, length);
+        to.position(offset);
+        return ArtDmx.MINIMUM_PACKET_SIZE + length;
+    }
+
     public ArtDmx(final byte[] pData) {
         super(pData);
         if (pData.length < ArtDmx.MINIMUM_PACKET_SIZE) {
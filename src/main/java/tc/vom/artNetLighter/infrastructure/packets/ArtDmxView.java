@@ -0,0 +1,90 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.infrastructure.packets;
+
+import tc.vom.artNetLighter.infrastructure.constants.ArtNetOpCodes;
+
+/**
+ * Flyweight reader for ArtDmx-packets.
+ *
+ * @see ArtDmx
+ */
+public class ArtDmxView extends _VersionedArtNetPacketView {
+
+    @Override
+    public boolean isValid() {
+        return super.isValid() && (this.getLength() >= ArtDmx.MINIMUM_PACKET_SIZE) && (this.getOpCode() == ArtNetOpCodes.OP_CODE_DMX) && ((ArtDmx.MINIMUM_PACKET_SIZE + this.getDataLength()) <= this.getLength());
+    }
+
+    /**
+     * 1 Byte Sequence; 0 if disabled.
+     */
+    public byte getSequence() {
+        return this.getByte(ArtDmx.START_SEQUENCE);
+    }
+
+    /**
+     * 1 Byte Physical.
+     */
+    public byte getPhysical() {
+        return this.getByte(ArtDmx.START_PHYSICAL);
+    }
+
+    /**
+     * 15 Bit Port Address.
+     */
+    public int getPortAddress() {
+        return this.get2BytesLowToHigh(ArtDmx.START_PORT_ADDRESS);
+    }
+
+    /**
+     * Number of DMX512 channels in this packet.
+     */
+    public int getDataLength() {
+        return this.get2BytesHighToLow(ArtDmx.START_LENGTH);
+    }
+
+    /**
+     * @param channel Channel index (0 - {@link #getDataLength()} - 1)
+     * @return Unsigned channel value
+     */
+    public int getData(final int channel) {
+        return this.getUnsignedByte(ArtDmx.START_DATA + channel);
+    }
+
+    /**
+     * Copy all channels into an array.
+     *
+     * @param to     Target array
+     * @param offset Start within the target array
+     * @return Number of channels copied
+     */
+    public int copyData(final byte[] to, final int offset) {
+        final int dataLength = this.getDataLength();
+        this.copyBytes(ArtDmx.START_DATA, to, offset, dataLength);
+        return dataLength;
+    }
+
+    /**
+     * @return A fully decoded copy of the wrapped packet
+     */
+    public ArtDmx toArtDmx() {
+        final byte[] data = new byte[this.getDataLength()];
+        this.copyData(data, 0);
+        return new ArtDmx(this.getSequence(), this.getPhysical(), this.getPortAddress(), data);
+    }
+}
@@ -18,6 +18,7 @@ package tc.vom.artNetLighter.infrastructure.packets;
 
 import tc.vom.artNetLighter.infrastructure.constants.ArtNetOpCodes;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import static tc.vom.artNetLighter.infrastructure.ByteArrayToolkit.*;
@@ -28,6 +29,10 @@ import static tc.vom.artNetLighter.infrastructure.ByteArrayToolkit.*;
 public class ArtFirmwareMaster extends _VersionedArtNetPacket {
 
     public static final int MAX_DATA_LENGTH = 512;
+    /**
+     * Maximum payload in Bytes (512 x Int16).
+     */
+    public static final int MAX_DATA_BYTES = ArtFirmwareMaster.MAX_DATA_LENGTH * 2;
     public static final int SPARE_LENGTH = 20;
 
     private static final int START_FILLER1 = _VersionedArtNetPacket.FULL_HEADER_LENGTH;
@@ -39,6 +44,7 @@ public class ArtFirmwareMaster extends _VersionedArtNetPacket {
     private static final int START_DATA = ArtFirmwareMaster.START_SPARE + ArtFirmwareMaster.SPARE_LENGTH;
 
     public static final int MINIMUM_PACKET_LENGTH = ArtFirmwareMaster.START_DATA;
+    public static final int MAXIMUM_PACKET_LENGTH = ArtFirmwareMaster.MINIMUM_PACKET_LENGTH + ArtFirmwareMaster.MAX_DATA_BYTES;
     public static final byte[] SPARE_BYTES = new byte[ArtFirmwareMaster.SPARE_LENGTH];
 
     public static interface TypeConstants {
@@ -103,14 +109,24 @@ public class ArtFirmwareMaster extends _VersionedArtNetPacket {
      * 1024 Byte Data (512 x Int16).
      * This array contains the firmware or UBEA data block.
      * The order is hi byte first. The interpretation of this data is manufacturer specific.
+     * Kept as transmitted, as the block is opaque to everyone but the Node.
      */
-    private final short[] data;
+    private final byte[] data;
 
     public ArtFirmwareMaster(final byte type, final byte blockId, final int firmwareLength, final short[] data) {
-        this((byte) 0, (byte) 0, type, blockId, firmwareLength, ArtFirmwareMaster.SPARE_BYTES, data);
+        this((byte) 0, (byte) 0, type, blockId, firmwareLength, ArtFirmwareMaster.SPARE_BYTES, ArtFirmwareMaster.toBytes(data));
+    }
+
+    /**
+     * @param data       Firmware data, hi byte first
+     * @param dataOffset Start of the block within data
+     * @param length     Number of Bytes; even and at most {@link #MAX_DATA_BYTES}
+     */
+    public ArtFirmwareMaster(final byte type, final byte blockId, final int firmwareLength, final byte[] data, final int dataOffset, final int length) {
+        this((byte) 0, (byte) 0, type, blockId, firmwareLength, ArtFirmwareMaster.SPARE_BYTES, getBytes(data, dataOffset, ArtFirmwareMaster.checkDataLength(length)));
     }
 
-    private ArtFirmwareMaster(final byte filler1, final byte filler2, final byte type, final byte blockId, final int firmwareLength, final byte[] spare, final short[] data) {
+    private ArtFirmwareMaster(final byte filler1, final byte filler2, final byte type, final byte blockId, final int firmwareLength, final byte[] spare, final byte[] data) {
         super(ArtNetOpCodes.OP_CODE_FIRMWARE_MASTER);
         this.filler1 = filler1;
         this.filler2 = filler2;
@@ -145,33 +161,131 @@ public class ArtFirmwareMaster extends _VersionedArtNetPacket {
         return this.spare;
     }
 
+    /**
+     * Convenience accessor; decodes the block into words on every call.
+     */
     public short[] getData() {
-        return this.data;
+        return getShorts(this.data, 0);
+    }
+
+    /**
+     * @return Number of data Bytes in this block
+     */
+    public int getDataByteLength() {
+        return this.data.length;
+    }
+
+    /**
+     * Copy the block as transmitted.
+     *
+     * @param to     Target array
+     * @param offset Start within the target array
+     * @return Number of Bytes copied
+     */
+    public int copyData(final byte[] to, final int offset) {
+        System.arraycopy(this.data, 0, to, offset, this.data.length);
+        return this.data.length;
+    }
+
+    private static byte[] toBytes(final short[] data) {
+        if (data.length > ArtFirmwareMaster.MAX_DATA_LENGTH) {
+            throw new IllegalArgumentException("Data has a maximum length of " + ArtFirmwareMaster.MAX_DATA_LENGTH + " Shorts.");
+        }
+        final byte[] bytes = new byte[data.length * 2];
+        setShorts(data, bytes, 0);
+        return bytes;
+    }
+
+    private static int checkDataLength(final int length) {
+        if ((length < 0) || (length > ArtFirmwareMaster.MAX_DATA_BYTES) || ((length % 2) != 0)) {
+            throw new IllegalArgumentException("Data must be an even number of Bytes in range [0," + ArtFirmwareMaster.MAX_DATA_BYTES + "]");
+        }
+        return length;
     }
 
     @Override
     public byte[] constructPacket() {
-        return ArtFirmwareMaster.constructPacket(this.filler1, this.filler2, this.type, this.blockId, this.firmwareLength, this.spare, this.data);
+        return ArtFirmwareMaster.constructPacket(this.filler1, this.filler2, this.type, this.blockId, this.firmwareLength, this.spare, this.data, 0, this.data.length);
     }
 
     public static byte[] constructPacket(final byte filler1, final byte filler2, final byte type, final byte blockId, final int firmwareLength, final byte[] spare, final short[] data) {
+        final byte[] bytes = ArtFirmwareMaster.toBytes(data);
+        return ArtFirmwareMaster.constructPacket(filler1, filler2, type, blockId, firmwareLength, spare, bytes, 0, bytes.length);
+    }
+
+    public static byte[] constructPacket(final byte filler1, final byte filler2, final byte type, final byte blockId, final int firmwareLength, final byte[] spare, final byte[] data, final int dataOffset, final int length) {
         if (spare.length > ArtFirmwareMaster.SPARE_LENGTH) {
             throw new IllegalArgumentException("Spare has a maximum length of " + ArtFirmwareMaster.SPARE_LENGTH + " Bytes.");
         }
-        if (data.length > ArtFirmwareMaster.MAX_DATA_LENGTH) {
-            throw new IllegalArgumentException("Data has a maximum length of " + ArtFirmwareMaster.MAX_DATA_LENGTH + " Shorts.");
-        }
-        final byte[] pData = _VersionedArtNetPacket.constructPacket(ArtFirmwareMaster.MINIMUM_PACKET_LENGTH + (data.length * 2), ArtNetOpCodes.OP_CODE_FIRMWARE_MASTER);
+        final byte[] pData = new byte[ArtFirmwareMaster.MINIMUM_PACKET_LENGTH + ArtFirmwareMaster.checkDataLength(length)];
+        ArtFirmwareMaster.encodeHeader(pData, 0);
         pData[ArtFirmwareMaster.START_FILLER1] = filler1;
         pData[ArtFirmwareMaster.START_FILLER2] = filler2;
-        pData[ArtFirmwareMaster.START_TYPE] = type;
-        pData[ArtFirmwareMaster.START_BLOCK_ID] = blockId;
-        set4BytesHighToLow(firmwareLength, pData, ArtFirmwareMaster.START_FIRMWARE_LENGTH);
         setBytes(spare, pData, ArtFirmwareMaster.START_SPARE);
-        setShorts(data, pData, ArtFirmwareMaster.START_DATA);
+        ArtFirmwareMaster.encodePacket(pData, 0, type, blockId, firmwareLength, data, dataOffset, length);
         return pData;
     }
 
+    /**
+     * Write the parts of an ArtFirmwareMaster-packet that never change into a reusable buffer, including zeroed filler and spare.
+     * Afterwards {@link #encodePacket(byte[], int, byte, byte, int, byte[], int, int)} only needs to patch the remaining fields.
+     *
+     * @param to     Target buffer; needs {@link #MAXIMUM_PACKET_LENGTH} Bytes after offset to hold any packet
+     * @param offset Start of the packet within the buffer
+     */
+    public static void encodeHeader(final byte[] to, final int offset) {
+        _VersionedArtNetPacket.encodeHeader(to, offset, ArtNetOpCodes.OP_CODE_FIRMWARE_MASTER);
+        Arrays.fill(to, offset + ArtFirmwareMaster.START_FILLER1, offset + ArtFirmwareMaster.START_TYPE, (byte) 0);
+        Arrays.fill(to, offset + ArtFirmwareMaster.START_SPARE, offset + ArtFirmwareMaster.START_DATA, (byte) 0);
+    }
+
+    /**
+     * Patch type, block ID, firmware length and data into a buffer prepared by {@link #encodeHeader(byte[], int)}. Allocates nothing.
+     *
+     * @param to             Target buffer
+     * @param offset         Start of the packet within the buffer
+     * @param type           Type of the block
+     * @param blockId        Number of the block, counting from 0
+     * @param firmwareLength Length of the whole image in words
+     * @param data           Firmware data, hi byte first
+     * @param dataOffset     Start of the block within data
+     * @param length         Number of Bytes; even and at most {@link #MAX_DATA_BYTES}
+     * @return Length of the encoded packet
+     * @see TypeConstants
+     */
+    public static int encodePacket(final byte[] to, final int offset, final byte type, final byte blockId, final int firmwareLength, final byte[] data, final int dataOffset, final int length) {
+        ArtFirmwareMaster.checkDataLength(length);
+        ArtFirmwareMaster.encodeFields(to, offset, type, blockId, firmwareLength);
+        System.arraycopy(data, dataOffset, to, offset + ArtFirmwareMaster.START_DATA, length);
+        return ArtFirmwareMaster.MINIMUM_PACKET_LENGTH + length;
+    }
+
+    /**
+     * Patch type, block ID, firmware length and data into a buffer prepared by {@link #encodeHeader(byte[], int)}.
+     * The block is copied with a single bulk get, so a slice of a memory-mapped image is never copied word by word.
+     *
+     * @param to             Target buffer
+     * @param offset         Start of the packet within the buffer
+     * @param type           Type of the block
+     * @param blockId        Number of the block, counting from 0
+     * @param firmwareLength Length of the whole image in words
+     * @param data           Block between position and limit; the position is advanced to the limit
+     * @return Length of the encoded packet
+     * @see TypeConstants
+     */
+    public static int encodePacket(final byte[] to, final int offset, final byte type, final byte blockId, final int firmwareLength, final ByteBuffer data) {
+        final int length = ArtFirmwareMaster.checkDataLength(data.remaining());
+        ArtFirmwareMaster.encodeFields(to, offset, type, blockId, firmwareLength);
+        data.get(to, offset + ArtFirmwareMaster.START_DATA, length);
+        return ArtFirmwareMaster.MINIMUM_PACKET_LENGTH + length;
+    }
+
+    private static void encodeFields(final byte[] to, final int offset, final byte type, final byte blockId, final int firmwareLength) {
+        to[offset + ArtFirmwareMaster.START_TYPE] = type;
+        to[offset + ArtFirmwareMaster.START_BLOCK_ID] = blockId;
+        set4BytesHighToLow(firmwareLength, to, offset + ArtFirmwareMaster.START_FIRMWARE_LENGTH);
+    }
+
     public ArtFirmwareMaster(final byte[] pData) {
         super(pData);
         if (this.getOpCode() != ArtNetOpCodes.OP_CODE_FIRMWARE_MASTER) {
@@ -186,7 +300,7 @@ public class ArtFirmwareMaster extends _VersionedArtNetPacket {
         this.blockId = pData[ArtFirmwareMaster.START_BLOCK_ID];
         this.firmwareLength = get4BytesHighToLow(pData, ArtFirmwareMaster.START_FIRMWARE_LENGTH);
         this.spare = getBytes(pData, ArtFirmwareMaster.START_SPARE, ArtFirmwareMaster.SPARE_LENGTH);
-        this.data = getShorts(pData, ArtFirmwareMaster.START_DATA);
+        this.data = getBytes(pData, ArtFirmwareMaster.START_DATA, (pData.length - ArtFirmwareMaster.START_DATA) & ~1);
     }
 
     @Override
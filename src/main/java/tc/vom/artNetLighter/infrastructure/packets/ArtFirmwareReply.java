@@ -29,7 +29,7 @@ public class ArtFirmwareReply extends _VersionedArtNetPacket {
 
     private static final int START_FILLER1 = _VersionedArtNetPacket.FULL_HEADER_LENGTH;
     private static final int START_FILLER2 = ArtFirmwareReply.START_FILLER1 + 1;
-    private static final int START_TYPE = ArtFirmwareReply.START_FILLER2 + 1;
+    static final int START_TYPE = ArtFirmwareReply.START_FILLER2 + 1;
     private static final int START_SPARE = ArtFirmwareReply.START_TYPE + 1;
 
     public static final int MINIMUM_PACKET_LENGTH = ArtFirmwareReply.START_SPARE;
@@ -0,0 +1,228 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.infrastructure.packets;
+
+import tc.vom.artNetLighter.infrastructure.ArtNetOpCodeTable;
+import tc.vom.artNetLighter.infrastructure.constants.ArtNetOpCodes;
+
+import static tc.vom.artNetLighter.infrastructure.ByteArrayToolkit.get2BytesLowToHigh;
+
+/**
+ * Maps Art-Net OpCodes to {@link ArtNetPacketDecoder}s.
+ * Decoders are looked up in an {@link ArtNetOpCodeTable}, so decoding costs one array access regardless of the number of registered OpCodes.
+ * Unknown and ignored OpCodes are reported by returning null instead of throwing, which keeps foreign traffic on the network cheap.
+ */
+public class ArtNetPacketDecoderRegistry implements ArtNetOpCodes {
+
+    /**
+     * Decoder that drops every datagram.
+     */
+    public static final ArtNetPacketDecoder IGNORE = new ArtNetPacketDecoder() {
+        @Override
+        public _ArtNetPacket decode(final byte[] data) {
+            return null;
+        }
+    };
+
+    private static final ArtNetPacketDecoderRegistry DEFAULT_REGISTRY = ArtNetPacketDecoderRegistry.createDefault();
+
+    private final ArtNetOpCodeTable<ArtNetPacketDecoder> decoders = new ArtNetOpCodeTable<ArtNetPacketDecoder>();
+
+    /**
+     * Creates an empty registry.
+     *
+     * @see #createDefault()
+     */
+    public ArtNetPacketDecoderRegistry() {
+    }
+
+    /**
+     * @return Shared registry holding the decoders of all packets in this package; it must not be modified
+     */
+    public static ArtNetPacketDecoderRegistry getDefault() {
+        return ArtNetPacketDecoderRegistry.DEFAULT_REGISTRY;
+    }
+
+    /**
+     * @return New registry holding the decoders of all packets in this package
+     */
+    public static ArtNetPacketDecoderRegistry createDefault() {
+        final ArtNetPacketDecoderRegistry registry = new ArtNetPacketDecoderRegistry();
+        registry.register(ArtNetOpCodes.OP_CODE_ADDRESS, new ArtNetPacketDecoder() {
+            @Override
+            public _ArtNetPacket decode(final byte[] data) {
+                return new ArtAddress(data);
+            }
+        });
+        registry.register(ArtNetOpCodes.OP_CODE_DIAGNOSTIC_DATA, new ArtNetPacketDecoder() {
+            @Override
+            public _ArtNetPacket decode(final byte[] data) {
+                return new ArtDiagData(data);
+            }
+        });
+        registry.register(ArtNetOpCodes.OP_CODE_DMX, new ArtNetPacketDecoder() {
+            @Override
+            public _ArtNetPacket decode(final byte[] data) {
+                return new ArtDmx(data);
+            }
+        });
+        registry.register(ArtNetOpCodes.OP_CODE_FIRMWARE_MASTER, new ArtNetPacketDecoder() {
+            @Override
+            public _ArtNetPacket decode(final byte[] data) {
+                return new ArtFirmwareMaster(data);
+            }
+        });
+        registry.register(ArtNetOpCodes.OP_CODE_FIRMWARE_REPLY, new ArtNetPacketDecoder() {
+            @Override
+            public _ArtNetPacket decode(final byte[] data) {
+                return new ArtFirmwareReply(data);
+            }
+        });
+        registry.register(ArtNetOpCodes.OP_CODE_INPUT, new ArtNetPacketDecoder() {
+            @Override
+            public _ArtNetPacket decode(final byte[] data) {
+                return new ArtInput(data);
+            }
+        });
+        registry.register(ArtNetOpCodes.OP_CODE_IP_PROGRAM, new ArtNetPacketDecoder() {
+            @Override
+            public _ArtNetPacket decode(final byte[] data) {
+                return new ArtIpProg(data);
+            }
+        });
+        registry.register(ArtNetOpCodes.OP_CODE_IP_PROGRAM_REPLY, new ArtNetPacketDecoder() {
+            @Override
+            public _ArtNetPacket decode(final byte[] data) {
+                return new ArtIpProgReply(data);
+            }
+        });
+        registry.register(ArtNetOpCodes.OP_CODE_POLL, new ArtNetPacketDecoder() {
+            @Override
+            public _ArtNetPacket decode(final byte[] data) {
+                return new ArtPoll(data);
+            }
+        });
+        registry.register(ArtNetOpCodes.OP_CODE_POLL_REPLY, new ArtNetPacketDecoder() {
+            @Override
+            public _ArtNetPacket decode(final byte[] data) {
+                return new ArtPollReply(data);
+            }
+        });
+        registry.register(ArtNetOpCodes.OP_CODE_SYNC, new ArtNetPacketDecoder() {
+            @Override
+            public _ArtNetPacket decode(final byte[] data) {
+                return new ArtSync(data);
+            }
+        });
+        registry.register(ArtNetOpCodes.OP_CODE_TIME_CODE, new ArtNetPacketDecoder() {
+            @Override
+            public _ArtNetPacket decode(final byte[] data) {
+                return new ArtTimeCode(data);
+            }
+        });
+        registry.register(ArtNetOpCodes.OP_CODE_TOD_DATA, new ArtNetPacketDecoder() {
+            @Override
+            public _ArtNetPacket decode(final byte[] data) {
+                return new ArtTodData(data);
+            }
+        });
+        registry.register(ArtNetOpCodes.OP_CODE_TOD_REQUEST, new ArtNetPacketDecoder() {
+            @Override
+            public _ArtNetPacket decode(final byte[] data) {
+                return new ArtTodRequest(data);
+            }
+        });
+        return registry;
+    }
+
+    /**
+     * Register or replace the decoder of an OpCode.
+     *
+     * @param opCode  2 Byte OpCode
+     * @param decoder Decoder for the OpCode
+     * @return Previously registered decoder or null
+     */
+    public ArtNetPacketDecoder register(final int opCode, final ArtNetPacketDecoder decoder) {
+        if (decoder == null) {
+            throw new IllegalArgumentException("decoder must not be null");
+        }
+        if (this == ArtNetPacketDecoderRegistry.DEFAULT_REGISTRY) {
+            throw new UnsupportedOperationException("The default registry can not be modified; use createDefault()");
+        }
+        return this.decoders.put(opCode, decoder);
+    }
+
+    /**
+     * Drop all packets of an OpCode without decoding them.
+     *
+     * @param opCode 2 Byte OpCode
+     */
+    public void ignore(final int opCode) {
+        this.register(opCode, ArtNetPacketDecoderRegistry.IGNORE);
+    }
+
+    /**
+     * @param opCode 2 Byte OpCode
+     * @return Previously registered decoder or null
+     */
+    public ArtNetPacketDecoder unregister(final int opCode) {
+        if (this == ArtNetPacketDecoderRegistry.DEFAULT_REGISTRY) {
+            throw new UnsupportedOperationException("The default registry can not be modified; use createDefault()");
+        }
+        return this.decoders.remove(opCode);
+    }
+
+    /**
+     * @param opCode 2 Byte OpCode
+     * @return Registered decoder or null
+     */
+    public ArtNetPacketDecoder getDecoder(final int opCode) {
+        return this.decoders.get(opCode);
+    }
+
+    /**
+     * @param opCode 2 Byte OpCode
+     * @return true if packets of the OpCode are decoded, false if they are unknown or ignored
+     */
+    public boolean isHandled(final int opCode) {
+        final ArtNetPacketDecoder decoder = this.decoders.get(opCode);
+        return (decoder != null) && (decoder != ArtNetPacketDecoderRegistry.IGNORE);
+    }
+
+    /**
+     * Decode a received datagram.
+     *
+     * @param data Complete datagram
+     * @return Decoded packet or null if the datagram is no Art-Net packet or its OpCode is unknown or ignored
+     * @throws IllegalArgumentException if the decoder rejects the datagram
+     */
+    public _ArtNetPacket decode(final byte[] data) {
+        if ((data == null) || (data.length < _ArtNetPacket.SHORT_HEADER_LENGTH)) {
+            return null;
+        }
+        for (int i = 0; i < _ArtNetPacket.ART_NET_ID.length; i++) {
+            if (data[i] != _ArtNetPacket.ART_NET_ID[i]) {
+                return null;
+            }
+        }
+        final ArtNetPacketDecoder decoder = this.decoders.get(get2BytesLowToHigh(data, 8));
+        if (decoder == null) {
+            return null;
+        }
+        return decoder.decode(data);
+    }
+}
@@ -17,6 +17,7 @@
 package tc.vom.artNetLighter.infrastructure.packets;
 
 import tc.vom.artNetLighter.infrastructure.ArtNetToolkit;
+import tc.vom.artNetLighter.infrastructure.AsciiStringCache;
 import tc.vom.artNetLighter.infrastructure.ByteArrayToolkit;
 import tc.vom.artNetLighter.infrastructure.constants.ArtNetNodeReportCodes;
 import tc.vom.artNetLighter.infrastructure.constants.ArtNetOpCodes;
@@ -43,34 +44,34 @@ public class ArtPollReply extends _ArtNetPacket implements ArtNetStyleCodes, Art
     public static final int MAC_ADDRESS_LENGTH = 6;
     public static final int FILLER_LENGTH = 26;
 
-    private static final int START_IP_ADDRESS = _ArtNetPacket.SHORT_HEADER_LENGTH;
-    private static final int START_PORT = ArtPollReply.START_IP_ADDRESS + 4;
-    private static final int START_VERSION_INFO = ArtPollReply.START_PORT + 2;
-    private static final int START_NET = ArtPollReply.START_VERSION_INFO + 2;
-    private static final int START_SUB_NET = ArtPollReply.START_NET + 1;
-    private static final int START_OEM = ArtPollReply.START_SUB_NET + 1;
-    private static final int START_UBEA = ArtPollReply.START_OEM + 2;
-    private static final int START_STATUS1 = ArtPollReply.START_UBEA + 1;
-    private static final int START_ESTA_MANUFACTURER = ArtPollReply.START_STATUS1 + 1;
-    private static final int START_SHORT_NAME = ArtPollReply.START_ESTA_MANUFACTURER + 2;
-    private static final int START_LONG_NAME = ArtPollReply.START_SHORT_NAME + _ArtNetPacket.SHORT_NAME_LENGTH;
-    private static final int START_NODE_REPORT = ArtPollReply.START_LONG_NAME + _ArtNetPacket.LONG_NAME_LENGTH;
-    private static final int START_NUM_PORTS = ArtPollReply.START_NODE_REPORT + ArtPollReply.NODE_REPORT_LENGTH;
-    private static final int START_PORT_TYPES = ArtPollReply.START_NUM_PORTS + 2;
-    private static final int START_GOOD_INPUT = ArtPollReply.START_PORT_TYPES + ArtPollReply.PORT_TYPES_LENGTH;
-    private static final int START_GOOD_OUTPUT = ArtPollReply.START_GOOD_INPUT + ArtPollReply.GOOD_INPUT_LENGTH;
-    private static final int START_UNIVERSES_IN = ArtPollReply.START_GOOD_OUTPUT + ArtPollReply.GOOD_OUTPUT_LENGTH;
-    private static final int START_UNIVERSES_OUT = ArtPollReply.START_UNIVERSES_IN + ArtPollReply.UNIVERSES_IN_LENGTH;
-    private static final int START_VIDEO = ArtPollReply.START_UNIVERSES_OUT + ArtPollReply.UNIVERSES_OUT_LENGTH;
-    private static final int START_MACRO = ArtPollReply.START_VIDEO + 1;
-    private static final int START_REMOTE = ArtPollReply.START_MACRO + 1;
-    private static final int START_SPARE = ArtPollReply.START_REMOTE + 1;
-    private static final int START_STYLE = ArtPollReply.START_SPARE + ArtPollReply.SPARE_LENGTH;
-    private static final int START_MAC_ADDRESS = ArtPollReply.START_STYLE + 1;
-    private static final int START_BIND_IP = ArtPollReply.START_MAC_ADDRESS + ArtPollReply.MAC_ADDRESS_LENGTH;
-    private static final int START_BIND_INDEX = ArtPollReply.START_BIND_IP + 4;
-    private static final int START_STATUS2 = ArtPollReply.START_BIND_INDEX + 1;
-    private static final int START_FILLER = ArtPollReply.START_STATUS2 + 1;
+    static final int START_IP_ADDRESS = _ArtNetPacket.SHORT_HEADER_LENGTH;
+    static final int START_PORT = ArtPollReply.START_IP_ADDRESS + 4;
+    static final int START_VERSION_INFO = ArtPollReply.START_PORT + 2;
+    static final int START_NET = ArtPollReply.START_VERSION_INFO + 2;
+    static final int START_SUB_NET = ArtPollReply.START_NET + 1;
+    static final int START_OEM = ArtPollReply.START_SUB_NET + 1;
+    static final int START_UBEA = ArtPollReply.START_OEM + 2;
+    static final int START_STATUS1 = ArtPollReply.START_UBEA + 1;
+    static final int START_ESTA_MANUFACTURER = ArtPollReply.START_STATUS1 + 1;
+    static final int START_SHORT_NAME = ArtPollReply.START_ESTA_MANUFACTURER + 2;
+    static final int START_LONG_NAME = ArtPollReply.START_SHORT_NAME + _ArtNetPacket.SHORT_NAME_LENGTH;
+    static final int START_NODE_REPORT = ArtPollReply.START_LONG_NAME + _ArtNetPacket.LONG_NAME_LENGTH;
+    static final int START_NUM_PORTS = ArtPollReply.START_NODE_REPORT + ArtPollReply.NODE_REPORT_LENGTH;
+    static final int START_PORT_TYPES = ArtPollReply.START_NUM_PORTS + 2;
+    static final int START_GOOD_INPUT = ArtPollReply.START_PORT_TYPES + ArtPollReply.PORT_TYPES_LENGTH;
+    static final int START_GOOD_OUTPUT = ArtPollReply.START_GOOD_INPUT + ArtPollReply.GOOD_INPUT_LENGTH;
+    static final int START_UNIVERSES_IN = ArtPollReply.START_GOOD_OUTPUT + ArtPollReply.GOOD_OUTPUT_LENGTH;
+    static final int START_UNIVERSES_OUT = ArtPollReply.START_UNIVERSES_IN + ArtPollReply.UNIVERSES_IN_LENGTH;
+    static final int START_VIDEO = ArtPollReply.START_UNIVERSES_OUT + ArtPollReply.UNIVERSES_OUT_LENGTH;
+    static final int START_MACRO = ArtPollReply.START_VIDEO + 1;
+    static final int START_REMOTE = ArtPollReply.START_MACRO + 1;
+    static final int START_SPARE = ArtPollReply.START_REMOTE + 1;
+    static final int START_STYLE = ArtPollReply.START_SPARE + ArtPollReply.SPARE_LENGTH;
+    static final int START_MAC_ADDRESS = ArtPollReply.START_STYLE + 1;
+    static final int START_BIND_IP = ArtPollReply.START_MAC_ADDRESS + ArtPollReply.MAC_ADDRESS_LENGTH;
+    static final int START_BIND_INDEX = ArtPollReply.START_BIND_IP + 4;
+    static final int START_STATUS2 = ArtPollReply.START_BIND_INDEX + 1;
+    static final int START_FILLER = ArtPollReply.START_STATUS2 + 1;
 
     /**
      * {@link #bindIP} and following fields are rather "new", so this length differs greatly from {@link #PACKET_LENGTH}
@@ -470,16 +471,27 @@ public class ArtPollReply extends _ArtNetPacket implements ArtNetStyleCodes, Art
         if (shortName == null) {
             shortName = "";
         }
-        final byte[] shortNameBytes = shortName.getBytes(_ArtNetPacket.STRING_CHARSET);
         if (longName == null) {
             longName = "";
         }
-        final byte[] longNameBytes = longName.getBytes(_ArtNetPacket.STRING_CHARSET);
         if (nodeReport == null) {
             nodeReport = "";
         }
-        final byte[] nodeReportBytes = nodeReport.getBytes(_ArtNetPacket.STRING_CHARSET);
-        return ArtPollReply.constructPacket(ipAddress, port, versionInfo, net, subNet, oem, ubea, status1, estaManufacturer, shortNameBytes, longNameBytes, nodeReportBytes, numPorts, portTypes, goodInput, goodOutput, universesIn, universesOut, video, macro, remote, spare, style, macAddress, bindIP, bindIndex, status2, filler);
+        // ASCII encodes every char as one byte, so the lengths can be checked before encoding
+        if ((shortName.length() >= _ArtNetPacket.SHORT_NAME_LENGTH) && ((shortName.length() != _ArtNetPacket.SHORT_NAME_LENGTH) || (shortName.charAt(_ArtNetPacket.SHORT_NAME_LENGTH - 1) != 0))) {
+            throw new IllegalArgumentException("Short Name has a maximum length of " + (_ArtNetPacket.SHORT_NAME_LENGTH - 1) + " Bytes.");
+        }
+        if ((longName.length() >= _ArtNetPacket.LONG_NAME_LENGTH) && ((longName.length() != _ArtNetPacket.LONG_NAME_LENGTH) || (longName.charAt(_ArtNetPacket.LONG_NAME_LENGTH - 1) != 0))) {
+            throw new IllegalArgumentException("Long Name has a maximum length of " + (_ArtNetPacket.LONG_NAME_LENGTH - 1) + " Bytes.");
+        }
+        if ((nodeReport.length() > ArtPollReply.NODE_REPORT_LENGTH) || ((nodeReport.length() == ArtPollReply.NODE_REPORT_LENGTH) && (nodeReport.charAt(ArtPollReply.NODE_REPORT_LENGTH - 1) != 0))) {
+            throw new IllegalArgumentException("Node Report has a maximum length of " + ArtPollReply.NODE_REPORT_LENGTH + " Bytes and is 0-terminated.");
+        }
+        final byte[] result = ArtPollReply.constructPacket(ipAddress, port, versionInfo, net, subNet, oem, ubea, status1, estaManufacturer, _ArtNetPacket.EMPTY_FIELD, _ArtNetPacket.EMPTY_FIELD, _ArtNetPacket.EMPTY_FIELD, numPorts, portTypes, goodInput, goodOutput, universesIn, universesOut, video, macro, remote, spare, style, macAddress, bindIP, bindIndex, status2, filler);
+        ByteArrayToolkit.setString(shortName, result, ArtPollReply.START_SHORT_NAME, _ArtNetPacket.SHORT_NAME_LENGTH);
+        ByteArrayToolkit.setString(longName, result, ArtPollReply.START_LONG_NAME, _ArtNetPacket.LONG_NAME_LENGTH);
+        ByteArrayToolkit.setString(nodeReport, result, ArtPollReply.START_NODE_REPORT, ArtPollReply.NODE_REPORT_LENGTH);
+        return result;
     }
 
     public static byte[] constructPacket(final int ipAddress, final int port, final int versionInfo, final byte net, final byte subNet, final int oem, final byte ubea, final byte status1, final int estaManufacturer, final byte[] shortName, final byte[] longName, final byte[] nodeReport, final int numPorts, final byte[] portTypes, final byte[] goodInput, final byte[] goodOutput, final byte[] universesIn, final byte[] universesOut, final byte video, final byte macro, final byte remote, final byte[] spare, final byte style, final byte[] macAddress, final int bindIP, final byte bindIndex, final byte status2, final byte[] filler) {
@@ -570,7 +582,7 @@ public class ArtPollReply extends _ArtNetPacket implements ArtNetStyleCodes, Art
         this.estaManufacturer = ByteArrayToolkit.get2BytesLowToHigh(data, ArtPollReply.START_ESTA_MANUFACTURER);
         this.shortName = ByteArrayToolkit.getString(data, ArtPollReply.START_SHORT_NAME, _ArtNetPacket.SHORT_NAME_LENGTH);
         this.longName = ByteArrayToolkit.getString(data, ArtPollReply.START_LONG_NAME, _ArtNetPacket.LONG_NAME_LENGTH);
-        this.nodeReport = ByteArrayToolkit.getString(data, ArtPollReply.START_NODE_REPORT, ArtPollReply.NODE_REPORT_LENGTH);
+        this.nodeReport = AsciiStringCache.decode(data, ArtPollReply.START_NODE_REPORT, ArtPollReply.NODE_REPORT_LENGTH);
         this.numPorts = ByteArrayToolkit.get2BytesHighToLow(data, ArtPollReply.START_NUM_PORTS);
         this.portTypes = ByteArrayToolkit.getBytes(data, ArtPollReply.START_PORT_TYPES, ArtPollReply.PORT_TYPES_LENGTH);
         this.goodInput = ByteArrayToolkit.getBytes(data, ArtPollReply.START_GOOD_INPUT, ArtPollReply.GOOD_INPUT_LENGTH);
@@ -0,0 +1,315 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.infrastructure.packets;
+
+import tc.vom.artNetLighter.infrastructure.ArtNetToolkit;
+import tc.vom.artNetLighter.infrastructure.BinaryToolkit;
+import tc.vom.artNetLighter.infrastructure.constants.ArtNetOpCodes;
+
+/**
+ * Flyweight reader for ArtPollReply-packets.
+ *
+ * @see ArtPollReply
+ */
+public class ArtPollReplyView extends _ArtNetPacketView {
+
+    @Override
+    public boolean isValid() {
+        return super.isValid() && (this.getLength() >= ArtPollReply.MINIMUM_PACKET_LENGTH) && (this.getOpCode() == ArtNetOpCodes.OP_CODE_POLL_REPLY);
+    }
+
+    /**
+     * 4 Byte IP-Address
+     */
+    public int getIpAddress() {
+        return this.get4BytesHighToLow(ArtPollReply.START_IP_ADDRESS);
+    }
+
+    /**
+     * 2 Byte Port
+     */
+    public int getPort() {
+        return this.get2BytesLowToHigh(ArtPollReply.START_PORT);
+    }
+
+    /**
+     * 2 Byte Firmware revision number
+     */
+    public int getVersionInfo() {
+        return this.get2BytesHighToLow(ArtPollReply.START_VERSION_INFO);
+    }
+
+    /**
+     * 7 Bit Net Switch
+     */
+    public byte getNet() {
+        return (byte) (this.getByte(ArtPollReply.START_NET) & ArtNetToolkit.MAX_NET);
+    }
+
+    /**
+     * 4 Bit Sub Switch
+     */
+    public byte getSubNet() {
+        return (byte) (this.getByte(ArtPollReply.START_SUB_NET) & ArtNetToolkit.MAX_SUB_NET);
+    }
+
+    public int getOem() {
+        return this.get2BytesHighToLow(ArtPollReply.START_OEM);
+    }
+
+    public byte getUbea() {
+        return this.getByte(ArtPollReply.START_UBEA);
+    }
+
+    public byte getStatus1() {
+        return this.getByte(ArtPollReply.START_STATUS1);
+    }
+
+    public int getEstaManufacturer() {
+        return this.get2BytesLowToHigh(ArtPollReply.START_ESTA_MANUFACTURER);
+    }
+
+    /**
+     * Decodes the short name; re-uses the String of an unchanged name.
+     */
+    public String getShortName() {
+        return this.getString(ArtPollReply.START_SHORT_NAME, _ArtNetPacket.SHORT_NAME_LENGTH);
+    }
+
+    /**
+     * Decodes the short name; returns the name of the previous reply of the same Node if it did not change.
+     *
+     * @param previous     Raw datagram of the previous reply, see {@link #copyPacket()}
+     * @param previousName Short name decoded from previous
+     */
+    public String getShortName(final byte[] previous, final String previousName) {
+        return this.getString(ArtPollReply.START_SHORT_NAME, _ArtNetPacket.SHORT_NAME_LENGTH, previous, previousName);
+    }
+
+    /**
+     * Decodes the long name; re-uses the String of an unchanged name.
+     */
+    public String getLongName() {
+        return this.getString(ArtPollReply.START_LONG_NAME, _ArtNetPacket.LONG_NAME_LENGTH);
+    }
+
+    /**
+     * Decodes the long name; returns the name of the previous reply of the same Node if it did not change.
+     *
+     * @param previous     Raw datagram of the previous reply, see {@link #copyPacket()}
+     * @param previousName Long name decoded from previous
+     */
+    public String getLongName(final byte[] previous, final String previousName) {
+        return this.getString(ArtPollReply.START_LONG_NAME, _ArtNetPacket.LONG_NAME_LENGTH, previous, previousName);
+    }
+
+    /**
+     * Decodes the node report. The report counter changes with every reply, so the report is not cached.
+     */
+    public String getNodeReport() {
+        return this.getUncachedString(ArtPollReply.START_NODE_REPORT, ArtPollReply.NODE_REPORT_LENGTH);
+    }
+
+    public int getNumPorts() {
+        return this.get2BytesHighToLow(ArtPollReply.START_NUM_PORTS);
+    }
+
+    /**
+     * @param port Port index (0 - 3)
+     */
+    public byte getPortType(final int port) {
+        return this.getByte(ArtPollReply.START_PORT_TYPES + ArtPollReplyView.checkPort(port));
+    }
+
+    /**
+     * @param port Port index (0 - 3)
+     */
+    public byte getGoodInput(final int port) {
+        return this.getByte(ArtPollReply.START_GOOD_INPUT + ArtPollReplyView.checkPort(port));
+    }
+
+    /**
+     * @param port Port index (0 - 3)
+     */
+    public byte getGoodOutput(final int port) {
+        return this.getByte(ArtPollReply.START_GOOD_OUTPUT + ArtPollReplyView.checkPort(port));
+    }
+
+    /**
+     * @param port Port index (0 - 3)
+     * @return 4 Bit Universe of the input port
+     */
+    public byte getUniverseIn(final int port) {
+        return (byte) (this.getByte(ArtPollReply.START_UNIVERSES_IN + ArtPollReplyView.checkPort(port)) & ArtNetToolkit.MAX_UNIVERSE);
+    }
+
+    /**
+     * @param port Port index (0 - 3)
+     * @return 4 Bit Universe of the output port
+     */
+    public byte getUniverseOut(final int port) {
+        return (byte) (this.getByte(ArtPollReply.START_UNIVERSES_OUT + ArtPollReplyView.checkPort(port)) & ArtNetToolkit.MAX_UNIVERSE);
+    }
+
+    /**
+     * @param port Port index (0 - 3)
+     * @return 15 Bit Port Address of the input port
+     */
+    public int getPortAddressIn(final int port) {
+        return ArtNetToolkit.getPortId(this.getNet(), this.getSubNet(), this.getUniverseIn(port));
+    }
+
+    /**
+     * @param port Port index (0 - 3)
+     * @return 15 Bit Port Address of the output port
+     */
+    public int getPortAddressOut(final int port) {
+        return ArtNetToolkit.getPortId(this.getNet(), this.getSubNet(), this.getUniverseOut(port));
+    }
+
+    public byte getVideo() {
+        return this.getByte(ArtPollReply.START_VIDEO);
+    }
+
+    public byte getMacro() {
+        return this.getByte(ArtPollReply.START_MACRO);
+    }
+
+    public byte getRemote() {
+        return this.getByte(ArtPollReply.START_REMOTE);
+    }
+
+    public byte getStyle() {
+        return this.getByte(ArtPollReply.START_STYLE);
+    }
+
+    /**
+     * Copy the 6 Byte Mac Address.
+     *
+     * @param to     Target array
+     * @param offset Start within the target array
+     */
+    public void copyMacAddress(final byte[] to, final int offset) {
+        this.copyBytes(ArtPollReply.START_MAC_ADDRESS, to, offset, ArtPollReply.MAC_ADDRESS_LENGTH);
+    }
+
+    /**
+     * 4 Byte Bind IP; 0 if not transmitted.
+     */
+    public int getBindIP() {
+        if (this.getLength() > ArtPollReply.START_BIND_INDEX) {
+            return this.get4BytesHighToLow(ArtPollReply.START_BIND_IP);
+        }
+        return 0;
+    }
+
+    /**
+     * 1 Byte Bind Index; 0 if not transmitted.
+     */
+    public byte getBindIndex() {
+        if (this.getLength() > ArtPollReply.START_BIND_INDEX) {
+            return this.getByte(ArtPollReply.START_BIND_INDEX);
+        }
+        return 0;
+    }
+
+    /**
+     * 1 Byte Status 2; 0 if not transmitted.
+     */
+    public byte getStatus2() {
+        if (this.getLength() > ArtPollReply.START_STATUS2) {
+            return this.getByte(ArtPollReply.START_STATUS2);
+        }
+        return 0;
+    }
+
+    private static int checkPort(final int port) {
+        if ((port < 0) || (port >= ArtPollReply.MAXIMUM_NUM_PORTS)) {
+            throw new IndexOutOfBoundsException("Port must be in range [0," + (ArtPollReply.MAXIMUM_NUM_PORTS - 1) + "]");
+        }
+        return port;
+    }
+
+    /**
+     * @return A fully decoded copy of the wrapped packet
+     */
+    public ArtPollReply toArtPollReply() {
+        return new ArtPollReply(this.copyPacket());
+    }
+
+    /**
+     * @return Copy of the raw datagram, e.g. to compare later replies with {@link #isSameReply(byte[])}
+     */
+    public byte[] copyPacket() {
+        final byte[] data = new byte[this.getLength()];
+        this.copyBytes(0, data, 0, data.length);
+        return data;
+    }
+
+    /**
+     * Compare the raw bytes of the wrapped reply with a previous reply of the same Node without decoding any field.
+     * Digits between the first '[' and ']' of the node report are ignored, as Nodes increment this counter with every reply.
+     *
+     * @param previous Raw datagram of the previous reply
+     * @return true if nothing but the node report counter changed
+     */
+    public boolean isSameReply(final byte[] previous) {
+        final int length = this.getLength();
+        if (previous.length != length) {
+            return false;
+        }
+        for (int i = 0; i < ArtPollReply.START_NODE_REPORT; i++) {
+            if (previous[i] != this.getByte(i)) {
+                return false;
+            }
+        }
+        boolean counter = false;
+        boolean counterSeen = false;
+        for (int i = ArtPollReply.START_NODE_REPORT; i < ArtPollReply.START_NUM_PORTS; i++) {
+            final byte b = this.getByte(i);
+            if (counter && ArtPollReplyView.isDigit(b) && ArtPollReplyView.isDigit(previous[i])) {
+                continue;
+            }
+            if (previous[i] != b) {
+                return false;
+            }
+            if (!counterSeen && (b == '[')) {
+                counter = true;
+                counterSeen = true;
+            } else if (b == ']') {
+                counter = false;
+            }
+        }
+        for (int i = ArtPollReply.START_NUM_PORTS; i < length; i++) {
+            if (previous[i] != this.getByte(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(final byte b) {
+        return (b >= '0') && (b <= '9');
+    }
+
+    /**
+     * @return true if the Node is capable of RDM according to Status1
+     */
+    public boolean isRdmCapable() {
+        return BinaryToolkit.isBitSet(this.getStatus1(), 1);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.infrastructure.packets;
+
+import tc.vom.artNetLighter.infrastructure.constants.ArtNetOpCodes;
+
+/**
+ * Used to hold the data of an ArtSync-Packet.
+ * A Controller sends ArtSync after all ArtDmx-packets of a frame; Nodes in synchronous mode hold their output until it arrives.
+ */
+public class ArtSync extends _VersionedArtNetPacket {
+
+    public static final int PACKET_LENGTH = _VersionedArtNetPacket.FULL_HEADER_LENGTH + 2;
+
+    /**
+     * 1 Byte Aux1. Transmit as zero.
+     */
+    private final byte aux1;
+
+    /**
+     * 1 Byte Aux2. Transmit as zero.
+     */
+    private final byte aux2;
+
+    public ArtSync() {
+        this((byte) 0, (byte) 0);
+    }
+
+    public ArtSync(final byte aux1, final byte aux2) {
+        super(ArtNetOpCodes.OP_CODE_SYNC);
+        this.aux1 = aux1;
+        this.aux2 = aux2;
+    }
+
+    public byte getAux1() {
+        return this.aux1;
+    }
+
+    public byte getAux2() {
+        return this.aux2;
+    }
+
+    @Override
+    public byte[] constructPacket() {
+        return ArtSync.constructPacket(this.aux1, this.aux2);
+    }
+
+    public static byte[] constructPacket(final byte aux1, final byte aux2) {
+        final byte[] result = _VersionedArtNetPacket.constructPacket(ArtSync.PACKET_LENGTH, ArtNetOpCodes.OP_CODE_SYNC);
+        result[_VersionedArtNetPacket.FULL_HEADER_LENGTH] = aux1;
+        result[_VersionedArtNetPacket.FULL_HEADER_LENGTH + 1] = aux2;
+        return result;
+    }
+
+    public ArtSync(final byte[] data) {
+        super(data);
+        if (data.length < ArtSync.PACKET_LENGTH) {
+            throw new IllegalArgumentException("Minimum size for ArtSync is " + ArtSync.PACKET_LENGTH);
+        }
+        if (this.getOpCode() != ArtNetOpCodes.OP_CODE_SYNC) {
+            throw new IllegalArgumentException("Provided data specifies a wrong OpCode");
+        }
+        this.aux1 = data[_VersionedArtNetPacket.FULL_HEADER_LENGTH];
+        this.aux2 = data[_VersionedArtNetPacket.FULL_HEADER_LENGTH + 1];
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ArtSync)) {
+            return false;
+        }
+        if (!super.equals(o)) {
+            return false;
+        }
+
+        final ArtSync artSync = (ArtSync) o;
+
+        if (this.aux1 != artSync.aux1) {
+            return false;
+        }
+        //noinspection RedundantIfStatement
+        if (this.aux2 != artSync.aux2) {
+            return false;
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+        result = (31 * result) + this.aux1;
+        result = (31 * result) + this.aux2;
+        return result;
+    }
+}
@@ -21,10 +21,51 @@ import tc.vom.artNetLighter.infrastructure.constants.ArtNetOpCodes;
 
 /**
  * Implements ArtTimeCode packet.
+ * <p/>
+ * The static helpers convert between time code labels, continuous frame indices (counting from 00:00:00:00) and real time, including the
+ * frame numbers dropped by DF (29.97fps) time code.
  */
 public class ArtTimeCode extends _VersionedArtNetPacket {
 
     public static final int PACKET_LENGTH = _VersionedArtNetPacket.FULL_HEADER_LENGTH + 7;
+
+    static final int START_FILLER1 = _VersionedArtNetPacket.FULL_HEADER_LENGTH;
+    static final int START_FILLER2 = ArtTimeCode.START_FILLER1 + 1;
+    static final int START_FRAMES = ArtTimeCode.START_FILLER2 + 1;
+    static final int START_SECONDS = ArtTimeCode.START_FRAMES + 1;
+    static final int START_MINUTES = ArtTimeCode.START_SECONDS + 1;
+    static final int START_HOURS = ArtTimeCode.START_MINUTES + 1;
+    static final int START_TYPE = ArtTimeCode.START_HOURS + 1;
+
+    public static interface TypeConstants {
+        /**
+         * Film (24fps)
+         */
+        public static final byte Film = 0;
+        /**
+         * EBU (25fps)
+         */
+        public static final byte EBU = 1;
+        /**
+         * DF (29.97fps); frame numbers 0 and 1 are dropped at the start of every minute not divisible by 10.
+         */
+        public static final byte DF = 2;
+        /**
+         * SMPTE (30fps)
+         */
+        public static final byte SMPTE = 3;
+    }
+
+    public static final int MAX_TYPE = TypeConstants.SMPTE;
+
+    private static final int[] FRAMES_PER_SECOND = {24, 25, 30, 30};
+    /**
+     * Length of a cycle of {@link #FRAMES_PER_SECOND} frames; 29.97fps runs 30 frames in 1.001 seconds.
+     */
+    private static final long[] CYCLE_NANOS = {1000000000L, 1000000000L, 1001000000L, 1000000000L};
+    private static final int DF_DROPPED_PER_MINUTE = 2;
+    private static final int DF_FRAMES_PER_MINUTE = (60 * 30) - ArtTimeCode.DF_DROPPED_PER_MINUTE;
+    private static final int DF_FRAMES_PER_TEN_MINUTES = (10 * ArtTimeCode.DF_FRAMES_PER_MINUTE) + ArtTimeCode.DF_DROPPED_PER_MINUTE;
     /**
      * 1 Byte Filler1
      */
@@ -118,16 +159,117 @@ public class ArtTimeCode extends _VersionedArtNetPacket {
 
     public static byte[] constructPacket(final byte filler1, final byte filler2, final byte frames, final byte seconds, final byte minutes, final byte hours, final byte type) {
         final byte[] pData = _VersionedArtNetPacket.constructPacket(ArtTimeCode.PACKET_LENGTH, ArtNetOpCodes.OP_CODE_TIME_CODE);
-        pData[_VersionedArtNetPacket.FULL_HEADER_LENGTH] = filler1;
-        pData[_VersionedArtNetPacket.FULL_HEADER_LENGTH + 1] = filler2;
-        pData[_VersionedArtNetPacket.FULL_HEADER_LENGTH + 2] = frames;
-        pData[_VersionedArtNetPacket.FULL_HEADER_LENGTH + 3] = seconds;
-        pData[_VersionedArtNetPacket.FULL_HEADER_LENGTH + 4] = minutes;
-        pData[_VersionedArtNetPacket.FULL_HEADER_LENGTH + 5] = hours;
-        pData[_VersionedArtNetPacket.FULL_HEADER_LENGTH + 6] = type;
+        pData[ArtTimeCode.START_FILLER1] = filler1;
+        pData[ArtTimeCode.START_FILLER2] = filler2;
+        pData[ArtTimeCode.START_FRAMES] = frames;
+        pData[ArtTimeCode.START_SECONDS] = seconds;
+        pData[ArtTimeCode.START_MINUTES] = minutes;
+        pData[ArtTimeCode.START_HOURS] = hours;
+        pData[ArtTimeCode.START_TYPE] = type;
         return pData;
     }
 
+    /**
+     * Write the parts of an ArtTimeCode-packet that never change into a reusable buffer.
+     *
+     * @param to     Target buffer; needs {@link #PACKET_LENGTH} Bytes after offset
+     * @param offset Start of the packet within the buffer
+     */
+    public static void encodeHeader(final byte[] to, final int offset) {
+        _VersionedArtNetPacket.encodeHeader(to, offset, ArtNetOpCodes.OP_CODE_TIME_CODE);
+        to[offset + ArtTimeCode.START_FILLER1] = 0;
+        to[offset + ArtTimeCode.START_FILLER2] = 0;
+    }
+
+    /**
+     * Patch the time code into a buffer prepared by {@link #encodeHeader(byte[], int)}. Allocates nothing.
+     *
+     * @param to         Target buffer
+     * @param offset     Start of the packet within the buffer
+     * @param type       Type of the time code
+     * @param frameIndex Frame counted from 00:00:00:00
+     * @return Length of the encoded packet
+     * @see TypeConstants
+     */
+    public static int encodePacket(final byte[] to, final int offset, final byte type, final int frameIndex) {
+        int label = frameIndex;
+        if (type == TypeConstants.DF) {
+            final int tenMinutes = frameIndex / ArtTimeCode.DF_FRAMES_PER_TEN_MINUTES;
+            final int remainder = frameIndex % ArtTimeCode.DF_FRAMES_PER_TEN_MINUTES;
+            label += 9 * ArtTimeCode.DF_DROPPED_PER_MINUTE * tenMinutes;
+            if (remainder >= ArtTimeCode.DF_DROPPED_PER_MINUTE) {
+                label += ArtTimeCode.DF_DROPPED_PER_MINUTE * ((remainder - ArtTimeCode.DF_DROPPED_PER_MINUTE) / ArtTimeCode.DF_FRAMES_PER_MINUTE);
+            }
+        }
+        final int framesPerSecond = ArtTimeCode.getFramesPerSecond(type);
+        to[offset + ArtTimeCode.START_FRAMES] = (byte) (label % framesPerSecond);
+        to[offset + ArtTimeCode.START_SECONDS] = (byte) ((label / framesPerSecond) % 60);
+        to[offset + ArtTimeCode.START_MINUTES] = (byte) ((label / (framesPerSecond * 60)) % 60);
+        to[offset + ArtTimeCode.START_HOURS] = (byte) ((label / (framesPerSecond * 3600)) % 24);
+        to[offset + ArtTimeCode.START_TYPE] = type;
+        return ArtTimeCode.PACKET_LENGTH;
+    }
+
+    /**
+     * @param type Type of the time code
+     * @return Nominal frames per second, i.e. 30 for DF
+     */
+    public static int getFramesPerSecond(final int type) {
+        return ArtTimeCode.FRAMES_PER_SECOND[ArtTimeCode.checkType(type)];
+    }
+
+    /**
+     * @param type Type of the time code
+     * @return Nanoseconds a cycle of {@link #getFramesPerSecond(int)} frames lasts
+     */
+    public static long getCycleNanos(final int type) {
+        return ArtTimeCode.CYCLE_NANOS[ArtTimeCode.checkType(type)];
+    }
+
+    /**
+     * @param type Type of the time code
+     * @return Number of frames from 00:00:00:00 to 24:00:00:00
+     */
+    public static int getFramesPerDay(final int type) {
+        if (type == TypeConstants.DF) {
+            return 144 * ArtTimeCode.DF_FRAMES_PER_TEN_MINUTES;
+        }
+        return ArtTimeCode.getFramesPerSecond(type) * 86400;
+    }
+
+    /**
+     * Convert a time code label into a continuous frame index, skipping the frame numbers dropped by DF.
+     *
+     * @return Frame counted from 00:00:00:00
+     */
+    public static int getFrameIndex(final int type, final int hours, final int minutes, final int seconds, final int frames) {
+        final int framesPerSecond = ArtTimeCode.getFramesPerSecond(type);
+        final int index = (((((hours * 60) + minutes) * 60) + seconds) * framesPerSecond) + frames;
+        if (type != TypeConstants.DF) {
+            return index;
+        }
+        final int totalMinutes = (hours * 60) + minutes;
+        return index - (ArtTimeCode.DF_DROPPED_PER_MINUTE * (totalMinutes - (totalMinutes / 10)));
+    }
+
+    /**
+     * @param type       Type of the time code
+     * @param frameIndex Frame counted from 00:00:00:00
+     * @return Real time from 00:00:00:00 to the start of the frame
+     */
+    public static long getFrameTimeNanos(final int type, final long frameIndex) {
+        final int framesPerSecond = ArtTimeCode.getFramesPerSecond(type);
+        final long cycleNanos = ArtTimeCode.getCycleNanos(type);
+        return ((frameIndex / framesPerSecond) * cycleNanos) + (((frameIndex % framesPerSecond) * cycleNanos) / framesPerSecond);
+    }
+
+    private static int checkType(final int type) {
+        if ((type < 0) || (type > ArtTimeCode.MAX_TYPE)) {
+            throw new IllegalArgumentException("type must be in range [0," + ArtTimeCode.MAX_TYPE + "]");
+        }
+        return type;
+    }
+
     public ArtTimeCode(final byte[] pData) {
         super(pData);
         if (this.getOpCode() != ArtNetOpCodes.OP_CODE_TIME_CODE) {
@@ -136,13 +278,13 @@ public class ArtTimeCode extends _VersionedArtNetPacket {
         if (pData.length < ArtTimeCode.PACKET_LENGTH) {
             throw new IllegalArgumentException("Packet needs to be at least " + ArtTimeCode.PACKET_LENGTH + " bytes");
         }
-        this.filler1 = pData[_VersionedArtNetPacket.FULL_HEADER_LENGTH];
-        this.filler2 = pData[_VersionedArtNetPacket.FULL_HEADER_LENGTH + 1];
-        this.frames = pData[_VersionedArtNetPacket.FULL_HEADER_LENGTH + 2];
-        this.seconds = pData[_VersionedArtNetPacket.FULL_HEADER_LENGTH + 3];
-        this.minutes = pData[_VersionedArtNetPacket.FULL_HEADER_LENGTH + 4];
-        this.hours = pData[_VersionedArtNetPacket.FULL_HEADER_LENGTH + 5];
-        this.type = pData[_VersionedArtNetPacket.FULL_HEADER_LENGTH + 6];
+        this.filler1 = pData[ArtTimeCode.START_FILLER1];
+        this.filler2 = pData[ArtTimeCode.START_FILLER2];
+        this.frames = pData[ArtTimeCode.START_FRAMES];
+        this.seconds = pData[ArtTimeCode.START_SECONDS];
+        this.minutes = pData[ArtTimeCode.START_MINUTES];
+        this.hours = pData[ArtTimeCode.START_HOURS];
+        this.type = pData[ArtTimeCode.START_TYPE];
     }
 
     @Override
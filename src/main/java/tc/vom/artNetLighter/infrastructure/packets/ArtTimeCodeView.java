@@ -0,0 +1,64 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+
+package tc.vom.artNetLighter.infrastructure.packets;
+
+import tc.vom.artNetLighter.infrastructure.constants.ArtNetOpCodes;
+
+/**
+ * Flyweight reader for ArtTimeCode-packets.
+ *
+ * @see ArtTimeCode
+ */
+public class ArtTimeCodeView extends _VersionedArtNetPacketView {
+
+    @Override
+    public boolean isValid() {
+        return super.isValid() && (this.getLength() >= ArtTimeCode.PACKET_LENGTH) && (this.getOpCode() == ArtNetOpCodes.OP_CODE_TIME_CODE);
+    }
+
+    public int getFrames() {
+        return this.getUnsignedByte(ArtTimeCode.START_FRAMES);
+    }
+
+    public int getSeconds() {
+        return this.getUnsignedByte(ArtTimeCode.START_SECONDS);
+    }
+
+    public int getMinutes() {
+        return this.getUnsignedByte(ArtTimeCode.START_MINUTES);
+    }
+
+    public int getHours() {
+        return this.getUnsignedByte(ArtTimeCode.START_HOURS);
+    }
+
+    /**
+     * @see ArtTimeCode.TypeConstants
+     */
+    public int getType() {
+        return this.getUnsignedByte(ArtTimeCode.START_TYPE);
+    }
+
+    /**
+     * @return Frame counted from 00:00:00:00
+     * @see ArtTimeCode#getFrameIndex(int, int, int, int, int)
+     */
+    public int getFrameIndex() {
+        return ArtTimeCode.getFrameIndex(this.getType(), this.getHours(), this.getMinutes(), this.getSeconds(), this.getFrames());
+    }
+}
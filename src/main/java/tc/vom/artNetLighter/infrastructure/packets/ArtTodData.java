@@ -18,6 +18,7 @@ package tc.vom.artNetLighter.infrastructure.packets;
 
 import tc.vom.artNetLighter.infrastructure.BinaryToolkit;
 import tc.vom.artNetLighter.infrastructure.ByteArrayToolkit;
+import tc.vom.artNetLighter.infrastructure.RdmUid;
 import tc.vom.artNetLighter.infrastructure.constants.ArtNetOpCodes;
 
 import java.util.Arrays;
@@ -31,19 +32,19 @@ public class ArtTodData extends _VersionedArtNetPacket {
     public static final byte[] SPARE_BYTES = new byte[ArtTodData.SPARE_LENGTH];
 
     public static final int MAXIMUM_TABLE_OF_DEVICES_LENGTH = 255;
-    public static final int UID_LENGTH = 6;
-
-    private static final int START_RDM_VERSION = _VersionedArtNetPacket.FULL_HEADER_LENGTH;
-    private static final int START_PORT = ArtTodData.START_RDM_VERSION + 1;
-    private static final int START_SPARE = ArtTodData.START_PORT + 1;
-    private static final int START_NET = ArtTodData.START_SPARE + ArtTodData.SPARE_LENGTH;
-    private static final int START_COMMAND_RESPONSE = ArtTodData.START_NET + 1;
-    private static final int START_ADDRESS = ArtTodData.START_COMMAND_RESPONSE + 1;
-    private static final int START_UID_TOTAL = ArtTodData.START_ADDRESS + 1;
-    private static final int START_BLOCK_COUNT = ArtTodData.START_UID_TOTAL + 2;
-    private static final int START_UID_COUNT = ArtTodData.START_BLOCK_COUNT + 1;
-    private static final int START_TABLE_OF_DEVICES = ArtTodData.START_UID_COUNT + 1;
-    private static final int MINIMUM_PACKET_LENGTH = ArtTodData.START_TABLE_OF_DEVICES;
+    public static final int UID_LENGTH = RdmUid.LENGTH;
+
+    static final int START_RDM_VERSION = _VersionedArtNetPacket.FULL_HEADER_LENGTH;
+    static final int START_PORT = ArtTodData.START_RDM_VERSION + 1;
+    static final int START_SPARE = ArtTodData.START_PORT + 1;
+    static final int START_NET = ArtTodData.START_SPARE + ArtTodData.SPARE_LENGTH;
+    static final int START_COMMAND_RESPONSE = ArtTodData.START_NET + 1;
+    static final int START_ADDRESS = ArtTodData.START_COMMAND_RESPONSE + 1;
+    static final int START_UID_TOTAL = ArtTodData.START_ADDRESS + 1;
+    static final int START_BLOCK_COUNT = ArtTodData.START_UID_TOTAL + 2;
+    static final int START_UID_COUNT = ArtTodData.START_BLOCK_COUNT + 1;
+    static final int START_TABLE_OF_DEVICES = ArtTodData.START_UID_COUNT + 1;
+    static final int MINIMUM_PACKET_LENGTH = ArtTodData.START_TABLE_OF_DEVICES;
 
     public static interface RdmVersionConstants {
         /**
@@ -124,15 +125,22 @@ public class ArtTodData extends _VersionedArtNetPacket {
 
     /**
      * {@link #uidCount} * 6 Bytes TOD.
-     * An array of RDM UID.
+     * An array of RDM UID, each packed as {@link RdmUid}.
      */
-    private final byte[][] tableOfDevices;
+    private final long[] uids;
 
     public ArtTodData(final byte rdmVersion, final byte port, final byte net, final byte commandResponse, final byte address, final int uidTotal, final byte blockCount, final byte[][] tableOfDevices) {
-        this(rdmVersion, port, ArtTodData.SPARE_BYTES, net, commandResponse, address, uidTotal, blockCount, tableOfDevices);
+        this(rdmVersion, port, ArtTodData.SPARE_BYTES, net, commandResponse, address, uidTotal, blockCount, ArtTodData.toUids(tableOfDevices));
     }
 
-    private ArtTodData(final byte rdmVersion, final byte port, final byte[] spare, final byte net, final byte commandResponse, final byte address, final int uidTotal, final byte blockCount, final byte[][] tableOfDevices) {
+    /**
+     * @param uids 48 Bit RDM UIDs as packed by {@link RdmUid}
+     */
+    public ArtTodData(final byte rdmVersion, final byte port, final byte net, final byte commandResponse, final byte address, final int uidTotal, final byte blockCount, final long[] uids) {
+        this(rdmVersion, port, ArtTodData.SPARE_BYTES, net, commandResponse, address, uidTotal, blockCount, uids.clone());
+    }
+
+    private ArtTodData(final byte rdmVersion, final byte port, final byte[] spare, final byte net, final byte commandResponse, final byte address, final int uidTotal, final byte blockCount, final long[] uids) {
         super(ArtNetOpCodes.OP_CODE_TOD_DATA);
         this.rdmVersion = rdmVersion;
         this.port = port;
@@ -142,8 +150,19 @@ public class ArtTodData extends _VersionedArtNetPacket {
         this.address = address;
         this.uidTotal = uidTotal;
         this.blockCount = blockCount;
-        this.uidCount = (byte) tableOfDevices.length;
-        this.tableOfDevices = tableOfDevices;
+        this.uidCount = (byte) uids.length;
+        this.uids = uids;
+    }
+
+    private static long[] toUids(final byte[][] tableOfDevices) {
+        final long[] uids = new long[tableOfDevices.length];
+        for (int i = 0; i < tableOfDevices.length; i++) {
+            if (tableOfDevices[i].length != ArtTodData.UID_LENGTH) {
+                throw new IllegalArgumentException("tableOfDevices seems to contain no UID at position " + i + " as inner-array-length is " + tableOfDevices[i].length + " and not " + ArtTodData.UID_LENGTH + ".");
+            }
+            uids[i] = RdmUid.read(tableOfDevices[i], 0);
+        }
+        return uids;
     }
 
     public byte getRdmVersion() {
@@ -182,28 +201,49 @@ public class ArtTodData extends _VersionedArtNetPacket {
         return this.uidCount;
     }
 
+    /**
+     * Allocates one array per UID; prefer {@link #getUid(int)} or {@link #getUids()}.
+     */
     public byte[][] getTableOfDevices() {
-        return this.tableOfDevices;
+        final byte[][] tableOfDevices = new byte[this.uids.length][ArtTodData.UID_LENGTH];
+        for (int i = 0; i < this.uids.length; i++) {
+            RdmUid.write(this.uids[i], tableOfDevices[i], 0);
+        }
+        return tableOfDevices;
+    }
+
+    /**
+     * @return Copy of all 48 Bit RDM UIDs as packed by {@link RdmUid}
+     */
+    public long[] getUids() {
+        return this.uids.clone();
+    }
+
+    /**
+     * @param i Index of the UID (0 - {@link #getUidCount()} - 1)
+     * @return 48 Bit RDM UID as packed by {@link RdmUid}
+     */
+    public long getUid(final int i) {
+        return this.uids[i];
     }
 
     @Override
     public byte[] constructPacket() {
-        return ArtTodData.constructPacket(this.rdmVersion, this.port, this.spare, this.net, this.commandResponse, this.address, this.uidTotal, this.blockCount, this.tableOfDevices);
+        return ArtTodData.constructPacket(this.rdmVersion, this.port, this.spare, this.net, this.commandResponse, this.address, this.uidTotal, this.blockCount, this.uids);
     }
 
     public static byte[] constructPacket(final byte rdmVersion, final byte port, final byte[] spare, final byte net, final byte commandResponse, final byte address, final int uidTotal, final byte blockCount, final byte[][] tableOfDevices) {
+        return ArtTodData.constructPacket(rdmVersion, port, spare, net, commandResponse, address, uidTotal, blockCount, ArtTodData.toUids(tableOfDevices));
+    }
+
+    public static byte[] constructPacket(final byte rdmVersion, final byte port, final byte[] spare, final byte net, final byte commandResponse, final byte address, final int uidTotal, final byte blockCount, final long[] uids) {
         if (spare.length > ArtTodData.SPARE_LENGTH) {
             throw new IllegalArgumentException("spare has a maximum length of " + ArtTodData.SPARE_LENGTH + " Bytes.");
         }
-        if (tableOfDevices.length > ArtTodData.MAXIMUM_TABLE_OF_DEVICES_LENGTH) {
-            throw new IllegalArgumentException("tableOfDevices has a maximum length of " + ArtTodData.MAXIMUM_TABLE_OF_DEVICES_LENGTH + " Bytes.");
-        }
-        for (int i = 0; i < tableOfDevices.length; i++) {
-            if (tableOfDevices[i].length != ArtTodData.UID_LENGTH) {
-                throw new IllegalArgumentException("tableOfDevices seems to contain no UID at position " + i + " as inner-array-length is " + tableOfDevices[i].length + " and not " + ArtTodData.UID_LENGTH + ".");
-            }
+        if (uids.length > ArtTodData.MAXIMUM_TABLE_OF_DEVICES_LENGTH) {
+            throw new IllegalArgumentException("tableOfDevices has a maximum length of " + ArtTodData.MAXIMUM_TABLE_OF_DEVICES_LENGTH + " UIDs.");
         }
-        final byte[] pData = _VersionedArtNetPacket.constructPacket(ArtTodData.MINIMUM_PACKET_LENGTH + (tableOfDevices.length * ArtTodData.UID_LENGTH), ArtNetOpCodes.OP_CODE_TOD_DATA);
+        final byte[] pData = _VersionedArtNetPacket.constructPacket(ArtTodData.MINIMUM_PACKET_LENGTH + (uids.length * ArtTodData.UID_LENGTH), ArtNetOpCodes.OP_CODE_TOD_DATA);
         pData[ArtTodData.START_RDM_VERSION] = rdmVersion;
         pData[ArtTodData.START_PORT] = port;
         ByteArrayToolkit.setBytes(spare, pData, ArtTodData.START_SPARE);
@@ -212,9 +252,9 @@ public class ArtTodData extends _VersionedArtNetPacket {
         pData[ArtTodData.START_ADDRESS] = address;
         ByteArrayToolkit.set2BytesHighToLow(uidTotal, pData, ArtTodData.START_UID_TOTAL);
         pData[ArtTodData.START_BLOCK_COUNT] = blockCount;
-        pData[ArtTodData.START_UID_COUNT] = (byte) tableOfDevices.length;
-        for (int i = 0; i < tableOfDevices.length; i++) {
-            ByteArrayToolkit.setBytes(tableOfDevices[i], pData, ArtTodData.START_TABLE_OF_DEVICES + (i * ArtTodData.UID_LENGTH));
+        pData[ArtTodData.START_UID_COUNT] = (byte) uids.length;
+        for (int i = 0; i < uids.length; i++) {
+            RdmUid.write(uids[i], pData, ArtTodData.START_TABLE_OF_DEVICES + (i * ArtTodData.UID_LENGTH));
         }
         return pData;
     }
@@ -236,9 +276,13 @@ public class ArtTodData extends _VersionedArtNetPacket {
         this.uidTotal = ByteArrayToolkit.get2BytesHighToLow(pData, ArtTodData.START_UID_TOTAL);
         this.blockCount = pData[ArtTodData.START_BLOCK_COUNT];
         this.uidCount = pData[ArtTodData.START_UID_COUNT];
-        this.tableOfDevices = new byte[BinaryToolkit.getUnsignedValue(this.uidCount)][];
-        for (int i = 0; i < this.tableOfDevices.length; i++) {
-            this.tableOfDevices[i] = ByteArrayToolkit.getBytes(pData, ArtTodData.START_TABLE_OF_DEVICES + (i * ArtTodData.UID_LENGTH));
+        final int count = BinaryToolkit.getUnsignedValue(this.uidCount);
+        if (pData.length < (ArtTodData.MINIMUM_PACKET_LENGTH + (count * ArtTodData.UID_LENGTH))) {
+            throw new IllegalArgumentException("Packet is too short for " + count + " UIDs");
+        }
+        this.uids = new long[count];
+        for (int i = 0; i < count; i++) {
+            this.uids[i] = RdmUid.read(pData, ArtTodData.START_TABLE_OF_DEVICES + (i * ArtTodData.UID_LENGTH));
         }
     }
 
@@ -280,17 +324,7 @@ public class ArtTodData extends _VersionedArtNetPacket {
         if (this.uidTotal != that.uidTotal) {
             return false;
         }
-        if (this.tableOfDevices.length != that.tableOfDevices.length) {
-            return false;
-        }
-
-        for (int i = 0; i < this.tableOfDevices.length; i++) {
-            if (!Arrays.equals(this.tableOfDevices[i], that.tableOfDevices[i])) {
-                return false;
-            }
-        }
-
-        return true;
+        return Arrays.equals(this.uids, that.uids);
     }
 
     @Override
@@ -304,9 +338,7 @@ public class ArtTodData extends _VersionedArtNetPacket {
         result = (31 * result) + this.uidTotal;
         result = (31 * result) + this.blockCount;
         result = (31 * result) + this.uidCount;
-        for (final byte[] uid : this.tableOfDevices) {
-            result = (31 * result) + Arrays.hashCode(uid);
-        }
+        result = (31 * result) + Arrays.hashCode(this.uids);
         return result;
     }
 }
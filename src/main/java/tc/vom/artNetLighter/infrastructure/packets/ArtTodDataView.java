@@ -0,0 +1,94 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.infrastructure.packets;
+
+import tc.vom.artNetLighter.infrastructure.ArtNetToolkit;
+import tc.vom.artNetLighter.infrastructure.RdmUid;
+import tc.vom.artNetLighter.infrastructure.constants.ArtNetOpCodes;
+
+/**
+ * Flyweight reader for ArtTodData-packets.
+ *
+ * @see ArtTodData
+ */
+public class ArtTodDataView extends _VersionedArtNetPacketView {
+
+    @Override
+    public boolean isValid() {
+        return super.isValid() && (this.getLength() >= ArtTodData.MINIMUM_PACKET_LENGTH) && (this.getOpCode() == ArtNetOpCodes.OP_CODE_TOD_DATA) && ((ArtTodData.MINIMUM_PACKET_LENGTH + (this.getUidCount() * ArtTodData.UID_LENGTH)) <= this.getLength());
+    }
+
+    public byte getRdmVersion() {
+        return this.getByte(ArtTodData.START_RDM_VERSION);
+    }
+
+    /**
+     * Physical Port. Range 1-4.
+     */
+    public byte getPort() {
+        return this.getByte(ArtTodData.START_PORT);
+    }
+
+    public byte getNet() {
+        return this.getByte(ArtTodData.START_NET);
+    }
+
+    /**
+     * @see ArtTodData.CommandResponseConstants
+     */
+    public byte getCommandResponse() {
+        return this.getByte(ArtTodData.START_COMMAND_RESPONSE);
+    }
+
+    public byte getAddress() {
+        return this.getByte(ArtTodData.START_ADDRESS);
+    }
+
+    /**
+     * @return 15 Bit Port Address built from Net and Address
+     */
+    public int getPortAddress() {
+        return ArtNetToolkit.getPortId(this.getNet() & ArtNetToolkit.MAX_NET, this.getAddress());
+    }
+
+    public int getUidTotal() {
+        return this.get2BytesHighToLow(ArtTodData.START_UID_TOTAL);
+    }
+
+    public int getBlockCount() {
+        return this.getUnsignedByte(ArtTodData.START_BLOCK_COUNT);
+    }
+
+    /**
+     * Number of UIDs in this packet.
+     */
+    public int getUidCount() {
+        return this.getUnsignedByte(ArtTodData.START_UID_COUNT);
+    }
+
+    /**
+     * @param i Index of the UID (0 - {@link #getUidCount()} - 1)
+     * @return 48 Bit RDM UID as packed by {@link RdmUid}
+     */
+    public long getUid(final int i) {
+        if ((i < 0) || (i >= this.getUidCount())) {
+            throw new IndexOutOfBoundsException("UID index must be in range [0," + (this.getUidCount() - 1) + "]");
+        }
+        final int start = ArtTodData.START_TABLE_OF_DEVICES + (i * ArtTodData.UID_LENGTH);
+        return RdmUid.pack(this.get2BytesHighToLow(start), this.get4BytesHighToLow(start + 2) & RdmUid.MAX_DEVICE_ID);
+    }
+}
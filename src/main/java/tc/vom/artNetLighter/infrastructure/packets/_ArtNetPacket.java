@@ -18,11 +18,13 @@ package tc.vom.artNetLighter.infrastructure.packets;
 
 import tc.vom.artNetLighter.infrastructure.constants.ArtNetOpCodes;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.Arrays;
 
 import static tc.vom.artNetLighter.infrastructure.ByteArrayToolkit.get2BytesLowToHigh;
 import static tc.vom.artNetLighter.infrastructure.ByteArrayToolkit.set2BytesLowToHigh;
+import static tc.vom.artNetLighter.infrastructure.ByteArrayToolkit.setBytes;
 
 /**
  * Represents an Art-Net packet that could be send or received.
@@ -36,6 +38,10 @@ public abstract class _ArtNetPacket implements ArtNetOpCodes {
     public static final Charset STRING_CHARSET = Charset.forName("ASCII");
     public static final int SHORT_NAME_LENGTH = 18;
     public static final int LONG_NAME_LENGTH = 64;
+    /**
+     * Passed for name fields that are written into the constructed packet afterwards.
+     */
+    static final byte[] EMPTY_FIELD = new byte[0];
 
 
     /**
@@ -79,43 +85,48 @@ public abstract class _ArtNetPacket implements ArtNetOpCodes {
             throw new IllegalArgumentException("Header alone needs 10 Bytes");
         }
         final byte[] result = new byte[packetLength];
-        System.arraycopy(_ArtNetPacket.ART_NET_ID, 0, result, 0, _ArtNetPacket.ART_NET_ID.length);
-        set2BytesLowToHigh(opCode, result, 8);
+        _ArtNetPacket.encodeUnversionedHeader(result, 0, opCode);
         return result;
     }
 
+    /**
+     * Write ID and OpCode into an existing buffer.
+     *
+     * @param to     Target buffer; needs at least {@link #SHORT_HEADER_LENGTH} Bytes after offset
+     * @param offset Start of the packet within the buffer
+     * @param opCode 2 Byte OpCode
+     */
+    public static void encodeUnversionedHeader(final byte[] to, final int offset, final int opCode) {
+        System.arraycopy(_ArtNetPacket.ART_NET_ID, 0, to, offset, _ArtNetPacket.ART_NET_ID.length);
+        set2BytesLowToHigh(opCode, to, offset + 8);
+    }
+
+    /**
+     * Write ID and OpCode into an existing buffer. The position of the buffer is not changed.
+     *
+     * @param to     Target buffer; needs at least {@link #SHORT_HEADER_LENGTH} Bytes after offset
+     * @param offset Start of the packet within the buffer
+     * @param opCode 2 Byte OpCode
+     */
+    public static void encodeUnversionedHeader(final ByteBuffer to, final int offset, final int opCode) {
+        setBytes(_ArtNetPacket.ART_NET_ID, to, offset);
+        set2BytesLowToHigh(opCode, to, offset + 8);
+    }
+
+    /**
+     * Decode a datagram using {@link ArtNetPacketDecoderRegistry#getDefault()}.
+     * Callers that receive foreign traffic should use {@link ArtNetPacketDecoderRegistry#decode(byte[])}, which does not throw on unknown OpCodes.
+     *
+     * @param pData Complete datagram
+     * @return Decoded packet
+     * @throws IllegalArgumentException if the datagram is no Art-Net packet or contains an unhandled OpCode
+     */
     public static _ArtNetPacket parsePacket(final byte[] pData) {
-        final int opCode = get2BytesLowToHigh(pData, 8);
-        switch (opCode) {
-            case ArtNetOpCodes.OP_CODE_ADDRESS:
-                return new ArtAddress(pData);
-            case ArtNetOpCodes.OP_CODE_DIAGNOSTIC_DATA:
-                return new ArtDiagData(pData);
-            case ArtNetOpCodes.OP_CODE_DMX:
-                return new ArtDmx(pData);
-            case ArtNetOpCodes.OP_CODE_FIRMWARE_MASTER:
-                return new ArtFirmwareMaster(pData);
-            case ArtNetOpCodes.OP_CODE_FIRMWARE_REPLY:
-                return new ArtFirmwareReply(pData);
-            case ArtNetOpCodes.OP_CODE_INPUT:
-                return new ArtInput(pData);
-            case ArtNetOpCodes.OP_CODE_IP_PROGRAM:
-                return new ArtIpProg(pData);
-            case ArtNetOpCodes.OP_CODE_IP_PROGRAM_REPLY:
-                return new ArtIpProgReply(pData);
-            case ArtNetOpCodes.OP_CODE_POLL:
-                return new ArtPoll(pData);
-            case ArtNetOpCodes.OP_CODE_POLL_REPLY:
-                return new ArtPollReply(pData);
-            case ArtNetOpCodes.OP_CODE_TIME_CODE:
-                return new ArtTimeCode(pData);
-            case ArtNetOpCodes.OP_CODE_TOD_DATA:
-                return new ArtTodData(pData);
-            case ArtNetOpCodes.OP_CODE_TOD_REQUEST:
-                return new ArtTodRequest(pData);
-            default:
-                throw new IllegalArgumentException("The packet contains an unhandled OpCode");
+        final _ArtNetPacket packet = ArtNetPacketDecoderRegistry.getDefault().decode(pData);
+        if (packet == null) {
+            throw new IllegalArgumentException("The packet contains an unhandled OpCode");
         }
+        return packet;
     }
 
     @Override
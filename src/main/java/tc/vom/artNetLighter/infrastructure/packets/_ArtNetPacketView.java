@@ -0,0 +1,181 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.infrastructure.packets;
+
+import tc.vom.artNetLighter.infrastructure.AsciiStringCache;
+import tc.vom.artNetLighter.infrastructure.BinaryToolkit;
+import tc.vom.artNetLighter.infrastructure.ByteArrayToolkit;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight reader for a received Art-Net packet.
+ * The view wraps a buffer without copying it and decodes fields only when they are accessed; it can be re-used for any number of datagrams.
+ * A view is only valid as long as the wrapped buffer is not modified.
+ */
+public abstract class _ArtNetPacketView {
+
+    private byte[] wrappedArray = null;
+    private ByteBuffer arrayBuffer = null;
+
+    private ByteBuffer buffer = null;
+    private int offset = 0;
+    private int length = 0;
+
+    /**
+     * Wrap a datagram stored in an array. Re-wrapping the same array allocates nothing.
+     *
+     * @param data   Array holding the datagram
+     * @param offset Start of the datagram
+     * @param length Length of the datagram
+     * @return true if the data holds a packet this view can read
+     */
+    public boolean wrap(final byte[] data, final int offset, final int length) {
+        if ((offset < 0) || (length < 0) || (length > (data.length - offset))) {
+            throw new IndexOutOfBoundsException("offset and length must be within data");
+        }
+        if (data != this.wrappedArray) {
+            this.wrappedArray = data;
+            this.arrayBuffer = ByteBuffer.wrap(data);
+        }
+        return this.wrap(this.arrayBuffer, offset, length);
+    }
+
+    /**
+     * Wrap the remaining bytes of a buffer. Position and limit of the buffer are not changed.
+     *
+     * @param buffer Heap or direct buffer holding the datagram between position and limit
+     * @return true if the buffer holds a packet this view can read
+     */
+    public boolean wrap(final ByteBuffer buffer) {
+        return this.wrap(buffer, buffer.position(), buffer.remaining());
+    }
+
+    private boolean wrap(final ByteBuffer buffer, final int offset, final int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+        return this.isValid();
+    }
+
+    /**
+     * @return true if the wrapped data holds a packet this view can read
+     */
+    public boolean isValid() {
+        if ((this.buffer == null) || (this.length < _ArtNetPacket.SHORT_HEADER_LENGTH)) {
+            return false;
+        }
+        for (int i = 0; i < _ArtNetPacket.ART_NET_ID.length; i++) {
+            if (this.buffer.get(this.offset + i) != _ArtNetPacket.ART_NET_ID[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Length of the wrapped datagram
+     */
+    public int getLength() {
+        return this.length;
+    }
+
+    /**
+     * 2 Byte OpCode
+     */
+    public int getOpCode() {
+        return this.get2BytesLowToHigh(8);
+    }
+
+    protected byte getByte(final int index) {
+        return this.buffer.get(this.offset + index);
+    }
+
+    protected int getUnsignedByte(final int index) {
+        return BinaryToolkit.getUnsignedValue(this.buffer.get(this.offset + index));
+    }
+
+    protected int get2BytesLowToHigh(final int index) {
+        return ByteArrayToolkit.get2BytesLowToHigh(this.buffer, this.offset + index);
+    }
+
+    protected int get2BytesHighToLow(final int index) {
+        return ByteArrayToolkit.get2BytesHighToLow(this.buffer, this.offset + index);
+    }
+
+    protected int get4BytesHighToLow(final int index) {
+        return ByteArrayToolkit.get4BytesHighToLow(this.buffer, this.offset + index);
+    }
+
+    /**
+     * Copy a range of the wrapped datagram.
+     *
+     * @param index    First byte to copy, relative to the start of the datagram
+     * @param to       Target array
+     * @param toOffset Start within the target array
+     * @param count    Number of bytes to copy
+     */
+    protected void copyBytes(final int index, final byte[] to, final int toOffset, final int count) {
+        ByteArrayToolkit.getBytes(this.buffer, this.offset + index, to, toOffset, count);
+    }
+
+    /**
+     * Decode a null-terminated ASCII field. Allocates only if the field was not decoded recently.
+     *
+     * @param index     Start of the field
+     * @param maxLength Length of the field
+     * @return Decoded String without terminator
+     * @see AsciiStringCache
+     */
+    protected String getString(final int index, final int maxLength) {
+        return AsciiStringCache.getDefault().get(this.buffer, this.offset + index, maxLength);
+    }
+
+    /**
+     * Decode a null-terminated ASCII field, re-using the String decoded from an earlier datagram if the field is unchanged.
+     * Does not use the shared {@link AsciiStringCache}, so the caller keeps its Strings however many senders there are.
+     *
+     * @param index          Start of the field
+     * @param maxLength      Length of the field
+     * @param previous       Raw earlier datagram of the same type
+     * @param previousString String decoded from the field of previous; null to always decode
+     * @return Decoded String without terminator
+     */
+    protected String getString(final int index, final int maxLength, final byte[] previous, final String previousString) {
+        if ((previousString != null) && (previous.length >= (index + maxLength))) {
+            boolean same = true;
+            for (int i = index; same && (i < (index + maxLength)); i++) {
+                same = previous[i] == this.getByte(i);
+            }
+            if (same) {
+                return previousString;
+            }
+        }
+        return AsciiStringCache.decode(this.buffer, this.offset + index, maxLength);
+    }
+
+    /**
+     * Decode a null-terminated ASCII field without the shared {@link AsciiStringCache}, for fields that change with nearly every datagram.
+     *
+     * @param index     Start of the field
+     * @param maxLength Length of the field
+     * @return Decoded String without terminator
+     */
+    protected String getUncachedString(final int index, final int maxLength) {
+        return AsciiStringCache.decode(this.buffer, this.offset + index, maxLength);
+    }
+}
@@ -16,6 +16,8 @@
 
 package tc.vom.artNetLighter.infrastructure.packets;
 
+import java.nio.ByteBuffer;
+
 import static tc.vom.artNetLighter.infrastructure.ByteArrayToolkit.get2BytesHighToLow;
 import static tc.vom.artNetLighter.infrastructure.ByteArrayToolkit.set2BytesHighToLow;
 
@@ -70,6 +72,30 @@ public abstract class _VersionedArtNetPacket extends _ArtNetPacket {
         return result;
     }
 
+    /**
+     * Write ID, OpCode and {@link #PROTOCOL_VERSION} into an existing buffer.
+     *
+     * @param to     Target buffer; needs at least {@link #FULL_HEADER_LENGTH} Bytes after offset
+     * @param offset Start of the packet within the buffer
+     * @param opCode 2 Byte OpCode
+     */
+    public static void encodeHeader(final byte[] to, final int offset, final int opCode) {
+        _ArtNetPacket.encodeUnversionedHeader(to, offset, opCode);
+        set2BytesHighToLow(_VersionedArtNetPacket.PROTOCOL_VERSION, to, offset + 10);
+    }
+
+    /**
+     * Write ID, OpCode and {@link #PROTOCOL_VERSION} into an existing buffer. The position of the buffer is not changed.
+     *
+     * @param to     Target buffer; needs at least {@link #FULL_HEADER_LENGTH} Bytes after offset
+     * @param offset Start of the packet within the buffer
+     * @param opCode 2 Byte OpCode
+     */
+    public static void encodeHeader(final ByteBuffer to, final int offset, final int opCode) {
+        _ArtNetPacket.encodeUnversionedHeader(to, offset, opCode);
+        set2BytesHighToLow(_VersionedArtNetPacket.PROTOCOL_VERSION, to, offset + 10);
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) {
@@ -0,0 +1,87 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+
+package tc.vom.artNetLighter.infrastructure;
+
+import org.junit.Test;
+import tc.vom.artNetLighter.infrastructure.constants.ArtNetOpCodes;
+import tc.vom.artNetLighter.infrastructure.packets.ArtDmx;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link ArtDmxSequenceFilter}
+ */
+public class ArtDmxSequenceFilterTest {
+
+    private int passed = 0;
+    private final ArtDmxSequenceFilter filter = new ArtDmxSequenceFilter(new ArtNetPacketHandler() {
+        @Override
+        public boolean handlePacket(final int opCode, final ByteBuffer packet, final InetSocketAddress source) {
+            ArtDmxSequenceFilterTest.this.passed++;
+            return false;
+        }
+    });
+
+    @Test
+    public void testAccept() {
+        assertTrue("First packet", this.filter.accept(1, 3, (byte) 10, 0));
+        assertTrue("Next packet", this.filter.accept(1, 3, (byte) 11, 1));
+        assertFalse("Duplicate", this.filter.accept(1, 3, (byte) 11, 2));
+        assertTrue("Gap", this.filter.accept(1, 3, (byte) 14, 3));
+        assertFalse("Late packet", this.filter.accept(1, 3, (byte) 12, 4));
+        assertTrue("Other source", this.filter.accept(2, 3, (byte) 1, 5));
+        assertTrue("Sequencing disabled", this.filter.accept(1, 3, (byte) 0, 6));
+        assertEquals("Accepted", 5, this.filter.getAccepted(3));
+        assertEquals("Lost", 2, this.filter.getLost(3));
+        assertEquals("Duplicates", 1, this.filter.getDuplicates(3));
+        assertEquals("Reordered", 1, this.filter.getReordered(3));
+        assertEquals("Other universe", 0, this.filter.getAccepted(4));
+    }
+
+    @Test
+    public void testWrap() {
+        assertTrue("255", this.filter.accept(1, 0, (byte) 255, 0));
+        assertTrue("Wrapped to 1", this.filter.accept(1, 0, (byte) 1, 1));
+        assertEquals("Nothing lost", 0, this.filter.getLost(0));
+        assertFalse("255 is older", this.filter.accept(1, 0, (byte) 255, 2));
+    }
+
+    @Test
+    public void testResync() {
+        this.filter.accept(1, 0, (byte) 100, 0);
+        for (int i = 0; i < ArtDmxSequenceFilter.MAXIMUM_CONSECUTIVE_DISCARDS; i++) {
+            assertFalse("Restarted source discarded", this.filter.accept(1, 0, (byte) 1, i + 1));
+        }
+        assertTrue("Resynchronized", this.filter.accept(1, 0, (byte) 2, 100));
+        assertTrue("Timeout", this.filter.accept(1, 0, (byte) 1, 101 + ArtDmxSequenceFilter.RESYNC_TIMEOUT_NANOS));
+    }
+
+    @Test
+    public void testHandlePacket() throws Exception {
+        final InetSocketAddress source = new InetSocketAddress(InetAddress.getByName("127.0.0.1"), ArtNetSocketProvider.ART_NET_PORT);
+        final ByteBuffer packet = ByteBuffer.wrap(new ArtDmx((byte) 5, (byte) 0, 7, new byte[2]).constructPacket());
+        this.filter.handlePacket(ArtNetOpCodes.OP_CODE_DMX, packet, source);
+        this.filter.handlePacket(ArtNetOpCodes.OP_CODE_DMX, packet, source);
+        assertEquals("Duplicate not passed on", 1, this.passed);
+        assertEquals("Duplicate counted", 1, this.filter.getDuplicates(7));
+    }
+}
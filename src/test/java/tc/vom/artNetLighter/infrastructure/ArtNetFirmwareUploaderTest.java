@@ -0,0 +1,165 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+
+package tc.vom.artNetLighter.infrastructure;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import tc.vom.artNetLighter.infrastructure.packets.ArtFirmwareMaster;
+import tc.vom.artNetLighter.infrastructure.packets.ArtFirmwareReply;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link ArtNetFirmwareUploader}
+ */
+public class ArtNetFirmwareUploaderTest {
+
+    private static final int LOCALHOST = 0x7f000001;
+
+    private ArtNetReceiver receiver = null;
+    private ArtNetFirmwareUploader uploader = null;
+    private DatagramSocket node = null;
+
+    @Before
+    public void setUp() throws Exception {
+        this.receiver = new ArtNetReceiver(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        this.uploader = new ArtNetFirmwareUploader(this.receiver);
+        this.node = new DatagramSocket(0, InetAddress.getByName("127.0.0.1"));
+        this.node.setSoTimeout(2000);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.uploader.stop();
+        this.receiver.close();
+        this.node.close();
+    }
+
+    private static ByteBuffer createImage(final int words) {
+        final byte[] image = new byte[words * 2];
+        for (int i = 0; i < image.length; i++) {
+            image[i] = (byte) i;
+        }
+        return ByteBuffer.wrap(image);
+    }
+
+    private ArtFirmwareMaster receiveBlock() throws Exception {
+        final DatagramPacket packet = new DatagramPacket(new byte[ArtFirmwareMaster.MINIMUM_PACKET_LENGTH + (2 * ArtFirmwareMaster.MAX_DATA_LENGTH)], ArtFirmwareMaster.MINIMUM_PACKET_LENGTH + (2 * ArtFirmwareMaster.MAX_DATA_LENGTH));
+        this.node.receive(packet);
+        return new ArtFirmwareMaster(Arrays.copyOf(packet.getData(), packet.getLength()));
+    }
+
+    private void reply(final int type) throws Exception {
+        final byte[] data = new ArtFirmwareReply((byte) type).constructPacket();
+        this.node.send(new DatagramPacket(data, data.length, this.receiver.getLocalAddress()));
+    }
+
+    @Test
+    public void testUpload() throws Exception {
+        final AtomicInteger succeeded = new AtomicInteger();
+        this.uploader.setUploadListener(new ArtNetFirmwareUploader.UploadListener() {
+            @Override
+            public void uploadFinished(final int ipAddress, final boolean success) {
+                if (success && (ipAddress == ArtNetFirmwareUploaderTest.LOCALHOST)) {
+                    succeeded.incrementAndGet();
+                }
+            }
+        });
+        this.receiver.start();
+        final ByteBuffer image = ArtNetFirmwareUploaderTest.createImage(1030);
+        this.uploader.upload(image, false, (InetSocketAddress) this.node.getLocalSocketAddress());
+
+        final ArtFirmwareMaster first = this.receiveBlock();
+        assertEquals("First type", ArtFirmwareMaster.TypeConstants.FirmFirst, first.getType());
+        assertEquals("First block", 0, first.getBlockId());
+        assertEquals("Firmware length in words", 1030, first.getFirmwareLength());
+        assertEquals("First word", 0x0001, first.getData()[0]);
+        assertEquals("Image not consumed", 0, image.position());
+        this.reply(ArtFirmwareReply.TypeConstants.FirmBlockGood);
+
+        final ArtFirmwareMaster cont = this.receiveBlock();
+        assertEquals("Continuation type", ArtFirmwareMaster.TypeConstants.FirmCont, cont.getType());
+        assertEquals("Continuation block", 1, cont.getBlockId());
+        this.reply(ArtFirmwareReply.TypeConstants.FirmBlockGood);
+
+        final ArtFirmwareMaster last = this.receiveBlock();
+        assertEquals("Last type", ArtFirmwareMaster.TypeConstants.FirmLast, last.getType());
+        assertEquals("Last block length", 6, last.getData().length);
+        assertEquals("Last word", (short) 0x0a0b, last.getData()[5]);
+        this.reply(ArtFirmwareReply.TypeConstants.FirmAllGood);
+
+        assertTrue("Upload finished", this.uploader.awaitCompletion(2000));
+        assertEquals("Succeeded", 1, this.uploader.getUploadsSucceeded());
+        assertEquals("Listener", 1, succeeded.get());
+        assertEquals("Blocks", 3, this.uploader.getBlocksSent());
+    }
+
+    @Test
+    public void testRetries() throws Exception {
+        this.uploader.setMaximumRetries(1);
+        this.uploader.upload(ArtNetFirmwareUploaderTest.createImage(1024), true, (InetSocketAddress) this.node.getLocalSocketAddress());
+        assertEquals("UBEA", ArtFirmwareMaster.TypeConstants.UbeaFirst, this.receiveBlock().getType());
+        final long later = System.nanoTime() + (2 * this.uploader.getBlockTimeoutNanos());
+
+        this.uploader.check(System.nanoTime());
+        assertEquals("Not yet timed out", 1, this.uploader.getBlocksSent());
+        this.uploader.check(later);
+        assertEquals("Repeated block", 0, this.receiveBlock().getBlockId());
+        assertTrue("Block acknowledged", this.uploader.handleReply(ArtNetFirmwareUploaderTest.LOCALHOST, ArtFirmwareReply.TypeConstants.FirmBlockGood, later));
+        assertEquals("Last block", ArtFirmwareMaster.TypeConstants.UbeaLast, this.receiveBlock().getType());
+
+        this.uploader.handleReply(ArtNetFirmwareUploaderTest.LOCALHOST, ArtFirmwareReply.TypeConstants.FirmFail, later);
+        assertEquals("Restarted", ArtFirmwareMaster.TypeConstants.UbeaFirst, this.receiveBlock().getType());
+        this.uploader.check(later + (2 * this.uploader.getBlockTimeoutNanos()));
+        assertEquals("Retries", 2, this.uploader.getBlocksRetried());
+        assertEquals("Failed", 1, this.uploader.getUploadsFailed());
+        assertTrue("Nothing left", this.uploader.awaitCompletion(0));
+        assertFalse("Reply after failure", this.uploader.handleReply(ArtNetFirmwareUploaderTest.LOCALHOST, ArtFirmwareReply.TypeConstants.FirmBlockGood, later));
+    }
+
+    @Test
+    public void testConcurrency() throws Exception {
+        this.uploader.setMaximumRetries(0);
+        this.uploader.setMaximumConcurrentUploads(1);
+        final int port = this.node.getLocalPort();
+        this.uploader.upload(ArtNetFirmwareUploaderTest.createImage(1024), false, new InetSocketAddress(InetAddress.getByName("127.0.0.1"), port), new InetSocketAddress(InetAddress.getByName("127.0.0.2"), port));
+        assertEquals("Queued", 2, this.uploader.getUploadsRemaining());
+        assertEquals("Running", 1, this.uploader.getUploadsRunning());
+        assertEquals("One block", 1, this.uploader.getBlocksSent());
+        assertFalse("Queued upload ignores replies", this.uploader.handleReply(0x7f000002, ArtFirmwareReply.TypeConstants.FirmBlockGood, System.nanoTime()));
+
+        this.uploader.handleReply(ArtNetFirmwareUploaderTest.LOCALHOST, ArtFirmwareReply.TypeConstants.FirmFail, System.nanoTime());
+        assertEquals("Failed", 1, this.uploader.getUploadsFailed());
+        assertEquals("Next upload started", 2, this.uploader.getBlocksSent());
+        assertEquals("Remaining", 1, this.uploader.getUploadsRemaining());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOddImage() throws Exception {
+        this.uploader.upload(ByteBuffer.allocate(3), false, InetAddress.getByName("127.0.0.1"));
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.infrastructure;
+
+import org.junit.Test;
+import tc.vom.artNetLighter.infrastructure.packets.ArtAddress;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link ArtNetMerger}
+ */
+public class ArtNetMergerTest {
+
+    private static final int SOURCE_A = 0x02000001;
+    private static final int SOURCE_B = 0x02000002;
+    private static final int SOURCE_C = 0x02000003;
+
+    private static ArtNetMerger createMerger() {
+        final ArtNetMerger merger = new ArtNetMerger();
+        merger.setPortAddress(0, 0x10);
+        return merger;
+    }
+
+    @Test
+    public void testHtp() {
+        final ArtNetMerger merger = ArtNetMergerTest.createMerger();
+        assertTrue("A changed", merger.merge(ArtNetMergerTest.SOURCE_A, 0x10, new byte[]{10, (byte) 200, 0, 5}, 0, 4, 0));
+        assertTrue("B changed", merger.merge(ArtNetMergerTest.SOURCE_B, 0x10, new byte[]{20, 100, 0, 5}, 0, 4, 1));
+        assertFalse("Unchanged data", merger.merge(ArtNetMergerTest.SOURCE_B, 0x10, new byte[]{20, 100, 0, 5}, 0, 4, 2));
+        assertFalse("Other universe", merger.merge(ArtNetMergerTest.SOURCE_B, 0x11, new byte[]{1}, 0, 1, 2));
+        assertTrue("Merging", merger.isMerging(0));
+        final byte[] output = merger.getOutput(0);
+        assertEquals("Channel 0", 20, output[0]);
+        assertEquals("Channel 1", (byte) 200, output[1]);
+
+        merger.merge(ArtNetMergerTest.SOURCE_A, 0x10, new byte[]{10, 50, 0, 5}, 0, 4, 3);
+        assertEquals("Channel 1 after A dropped", 100, merger.getOutput(0)[1]);
+    }
+
+    @Test
+    public void testLtp() {
+        final ArtNetMerger merger = ArtNetMergerTest.createMerger();
+        assertTrue("Command applied", merger.applyCommand(ArtAddress.CommandConstants.AcMergeLtp0));
+        assertEquals("Mode", ArtNetMerger.MERGE_LTP, merger.getMergeMode(0));
+        merger.merge(ArtNetMergerTest.SOURCE_A, 0x10, new byte[]{10, (byte) 200}, 0, 2, 0);
+        merger.merge(ArtNetMergerTest.SOURCE_B, 0x10, new byte[]{20, 0}, 0, 2, 1);
+        byte[] output = merger.getOutput(0);
+        assertEquals("Channel 0 from B", 20, output[0]);
+        assertEquals("Channel 1 kept from A", (byte) 200, output[1]);
+
+        merger.merge(ArtNetMergerTest.SOURCE_A, 0x10, new byte[]{10, 30}, 0, 2, 2);
+        output = merger.getOutput(0);
+        assertEquals("Channel 0 still from B", 20, output[0]);
+        assertEquals("Channel 1 latest from A", 30, output[1]);
+
+        assertTrue("Command applied", merger.applyCommand(ArtAddress.CommandConstants.AcMergeHtp0));
+        assertEquals("Mode", ArtNetMerger.MERGE_HTP, merger.getMergeMode(0));
+    }
+
+    @Test
+    public void testLtpPerChannel() {
+        final ArtNetMerger merger = ArtNetMergerTest.createMerger();
+        merger.setMergeMode(0, ArtNetMerger.MERGE_LTP);
+        final byte[] a = new byte[11];
+        final byte[] b = new byte[11];
+        merger.merge(ArtNetMergerTest.SOURCE_A, 0x10, a, 0, a.length, 0);
+        merger.merge(ArtNetMergerTest.SOURCE_B, 0x10, b, 0, b.length, 1);
+
+        a[0] = 1;
+        a[10] = 1;
+        merger.merge(ArtNetMergerTest.SOURCE_A, 0x10, a, 0, a.length, 2);
+        b[5] = 55;
+        merger.merge(ArtNetMergerTest.SOURCE_B, 0x10, b, 0, b.length, 3);
+        a[0] = 2;
+        a[10] = 2;
+        assertTrue("A changed", merger.merge(ArtNetMergerTest.SOURCE_A, 0x10, a, 0, a.length, 4));
+
+        final byte[] output = merger.getOutput(0);
+        assertEquals("Channel 0 latest from A", 2, output[0]);
+        assertEquals("Channel 5 kept from B", 55, output[5]);
+        assertEquals("Channel 10 latest from A", 2, output[10]);
+    }
+
+    @Test
+    public void testSources() {
+        final ArtNetMerger merger = ArtNetMergerTest.createMerger();
+        merger.setSourceTimeoutNanos(100);
+        merger.merge(ArtNetMergerTest.SOURCE_A, 0x10, new byte[]{(byte) 200}, 0, 1, 0);
+        merger.merge(ArtNetMergerTest.SOURCE_B, 0x10, new byte[]{20}, 0, 1, 50);
+        assertFalse("Third source", merger.merge(ArtNetMergerTest.SOURCE_C, 0x10, new byte[]{(byte) 250}, 0, 1, 60));
+        assertEquals("Ignored", 1, merger.getSourcesIgnored());
+        assertEquals("Sources", 2, merger.getSourceCount(0));
+
+        merger.expireSources(120);
+        assertEquals("Sources after timeout", 1, merger.getSourceCount(0));
+        assertEquals("Output of remaining source", 20, merger.getOutput(0)[0]);
+
+        merger.merge(ArtNetMergerTest.SOURCE_C, 0x10, new byte[]{5}, 0, 1, 130);
+        assertTrue("Merging", merger.isMerging(0));
+        assertTrue("Command applied", merger.applyCommand(ArtAddress.CommandConstants.AcCancelMerge));
+        merger.merge(ArtNetMergerTest.SOURCE_C, 0x10, new byte[]{5}, 0, 1, 140);
+        assertFalse("Merge cancelled", merger.isMerging(0));
+        assertEquals("Output of the cancelling source", 5, merger.getOutput(0)[0]);
+
+        assertTrue("Command applied", merger.applyCommand(ArtAddress.CommandConstants.AcClearOp0));
+        assertEquals("Cleared sources", 0, merger.getSourceCount(0));
+        assertEquals("Cleared output", 0, merger.getOutput(0)[0]);
+        assertFalse("Unrelated command", merger.applyCommand(ArtAddress.CommandConstants.AcLedLocate));
+    }
+}
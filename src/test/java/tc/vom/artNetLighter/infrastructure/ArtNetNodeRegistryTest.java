@@ -0,0 +1,118 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.infrastructure;
+
+import org.junit.Test;
+import tc.vom.artNetLighter.infrastructure.packets.ArtPollReply;
+import tc.vom.artNetLighter.infrastructure.packets.ArtPollReplyView;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link ArtNetNodeRegistry}
+ */
+public class ArtNetNodeRegistryTest {
+
+    private static final int IP_A = (2 << 24) | 1;
+    private static final int IP_B = (2 << 24) | 2;
+
+    static ArtPollReply createPollReply(final int ipAddress, final int bindIndex, final byte subNet, final byte[] universesOut, final String shortName) {
+        return new ArtPollReply(ipAddress, ArtNetSocketProvider.ART_NET_PORT, 0x0101, (byte) 0, subNet, 0x0190, (byte) 0, (byte) 0, 0, shortName, shortName, "", universesOut.length, new byte[]{(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80}, new byte[4], new byte[4], new byte[4], universesOut, (byte) 0, (byte) 0, (byte) 0, (byte) 0, new byte[6], ipAddress, (byte) bindIndex, (byte) 0);
+    }
+
+    @Test
+    public void testIndexes() throws Exception {
+        final ArtNetNodeRegistry registry = new ArtNetNodeRegistry();
+        final ArtNetNode node = registry.update(ArtNetNodeRegistryTest.createPollReply(ArtNetNodeRegistryTest.IP_A, 1, (byte) 1, new byte[]{0, 1}, "A1"), 0);
+        registry.update(ArtNetNodeRegistryTest.createPollReply(ArtNetNodeRegistryTest.IP_A, 2, (byte) 1, new byte[]{1, 2}, "A2"), 0);
+        registry.update(ArtNetNodeRegistryTest.createPollReply(ArtNetNodeRegistryTest.IP_B, 0, (byte) 1, new byte[]{2}, "B"), 0);
+        assertEquals("Size", 3, registry.size());
+        assertSame("By IP and bind index", node, registry.getNode(ArtNetNodeRegistryTest.IP_A, 1));
+        assertEquals("By IP", 2, registry.getNodes(InetAddress.getByName("2.0.0.1")).size());
+
+        final InetSocketAddress a = new InetSocketAddress(InetAddress.getByName("2.0.0.1"), ArtNetSocketProvider.ART_NET_PORT);
+        final InetSocketAddress b = new InetSocketAddress(InetAddress.getByName("2.0.0.2"), ArtNetSocketProvider.ART_NET_PORT);
+        assertArrayEquals("Universe 0x10", new InetSocketAddress[]{a}, registry.getSubscribers(0x10));
+        assertArrayEquals("Universe 0x11 once per IP", new InetSocketAddress[]{a}, registry.getSubscribers(0x11));
+        assertEquals("Universe 0x12", 2, registry.getSubscribers(0x12).length);
+        assertEquals("Universe 0x13", 0, registry.getSubscribers(0x13).length);
+
+        assertSame("Unchanged reply", node, registry.update(ArtNetNodeRegistryTest.createPollReply(ArtNetNodeRegistryTest.IP_A, 1, (byte) 1, new byte[]{0, 1}, "A1"), 5));
+        assertEquals("Refreshed", 5, node.getLastSeen());
+        registry.update(ArtNetNodeRegistryTest.createPollReply(ArtNetNodeRegistryTest.IP_B, 0, (byte) 1, new byte[]{3}, "B"), 5);
+        assertArrayEquals("Universe 0x12 after repatch", new InetSocketAddress[]{a}, registry.getSubscribers(0x12));
+        assertArrayEquals("Universe 0x13 after repatch", new InetSocketAddress[]{b}, registry.getSubscribers(0x13));
+    }
+
+    @Test
+    public void testExpire() {
+        final ArtNetNodeRegistry registry = new ArtNetNodeRegistry();
+        final List<ArtNetNode> removed = new ArrayList<ArtNetNode>();
+        registry.setNodeListener(new ArtNetNodeRegistry.NodeListener() {
+            @Override
+            public void nodeAdded(final ArtNetNode node) {
+            }
+
+            @Override
+            public void nodeChanged(final ArtNetNode oldNode, final ArtNetNode newNode) {
+            }
+
+            @Override
+            public void nodeRemoved(final ArtNetNode node) {
+                removed.add(node);
+            }
+        });
+        registry.setNodeTimeoutNanos(100);
+        registry.update(ArtNetNodeRegistryTest.createPollReply(ArtNetNodeRegistryTest.IP_A, 0, (byte) 0, new byte[]{0}, "A"), 0);
+        registry.update(ArtNetNodeRegistryTest.createPollReply(ArtNetNodeRegistryTest.IP_B, 0, (byte) 0, new byte[]{0}, "B"), 50);
+        assertEquals("Subscribers", 2, registry.getSubscribers(0).length);
+        assertEquals("Expired", 1, registry.expire(120));
+        assertEquals("Removed", ArtNetNodeRegistryTest.IP_A, removed.get(0).getIpAddress());
+        assertEquals("Subscribers after expiry", 1, registry.getSubscribers(0).length);
+    }
+
+    private static ArtPollReplyView createView(final String nodeReport, final String shortName) {
+        final ArtPollReply pollReply = new ArtPollReply(ArtNetNodeRegistryTest.IP_A, ArtNetSocketProvider.ART_NET_PORT, 0x0101, (byte) 0, (byte) 1, 0x0190, (byte) 0, (byte) 0, 0, shortName, shortName, nodeReport, 1, new byte[]{(byte) 0x80, 0, 0, 0}, new byte[4], new byte[4], new byte[4], new byte[]{2, 0, 0, 0}, (byte) 0, (byte) 0, (byte) 0, (byte) 0, new byte[6], ArtNetNodeRegistryTest.IP_A, (byte) 1, (byte) 0);
+        final ArtPollReplyView view = new ArtPollReplyView();
+        assertTrue("Valid", view.wrap(ByteBuffer.wrap(pollReply.constructPacket())));
+        return view;
+    }
+
+    @Test
+    public void testUpdateFromView() {
+        final ArtNetNodeRegistry registry = new ArtNetNodeRegistry();
+        final ArtNetNode node = registry.update(ArtNetNodeRegistryTest.createView("#0001 [0001] Power On", "A"), 0);
+        assertArrayEquals("Output Port Address", new int[]{0x12}, node.getOutputPortAddresses());
+        assertSame("Only the counter changed", node, registry.update(ArtNetNodeRegistryTest.createView("#0001 [0002] Power On", "A"), 5));
+        assertEquals("Unchanged replies", 1, registry.getRepliesUnchanged());
+        assertEquals("Refreshed", 5, node.getLastSeen());
+        final ArtNetNode changed = registry.update(ArtNetNodeRegistryTest.createView("#0002 [0003] DMX error", "A"), 6);
+        assertNotSame("Report changed", node, changed);
+        assertSame("Short name re-used", node.getShortName(), changed.getShortName());
+        assertSame("Long name re-used", node.getLongName(), changed.getLongName());
+        final ArtNetNode renamed = registry.update(ArtNetNodeRegistryTest.createView("#0002 [0004] DMX error", "B"), 7);
+        assertEquals("Renamed", "B", renamed.getShortName());
+        assertEquals("Decoded on access", "B", renamed.getPollReply().getShortName());
+        assertEquals("Replaced", 1, registry.size());
+    }
+}
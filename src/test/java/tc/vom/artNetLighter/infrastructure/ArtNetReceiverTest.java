@@ -0,0 +1,112 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.infrastructure;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import tc.vom.artNetLighter.infrastructure.constants.ArtNetOpCodes;
+import tc.vom.artNetLighter.infrastructure.packets.ArtDmx;
+import tc.vom.artNetLighter.infrastructure.packets.ArtDmxView;
+import tc.vom.artNetLighter.infrastructure.packets.ArtPoll;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for {@link ArtNetReceiver}
+ */
+public class ArtNetReceiverTest {
+
+    private ArtNetReceiver artNetReceiver = null;
+    private DatagramSocket socket = null;
+
+    @Before
+    public void setUp() throws Exception {
+        this.artNetReceiver = new ArtNetReceiver(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        this.socket = new DatagramSocket(0, InetAddress.getByName("127.0.0.1"));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.artNetReceiver.close();
+        this.artNetReceiver = null;
+        this.socket.close();
+        this.socket = null;
+    }
+
+    private void send(final byte[] data) throws Exception {
+        this.socket.send(new DatagramPacket(data, data.length, this.artNetReceiver.getLocalAddress()));
+    }
+
+    @Test
+    public void testDispatch() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicInteger portAddress = new AtomicInteger(-1);
+        this.artNetReceiver.addHandler(ArtNetOpCodes.OP_CODE_DMX, new ArtNetPacketHandler() {
+            private final ArtDmxView view = new ArtDmxView();
+
+            @Override
+            public boolean handlePacket(final int opCode, final ByteBuffer packet, final InetSocketAddress source) {
+                if (this.view.wrap(packet)) {
+                    portAddress.set(this.view.getPortAddress());
+                }
+                latch.countDown();
+                return false;
+            }
+        });
+        this.artNetReceiver.start();
+        this.send(ArtDmx.constructPacket((byte) 0, (byte) 0, 0x42, new byte[2]));
+        assertTrue("Packet was not dispatched", latch.await(2, TimeUnit.SECONDS));
+        assertEquals("Port Address", 0x42, portAddress.get());
+        this.artNetReceiver.stop();
+    }
+
+    @Test
+    public void testCounters() throws Exception {
+        final AtomicInteger handled = new AtomicInteger();
+        this.artNetReceiver.addHandler(ArtNetOpCodes.OP_CODE_DMX, new ArtNetPacketHandler() {
+            @Override
+            public boolean handlePacket(final int opCode, final ByteBuffer packet, final InetSocketAddress source) {
+                handled.incrementAndGet();
+                return false;
+            }
+        });
+        this.send(ArtDmx.constructPacket((byte) 0, (byte) 0, 1, new byte[2]));
+        this.send(ArtPoll.constructPacket((byte) 0, (byte) 0));
+        this.send(new byte[]{1, 2, 3});
+
+        final long end = System.currentTimeMillis() + 2000;
+        while ((this.artNetReceiver.getPacketsReceived() < 3) && (System.currentTimeMillis() < end)) {
+            this.artNetReceiver.receivePackets();
+            Thread.sleep(1);
+        }
+        assertEquals("Received", 3, this.artNetReceiver.getPacketsReceived());
+        assertEquals("Handled", 1, handled.get());
+        assertEquals("Unhandled", 1, this.artNetReceiver.getPacketsUnhandled());
+        assertEquals("Invalid", 1, this.artNetReceiver.getPacketsInvalid());
+    }
+}
@@ -19,8 +19,14 @@ package tc.vom.artNetLighter.infrastructure;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import tc.vom.artNetLighter.infrastructure.packets.ArtDmx;
+import tc.vom.artNetLighter.infrastructure.packets.ArtPollReply;
+import tc.vom.artNetLighter.infrastructure.packets.ArtSync;
 
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 
 import static org.junit.Assert.*;
 
@@ -121,4 +127,111 @@ public class ArtNetSenderTest {
         assertNotNull("toString() returns null", result);
         assertFalse("toString() return \"\"", "".equals(result));
     }
+
+    @Test
+    public void testSetChannel() {
+        this.artNetSender.setChannel(3, 0, 255);
+        this.artNetSender.setChannel(3, 511, 1);
+        final byte[] data = this.artNetSender.getData(3);
+        assertEquals("Universe length", ArtDmx.MAXIMUM_DATA_LENGTH, data.length);
+        assertEquals("Channel 0", (byte) 255, data[0]);
+        assertEquals("Channel 511", 1, data[511]);
+        assertArrayEquals("Port Addresses", new int[]{3}, this.artNetSender.getPortAddresses());
+        assertNull("Unknown universe", this.artNetSender.getData(4));
+    }
+
+    @Test
+    public void testSendFrame() throws Exception {
+        final DatagramSocket receiver = new DatagramSocket(0, InetAddress.getByName("127.0.0.1"));
+        try {
+            receiver.setSoTimeout(1000);
+            this.artNetSender.setDestination(new InetSocketAddress(receiver.getLocalAddress(), receiver.getLocalPort()));
+            this.artNetSender.setData(0x123, new byte[]{1, 2, 3, 4});
+            assertEquals("Changed universe is sent", 1, this.artNetSender.sendFrame());
+            assertEquals("Unchanged universe is not sent before keep-alive", 0, this.artNetSender.sendFrame());
+            this.artNetSender.setChannel(0x123, 3, 4);
+            assertEquals("Writing the same value does not change the universe", 0, this.artNetSender.sendFrame());
+            assertEquals("Suppressed", 2, this.artNetSender.getUniversesSuppressed());
+
+            final DatagramPacket packet = new DatagramPacket(new byte[1024], 1024);
+            receiver.receive(packet);
+            final byte[] received = new byte[packet.getLength()];
+            System.arraycopy(packet.getData(), 0, received, 0, received.length);
+            final ArtDmx artDmx = new ArtDmx(received);
+            assertEquals("Port Address", 0x123, artDmx.getPortAddress());
+            assertEquals("First sequence number", 1, artDmx.getSequence());
+            assertEquals("Length", ArtDmx.MAXIMUM_DATA_LENGTH, artDmx.getLength());
+            assertEquals("Channel 3", 4, artDmx.getData(3));
+
+            this.artNetSender.setKeepAliveNanos(1);
+            assertEquals("Unchanged universe is sent after keep-alive", 1, this.artNetSender.sendFrame());
+
+            this.artNetSender.setData(0x124, new byte[]{5});
+            assertEquals("Queued", 2, this.artNetSender.queueFrame());
+            assertEquals("Send calls", 2, this.artNetSender.flush());
+            assertEquals("Send calls of last frame", 2, this.artNetSender.getLastFrameSendCalls());
+            assertEquals("4 send calls in 5 frames", 0.8, this.artNetSender.getSendCallsPerFrame(), 0.001);
+
+            this.artNetSender.setKeepAliveNanos(ArtNetSender.DEFAULT_KEEP_ALIVE_NANOS);
+            this.artNetSender.setSynchronous(true);
+            this.artNetSender.setChannel(0x124, 0, 6);
+            assertEquals("ArtDmx followed by ArtSync", 2, this.artNetSender.sendFrame());
+            assertEquals("Nothing changed, no ArtSync", 0, this.artNetSender.sendFrame());
+            for (int i = 0; i < 4; i++) {
+                receiver.receive(packet);
+            }
+            receiver.receive(packet);
+            assertEquals("ArtSync last", ArtSync.PACKET_LENGTH, packet.getLength());
+        } finally {
+            receiver.close();
+        }
+    }
+
+    @Test
+    public void testUnicast() throws Exception {
+        final DatagramSocket nodeA = new DatagramSocket(0, InetAddress.getByName("127.0.0.1"));
+        final DatagramSocket nodeB = new DatagramSocket(0, InetAddress.getByName("127.0.0.1"));
+        try {
+            nodeA.setSoTimeout(1000);
+            nodeB.setSoTimeout(1000);
+            final ArtNetNodeRegistry registry = new ArtNetNodeRegistry();
+            registry.update(ArtNetSenderTest.createPollReply(nodeA.getLocalPort(), 1, new byte[]{2}), 0);
+            registry.update(ArtNetSenderTest.createPollReply(nodeB.getLocalPort(), 2, new byte[]{2, 3}), 0);
+            this.artNetSender.setNodeRegistry(registry);
+            assertTrue("Unicast", this.artNetSender.isUnicast());
+
+            this.artNetSender.setData(0x12, new byte[]{1});
+            assertEquals("Sent to both subscribers", 2, this.artNetSender.sendFrame());
+            final DatagramPacket packet = new DatagramPacket(new byte[1024], 1024);
+            nodeA.receive(packet);
+            assertEquals("Node A received ArtDmx", ArtDmx.MAXIMUM_PACKET_SIZE, packet.getLength());
+            nodeB.receive(packet);
+            assertEquals("Node B received ArtDmx", ArtDmx.MAXIMUM_PACKET_SIZE, packet.getLength());
+            assertEquals("No fallback", 0, this.artNetSender.getBroadcastFallbacks());
+
+            this.artNetSender.removeUniverse(0x12);
+            this.artNetSender.setData(0x15, new byte[]{1});
+            this.artNetSender.sendFrame();
+            assertEquals("Fallback to broadcast", 1, this.artNetSender.getBroadcastFallbacks());
+        } finally {
+            nodeA.close();
+            nodeB.close();
+        }
+    }
+
+    private static ArtPollReply createPollReply(final int port, final int bindIndex, final byte[] universesOut) {
+        return new ArtPollReply(0x7f000001, port, 0x0101, (byte) 0, (byte) 1, 0x0190, (byte) 0, (byte) 0, 0, "Node", "Node", "", universesOut.length, new byte[]{(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80}, new byte[4], new byte[4], new byte[4], universesOut, (byte) 0, (byte) 0, (byte) 0, (byte) 0, new byte[6], 0x7f000001, (byte) bindIndex, (byte) 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetChannelOutOfRange() {
+        this.artNetSender.setChannel(0, ArtDmx.MAXIMUM_DATA_LENGTH, 0);
+    }
+
+    @Test
+    public void testCheckInetAddress() throws Exception {
+        assertFalse("Interface of the host address is up", this.artNetSender.checkInetAddress());
+        this.artNetSender.setInetAddress(InetAddress.getByName("127.0.0.1"));
+        assertFalse("Fixed address is kept", this.artNetSender.checkInetAddress());
+    }
 }
@@ -19,10 +19,16 @@ package tc.vom.artNetLighter.infrastructure;
 
 import org.junit.Test;
 
+import java.net.DatagramSocket;
 import java.net.InetAddress;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Test-class for {@link ArtNetSocketProvider}.
@@ -44,4 +50,35 @@ public class ArtNetSocketProviderTest {
         final InetAddress inetAddress = InetAddress.getLocalHost();
         assertEquals("InetAddress of provided Socket does not match requested InetAddress", inetAddress, ArtNetSocketProvider.getArtNetSocket(inetAddress).getLocalAddress());
     }
+
+    @Test
+    public void testSameChannel() throws Exception {
+        final InetAddress inetAddress = InetAddress.getByName("127.0.0.1");
+        assertSame("Channel is re-used", ArtNetSocketProvider.getArtNetChannel(inetAddress), ArtNetSocketProvider.getArtNetChannel(inetAddress));
+        assertTrue("Broadcast enabled", ArtNetSocketProvider.getArtNetSocket(inetAddress).getBroadcast());
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        final InetAddress inetAddress = InetAddress.getByName("127.0.0.1");
+        final DatagramSocket socket = ArtNetSocketProvider.getArtNetSocket(inetAddress);
+        assertTrue("Closed", ArtNetSocketProvider.close(inetAddress));
+        assertTrue("Socket closed", socket.isClosed());
+        assertFalse("Already closed", ArtNetSocketProvider.close(inetAddress));
+        assertNotSame("Bound again", socket, ArtNetSocketProvider.getArtNetSocket(inetAddress));
+    }
+
+    @Test
+    public void testHostAddressCache() throws Exception {
+        final List<InetAddress> candidates = ArtNetSocketProvider.findCandidateAddresses();
+        for (final InetAddress candidate : candidates) {
+            assertFalse("No loopback", candidate.isLoopbackAddress());
+        }
+        assertTrue("Art-Net addresses are candidates", candidates.containsAll(ArtNetSocketProvider.findArtNetAddresses()));
+        ArtNetSocketProvider.refreshHostAddress();
+        final InetAddress hostAddress = ArtNetSocketProvider.getHostAddress();
+        assertEquals("Preferred candidate", candidates.isEmpty() ? null : candidates.get(0), hostAddress);
+        assertSame("Cached", hostAddress, ArtNetSocketProvider.getHostAddress());
+        assertFalse("No address", ArtNetSocketProvider.isUsable(null));
+    }
 }
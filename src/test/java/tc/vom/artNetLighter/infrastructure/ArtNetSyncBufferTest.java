@@ -0,0 +1,99 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.infrastructure;
+
+import org.junit.Test;
+import tc.vom.artNetLighter.infrastructure.packets.ArtSync;
+import tc.vom.artNetLighter.infrastructure.packets._ArtNetPacket;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link ArtNetSyncBuffer}
+ */
+public class ArtNetSyncBufferTest {
+
+    private static final int CONTROLLER_A = (2 << 24) | 1;
+    private static final int CONTROLLER_B = (2 << 24) | 2;
+
+    private final List<Integer> output = new ArrayList<Integer>();
+    private final ArtNetSyncBuffer syncBuffer = new ArtNetSyncBuffer(new ArtNetSyncBuffer.UniverseListener() {
+        @Override
+        public void outputUniverse(final int portAddress, final byte[] data, final int offset, final int length) {
+            ArtNetSyncBufferTest.this.output.add((portAddress << 8) | data[offset]);
+        }
+    });
+
+    @Test
+    public void testSynchronousOutput() {
+        this.syncBuffer.dmxReceived(ArtNetSyncBufferTest.CONTROLLER_A, 1, new byte[]{9, 1}, 1, 1, 0);
+        assertEquals("Asynchronous until the first ArtSync", 1, this.output.size());
+        assertEquals("Offset respected", (1 << 8) | 1, this.output.get(0).intValue());
+
+        this.syncBuffer.syncReceived(ArtNetSyncBufferTest.CONTROLLER_A, 10);
+        assertTrue("Synchronous", this.syncBuffer.isSynchronous());
+        this.output.clear();
+        this.syncBuffer.dmxReceived(ArtNetSyncBufferTest.CONTROLLER_A, 1, new byte[]{2}, 0, 1, 20);
+        this.syncBuffer.dmxReceived(ArtNetSyncBufferTest.CONTROLLER_A, 2, new byte[]{3}, 0, 1, 20);
+        this.syncBuffer.dmxReceived(ArtNetSyncBufferTest.CONTROLLER_A, 1, new byte[]{4}, 0, 1, 20);
+        assertTrue("Held until ArtSync", this.output.isEmpty());
+        assertEquals("Pending", 2, this.syncBuffer.getPendingCount());
+
+        this.syncBuffer.syncReceived(ArtNetSyncBufferTest.CONTROLLER_A, 30);
+        assertEquals("Output on ArtSync", 2, this.output.size());
+        assertEquals("Latest data of universe 1", (1 << 8) | 4, this.output.get(0).intValue());
+        assertEquals("Universe 2", (2 << 8) | 3, this.output.get(1).intValue());
+    }
+
+    @Test
+    public void testFallback() {
+        this.syncBuffer.syncReceived(ArtNetSyncBufferTest.CONTROLLER_A, 0);
+        this.syncBuffer.dmxReceived(ArtNetSyncBufferTest.CONTROLLER_A, 1, new byte[]{2}, 0, 1, 10);
+        assertTrue("Held", this.output.isEmpty());
+        this.syncBuffer.dmxReceived(ArtNetSyncBufferTest.CONTROLLER_A, 2, new byte[]{3}, 0, 1, ArtNetSyncBuffer.SYNC_TIMEOUT_NANOS + 1);
+        assertFalse("Asynchronous after timeout", this.syncBuffer.isSynchronous());
+        assertEquals("Held and new universe output", 2, this.output.size());
+    }
+
+    @Test
+    public void testTwoControllers() {
+        this.syncBuffer.dmxReceived(ArtNetSyncBufferTest.CONTROLLER_A, 1, new byte[]{1}, 0, 1, 0);
+        assertFalse("ArtSync of another controller", this.syncBuffer.syncReceived(ArtNetSyncBufferTest.CONTROLLER_B, 10));
+        assertFalse("Still asynchronous", this.syncBuffer.isSynchronous());
+        assertTrue("ArtSync of the sending controller", this.syncBuffer.syncReceived(ArtNetSyncBufferTest.CONTROLLER_A, 20));
+
+        this.output.clear();
+        this.syncBuffer.dmxReceived(ArtNetSyncBufferTest.CONTROLLER_A, 1, new byte[]{2}, 0, 1, 30);
+        assertFalse("Ignored", this.syncBuffer.syncReceived(ArtNetSyncBufferTest.CONTROLLER_B, 40));
+        assertTrue("Universe still held", this.output.isEmpty());
+        assertEquals("Pending", 1, this.syncBuffer.getPendingCount());
+        assertTrue("Released", this.syncBuffer.syncReceived(ArtNetSyncBufferTest.CONTROLLER_A, 50));
+        assertEquals("Output on ArtSync of the sending controller", (1 << 8) | 2, this.output.get(0).intValue());
+        assertEquals("Ignored ArtSyncs", 2, this.syncBuffer.getSyncsIgnored());
+        assertEquals("Honoured ArtSyncs", 2, this.syncBuffer.getSyncsReceived());
+    }
+
+    @Test
+    public void testArtSyncPacket() {
+        final byte[] packet = new ArtSync().constructPacket();
+        assertEquals("Length", ArtSync.PACKET_LENGTH, packet.length);
+        assertEquals("Parsed", new ArtSync(), _ArtNetPacket.parsePacket(packet));
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+
+package tc.vom.artNetLighter.infrastructure;
+
+import org.junit.Test;
+import tc.vom.artNetLighter.infrastructure.packets.ArtTimeCode;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link ArtNetTimeCodeChaser}
+ */
+public class ArtNetTimeCodeChaserTest {
+
+    private static final long FRAME = 40000000L;
+    private static final long START = 5000000000L;
+
+    @Test
+    public void testInterpolation() {
+        final ArtNetTimeCodeChaser chaser = new ArtNetTimeCodeChaser();
+        assertFalse("Not locked", chaser.isLocked(ArtNetTimeCodeChaserTest.START));
+        assertEquals("No show time", 0, chaser.getShowTimeNanos(ArtNetTimeCodeChaserTest.START));
+
+        assertTrue("First lock", chaser.update(ArtTimeCode.TypeConstants.EBU, 100, ArtNetTimeCodeChaserTest.START));
+        assertTrue("Locked", chaser.isLocked(ArtNetTimeCodeChaserTest.START + ArtNetTimeCodeChaserTest.FRAME));
+        assertEquals("Between frames", (100 * ArtNetTimeCodeChaserTest.FRAME) + 15000000L, chaser.getShowTimeNanos(ArtNetTimeCodeChaserTest.START + 15000000L));
+
+        // the next frame arrives 1 ms late
+        assertFalse("Same run", chaser.update(ArtTimeCode.TypeConstants.EBU, 101, ArtNetTimeCodeChaserTest.START + ArtNetTimeCodeChaserTest.FRAME + 1000000L));
+        assertEquals("Jitter", 1000000L, chaser.getLastJitterNanos());
+        assertEquals("Smoothed", (101 * ArtNetTimeCodeChaserTest.FRAME) - (1000000L / ArtNetTimeCodeChaser.SMOOTHING) + 1000000L, chaser.getShowTimeNanos(ArtNetTimeCodeChaserTest.START + ArtNetTimeCodeChaserTest.FRAME + 1000000L));
+        assertEquals("Relocations", 1, chaser.getRelocations());
+    }
+
+    @Test
+    public void testMonotonic() {
+        final ArtNetTimeCodeChaser chaser = new ArtNetTimeCodeChaser();
+        chaser.update(ArtTimeCode.TypeConstants.EBU, 100, ArtNetTimeCodeChaserTest.START);
+        final long before = chaser.getShowTimeNanos(ArtNetTimeCodeChaserTest.START + ArtNetTimeCodeChaserTest.FRAME);
+        // the next frame arrives late and pulls the clock back
+        chaser.update(ArtTimeCode.TypeConstants.EBU, 101, ArtNetTimeCodeChaserTest.START + ArtNetTimeCodeChaserTest.FRAME + 8000000L);
+        assertEquals("Does not run backwards", before, chaser.getShowTimeNanos(ArtNetTimeCodeChaserTest.START + ArtNetTimeCodeChaserTest.FRAME));
+        assertTrue("Runs on", chaser.getShowTimeNanos(ArtNetTimeCodeChaserTest.START + (2 * ArtNetTimeCodeChaserTest.FRAME)) > before);
+        assertEquals("Max jitter", 8000000L, chaser.getMaxJitterNanos());
+    }
+
+    @Test
+    public void testRelocate() {
+        final ArtNetTimeCodeChaser chaser = new ArtNetTimeCodeChaser();
+        chaser.update(ArtTimeCode.TypeConstants.EBU, 1000, ArtNetTimeCodeChaserTest.START);
+        assertTrue("Jump back", chaser.update(ArtTimeCode.TypeConstants.EBU, 10, ArtNetTimeCodeChaserTest.START + ArtNetTimeCodeChaserTest.FRAME));
+        assertEquals("Follows the jump", 10 * ArtNetTimeCodeChaserTest.FRAME, chaser.getShowTimeNanos(ArtNetTimeCodeChaserTest.START + ArtNetTimeCodeChaserTest.FRAME));
+        assertTrue("Type change", chaser.update(ArtTimeCode.TypeConstants.SMPTE, 12, ArtNetTimeCodeChaserTest.START + (2 * ArtNetTimeCodeChaserTest.FRAME)));
+        assertEquals("No jitter from locates", 0, chaser.getMaxJitterNanos());
+
+        final long timeout = chaser.getTimeoutNanos();
+        final long stopped = chaser.getShowTimeNanos(ArtNetTimeCodeChaserTest.START + (2 * ArtNetTimeCodeChaserTest.FRAME) + timeout);
+        assertFalse("Dropout", chaser.isLocked(ArtNetTimeCodeChaserTest.START + (2 * ArtNetTimeCodeChaserTest.FRAME) + timeout));
+        assertEquals("Stopped", stopped, chaser.getShowTimeNanos(ArtNetTimeCodeChaserTest.START + (2 * ArtNetTimeCodeChaserTest.FRAME) + (2 * timeout)));
+        assertTrue("Relock", chaser.update(ArtTimeCode.TypeConstants.SMPTE, 13, ArtNetTimeCodeChaserTest.START + (2 * ArtNetTimeCodeChaserTest.FRAME) + (2 * timeout)));
+    }
+}
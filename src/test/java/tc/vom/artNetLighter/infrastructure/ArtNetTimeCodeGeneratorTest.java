@@ -0,0 +1,82 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+
+package tc.vom.artNetLighter.infrastructure;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import tc.vom.artNetLighter.infrastructure.packets.ArtTimeCode;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link ArtNetTimeCodeGenerator}
+ */
+public class ArtNetTimeCodeGeneratorTest {
+
+    private ArtNetReceiver master = null;
+    private ArtNetReceiver slave = null;
+
+    @Before
+    public void setUp() throws Exception {
+        this.master = new ArtNetReceiver(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        this.slave = new ArtNetReceiver(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.master.close();
+        this.slave.close();
+    }
+
+    @Test
+    public void testChase() throws Exception {
+        final ArtNetTimeCodeChaser chaser = new ArtNetTimeCodeChaser(this.slave);
+        this.slave.start();
+        final ArtNetTimeCodeGenerator generator = new ArtNetTimeCodeGenerator(this.master, this.slave.getLocalAddress(), ArtTimeCode.TypeConstants.DF);
+        generator.setPosition(1, 0, 0, 0);
+        final int first = ArtTimeCode.getFrameIndex(ArtTimeCode.TypeConstants.DF, 1, 0, 0, 0);
+
+        generator.start();
+        final long end = System.currentTimeMillis() + 2000;
+        while ((chaser.getPacketsReceived() < 10) && (System.currentTimeMillis() < end)) {
+            Thread.sleep(10);
+        }
+        generator.stop();
+        this.slave.stop();
+
+        assertTrue("Frames sent", generator.getPacketsSent() >= 10);
+        assertEquals("No send errors", 0, generator.getSendErrors());
+        assertTrue("Frames counted on", generator.getFrameIndex() >= (first + 9));
+        assertEquals("Chasing DF", ArtTimeCode.TypeConstants.DF, chaser.getType());
+        assertTrue("Show time after 01:00:00;00", chaser.getShowTimeNanos() >= ArtTimeCode.getFrameTimeNanos(ArtTimeCode.TypeConstants.DF, first + 9));
+
+        final int last = generator.getFrameIndex();
+        generator.start();
+        generator.stop();
+        assertTrue("Continues after the last frame", generator.getFrameIndex() >= last);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPosition() throws Exception {
+        new ArtNetTimeCodeGenerator(this.master, this.slave.getLocalAddress(), ArtTimeCode.TypeConstants.EBU).setPosition(24, 0, 0, 0);
+    }
+}
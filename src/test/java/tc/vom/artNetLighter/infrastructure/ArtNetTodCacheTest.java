@@ -0,0 +1,87 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+
+package tc.vom.artNetLighter.infrastructure;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import tc.vom.artNetLighter.infrastructure.packets.ArtTodData;
+import tc.vom.artNetLighter.infrastructure.packets.ArtTodDataView;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link ArtNetTodCache}
+ */
+public class ArtNetTodCacheTest {
+
+    private static final int GATEWAY = 0x02000001;
+
+    private ArtNetReceiver receiver = null;
+    private ArtNetTodCache todCache = null;
+
+    @Before
+    public void setUp() throws Exception {
+        this.receiver = new ArtNetReceiver(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        this.todCache = new ArtNetTodCache(this.receiver, InetAddress.getByName("127.0.0.1"));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.receiver.close();
+    }
+
+    private static ArtTodDataView createView(final byte commandResponse, final int uidTotal, final int blockCount, final long... uids) {
+        final ArtTodDataView view = new ArtTodDataView();
+        assertTrue("Valid", view.wrap(ByteBuffer.wrap(new ArtTodData(ArtTodData.RdmVersionConstants.RdmStandard1_0, (byte) 1, (byte) 0, commandResponse, (byte) 0x12, uidTotal, (byte) blockCount, uids).constructPacket())));
+        return view;
+    }
+
+    @Test
+    public void testAssembleBlocks() {
+        assertFalse("First block", this.todCache.update(ArtNetTodCacheTest.GATEWAY, ArtNetTodCacheTest.createView(ArtTodData.CommandResponseConstants.TodFull, 3, 0, 0x4a4c00000001L, 0x4a4c00000002L)));
+        assertEquals("Not yet indexed", RdmUidIndex.NOT_FOUND, this.todCache.getPortAddress(0x4a4c00000001L));
+        assertTrue("Last block", this.todCache.update(ArtNetTodCacheTest.GATEWAY, ArtNetTodCacheTest.createView(ArtTodData.CommandResponseConstants.TodFull, 3, 1, 0x4a4c00000003L)));
+        assertEquals("Port Address", 0x12, this.todCache.getPortAddress(0x4a4c00000003L));
+        assertEquals("Gateway", ArtNetTodCacheTest.GATEWAY, this.todCache.getGatewayAddress(0x4a4c00000001L));
+        assertEquals("UIDs", 3, this.todCache.getUidCount());
+        assertEquals("Nothing stale", 0, this.todCache.getStalePortAddresses().length);
+
+        assertTrue("Changed TOD", this.todCache.update(ArtNetTodCacheTest.GATEWAY, ArtNetTodCacheTest.createView(ArtTodData.CommandResponseConstants.TodFull, 1, 0, 0x4a4c00000001L)));
+        assertFalse("Unchanged TOD", this.todCache.update(ArtNetTodCacheTest.GATEWAY, ArtNetTodCacheTest.createView(ArtTodData.CommandResponseConstants.TodFull, 1, 0, 0x4a4c00000001L)));
+        assertEquals("Removed devices dropped", 1, this.todCache.getUidCount());
+        assertEquals("Removed device", RdmUidIndex.NOT_FOUND, this.todCache.getPortAddress(0x4a4c00000003L));
+    }
+
+    @Test
+    public void testStale() throws Exception {
+        this.todCache.update(ArtNetTodCacheTest.GATEWAY, ArtNetTodCacheTest.createView(ArtTodData.CommandResponseConstants.TodFull, 3, 1, 0x4a4c00000003L));
+        assertEquals("Missed block", 1, this.todCache.getBlocksMissed());
+        this.todCache.update(ArtNetTodCacheTest.GATEWAY + 1, ArtNetTodCacheTest.createView(ArtTodData.CommandResponseConstants.TodNak, 0, 0));
+        assertEquals("TodNak", 1, this.todCache.getTodNaksReceived());
+        assertArrayEquals("Same Port Address on two gateways requested once", new int[]{0x12}, this.todCache.getStalePortAddresses());
+
+        assertEquals("Stale port requested", 1, this.todCache.requestStale());
+        assertEquals("Two Nets need two requests", 2, this.todCache.requestTod(0x12, 0x13, 0x112));
+        assertEquals("Requests sent", 3, this.todCache.getRequestsSent());
+    }
+}
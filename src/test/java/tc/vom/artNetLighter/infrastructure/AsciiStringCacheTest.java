@@ -0,0 +1,69 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+
+package tc.vom.artNetLighter.infrastructure;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link AsciiStringCache}
+ */
+public class AsciiStringCacheTest {
+
+    private final AsciiStringCache cache = new AsciiStringCache(4);
+
+    @Test
+    public void testGet() {
+        final byte[] field = {'x', 'N', 'o', 'd', 'e', 0, 'y', 'z'};
+        final String name = this.cache.get(field, 1, 7);
+        assertEquals("Terminated", "Node", name);
+        assertSame("Cached", name, this.cache.get(field.clone(), 1, 7));
+        assertSame("Direct buffer", name, this.cache.get(ByteBuffer.allocateDirect(8).put(field), 1, 7));
+        assertEquals("Without terminator", "Node", this.cache.get(field, 1, 4));
+        assertEquals("Empty", "", this.cache.get(field, 5, 3));
+        field[2] = 'a';
+        assertEquals("Changed", "Nade", this.cache.get(field, 1, 7));
+    }
+
+    @Test
+    public void testDecode() {
+        final byte[] field = {'x', 'N', 'o', 'd', 'e', 0, 'y', 'z'};
+        final String name = AsciiStringCache.decode(field, 1, 7);
+        assertEquals("Terminated", "Node", name);
+        assertNotSame("Not cached", name, AsciiStringCache.decode(field, 1, 7));
+        assertEquals("Direct buffer", "Node", AsciiStringCache.decode(ByteBuffer.allocateDirect(8).put(field), 1, 7));
+        assertEquals("Without terminator", "No", AsciiStringCache.decode(field, 1, 2));
+    }
+
+    @Test
+    public void testNonAscii() {
+        assertEquals("Replacement character", "a" + AsciiStringCache.REPLACEMENT_CHARACTER, this.cache.get(new byte[]{'a', (byte) 0xe4}, 0, 2));
+    }
+
+    @Test
+    public void testSetString() {
+        final byte[] field = {1, 1, 1, 1, 1};
+        ByteArrayToolkit.setString("ab", field, 1, 3);
+        assertArrayEquals("ASCII", new byte[]{1, 'a', 'b', 0, 1}, field);
+        ByteArrayToolkit.setString("\u00e4", field, 1, 3);
+        assertArrayEquals("Non-ASCII", new byte[]{1, '?', 0, 0, 1}, field);
+    }
+}
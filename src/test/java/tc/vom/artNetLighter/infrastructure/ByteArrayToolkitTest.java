@@ -19,6 +19,8 @@ package tc.vom.artNetLighter.infrastructure;
 import org.junit.Test;
 import tc.vom.artNetLighter.infrastructure.packets._ArtNetPacket;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
 
 import static org.junit.Assert.*;
@@ -204,4 +206,31 @@ public class ByteArrayToolkitTest {
         ByteArrayToolkit.setShorts(input, target, 1);
         assertArrayEquals("setShorts", result, target);
     }
+
+    @Test
+    public void testByteBufferFields() {
+        final ByteBuffer[] buffers = {ByteBuffer.allocate(6), ByteBuffer.allocateDirect(6), ByteBuffer.allocate(6).order(ByteOrder.LITTLE_ENDIAN)};
+        for (final ByteBuffer buffer : buffers) {
+            ByteArrayToolkit.set4BytesHighToLow(0x02075a91, buffer, 1);
+            assertEquals("High to low", 0x02075a91, ByteArrayToolkit.get4BytesHighToLow(buffer, 1));
+            assertEquals("First byte", 0x02, buffer.get(1));
+            assertEquals("Low to high", 0x915a0702, ByteArrayToolkit.get4BytesLowToHigh(buffer, 1));
+            ByteArrayToolkit.set2BytesLowToHigh(0x915a, buffer, 0);
+            assertEquals("2 Bytes low to high", 0x915a, ByteArrayToolkit.get2BytesLowToHigh(buffer, 0));
+            assertEquals("2 Bytes high to low", 0x5a91, ByteArrayToolkit.get2BytesHighToLow(buffer, 0));
+            assertEquals("Position unchanged", 0, buffer.position());
+        }
+    }
+
+    @Test
+    public void testByteBufferArrays() {
+        final ByteBuffer[] buffers = {ByteBuffer.allocate(8), ByteBuffer.allocateDirect(8)};
+        for (final ByteBuffer buffer : buffers) {
+            ByteArrayToolkit.setBytes(new byte[]{1, 2, 3}, buffer, 2);
+            assertArrayEquals("Bytes", new byte[]{0, 1, 2, 3}, ByteArrayToolkit.getBytes(buffer, 1, 4));
+            assertEquals("Position kept", 0, buffer.position());
+            ByteArrayToolkit.setShorts(new short[]{0x0102, (short) 0xfffe}, buffer, 4);
+            assertArrayEquals("Shorts", new short[]{0x0102, (short) 0xfffe}, ByteArrayToolkit.getShorts(buffer, 4, 4));
+        }
+    }
 }
@@ -0,0 +1,112 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+
+package tc.vom.artNetLighter.infrastructure;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link ConcurrentDmxUniverse}
+ */
+public class ConcurrentDmxUniverseTest {
+
+    private final ConcurrentDmxUniverse universe = new ConcurrentDmxUniverse();
+
+    @Test
+    public void testSwap() {
+        assertFalse("Nothing written", this.universe.swap());
+        this.universe.write(10, new byte[]{1, 2, 3}, 1, 2);
+        assertTrue("Written", this.universe.swap());
+        assertEquals("Channel 10", 2, this.universe.getSnapshot()[10]);
+        assertEquals("Channel 11", 3, this.universe.getSnapshot()[11]);
+        assertFalse("Unchanged", this.universe.swap());
+    }
+
+    @Test
+    public void testWriteInProgress() {
+        this.universe.write(0, new byte[]{1}, 0, 1);
+        this.universe.swap();
+        this.universe.beginWrite();
+        this.universe.setChannel(0, 7);
+        this.universe.setChannel(1, 8);
+        assertFalse("Nothing completed", this.universe.swap());
+        this.universe.write(2, new byte[]{9}, 0, 1);
+        assertFalse("Write in progress", this.universe.swap());
+        assertEquals("Previous snapshot kept", 1, this.universe.getSnapshot()[0]);
+        assertEquals("Failed swaps", 1, this.universe.getSwapsFailed());
+        this.universe.endWrite();
+        assertTrue("Write completed", this.universe.swap());
+        assertEquals("Channel 0", 7, this.universe.getSnapshot()[0]);
+        assertEquals("Channel 1", 8, this.universe.getSnapshot()[1]);
+        assertEquals("Channel 2", 9, this.universe.getSnapshot()[2]);
+    }
+
+    @Test
+    public void testSwapWaitsForWriter() throws Exception {
+        this.universe.setSwapWaitNanos(10L * ArtNetFrameScheduler.NANOS_PER_SECOND);
+        this.universe.write(0, new byte[]{1}, 0, 1);
+        this.universe.beginWrite();
+        this.universe.setChannel(0, 7);
+        final boolean[] swapped = new boolean[1];
+        final Thread transmitter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                swapped[0] = ConcurrentDmxUniverseTest.this.universe.swap();
+            }
+        });
+        transmitter.start();
+        Thread.sleep(20);
+        this.universe.endWrite();
+        transmitter.join();
+        assertTrue("Swapped after the write completed", swapped[0]);
+        assertEquals("Channel 0", 7, this.universe.getSnapshot()[0]);
+        assertEquals("No failed swaps", 0, this.universe.getSwapsFailed());
+    }
+
+    @Test
+    public void testConcurrentWriters() throws Exception {
+        final Thread[] writers = new Thread[4];
+        for (int w = 0; w < writers.length; w++) {
+            final int channel = w * 2;
+            writers[w] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    final byte[] values = new byte[2];
+                    for (int i = 0; i < 10000; i++) {
+                        values[0] = (byte) i;
+                        values[1] = (byte) i;
+                        ConcurrentDmxUniverseTest.this.universe.write(channel, values, 0, 2);
+                    }
+                }
+            });
+            writers[w].start();
+        }
+        for (int i = 0; i < 1000; i++) {
+            if (this.universe.swap()) {
+                final byte[] snapshot = this.universe.getSnapshot();
+                for (int w = 0; w < writers.length; w++) {
+                    assertEquals("Channel pair written together", snapshot[w * 2], snapshot[(w * 2) + 1]);
+                }
+            }
+        }
+        for (final Thread writer : writers) {
+            writer.join();
+        }
+    }
+}
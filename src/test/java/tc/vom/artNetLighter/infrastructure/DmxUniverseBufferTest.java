@@ -0,0 +1,85 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.infrastructure;
+
+import org.junit.Test;
+import tc.vom.artNetLighter.infrastructure.packets.ArtDmx;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link DmxUniverseBuffer}
+ */
+public class DmxUniverseBufferTest {
+
+    @Test
+    public void testDirtyTracking() {
+        final DmxUniverseBuffer buffer = new DmxUniverseBuffer();
+        assertTrue("New buffer is dirty", buffer.isDirty());
+        buffer.clearDirty();
+        assertFalse("Cleared", buffer.isDirty());
+
+        assertFalse("Same value", buffer.setChannel(10, 0));
+        assertFalse("Still clean", buffer.isDirty());
+        assertTrue("New value", buffer.setChannel(10, 255));
+        assertTrue("New value", buffer.setChannel(300, 1));
+        assertEquals("Value", 255, buffer.getChannel(10));
+        assertTrue("Dirty", buffer.isDirty());
+        assertTrue("Channel 10 dirty", buffer.isDirty(10));
+        assertFalse("Channel 11 clean", buffer.isDirty(11));
+        assertEquals("Dirty from", 10, buffer.getDirtyFrom());
+        assertEquals("Dirty to", 301, buffer.getDirtyTo());
+        assertEquals("Dirty count", 2, buffer.getDirtyCount());
+
+        final byte[] packet = new byte[ArtDmx.MAXIMUM_PACKET_SIZE];
+        ArtDmx.encodeHeader(packet, 0);
+        assertEquals("Encoded", ArtDmx.MAXIMUM_PACKET_SIZE, buffer.encodeArtDmx(packet, 0, (byte) 0, (byte) 0, 7));
+        assertFalse("Clean after encoding", buffer.isDirty());
+        assertFalse("Channel 10 clean after encoding", buffer.isDirty(10));
+        assertEquals("Channel 10 encoded", 255, new ArtDmx(packet).getData(10));
+    }
+
+    @Test
+    public void testSetData() {
+        final DmxUniverseBuffer buffer = new DmxUniverseBuffer();
+        buffer.setChannel(100, 5);
+        buffer.clearDirty();
+        assertEquals("Changed channels", 2, buffer.setData(new byte[]{0, 1, 0}));
+        assertEquals("Channel 100 cleared", 0, buffer.getChannel(100));
+        assertEquals("Changed channels", 0, buffer.setChannels(0, new byte[]{1, 0}, 1, 1));
+        assertEquals("Dirty from", 1, buffer.getDirtyFrom());
+        assertEquals("Dirty to", 101, buffer.getDirtyTo());
+    }
+
+    @Test
+    public void testTrimming() {
+        final DmxUniverseBuffer buffer = new DmxUniverseBuffer();
+        final byte[] packet = new byte[ArtDmx.MAXIMUM_PACKET_SIZE];
+        ArtDmx.encodeHeader(packet, 0);
+        buffer.encodeArtDmx(packet, 0, (byte) 0, (byte) 0, 0, true);
+        assertEquals("Empty universe", ArtDmx.MINIMUM_PACKET_SIZE + 2, buffer.encodeArtDmx(packet, 0, (byte) 0, (byte) 0, 0, true));
+        buffer.setChannel(20, 1);
+        assertEquals("Rounded up to even", ArtDmx.MINIMUM_PACKET_SIZE + 22, buffer.encodeArtDmx(packet, 0, (byte) 0, (byte) 0, 0, true));
+        buffer.setPatchedLength(30);
+        assertEquals("Patched length", ArtDmx.MINIMUM_PACKET_SIZE + 30, buffer.encodeArtDmx(packet, 0, (byte) 0, (byte) 0, 0, true));
+        buffer.setPatchedLength(0);
+        buffer.setChannel(20, 0);
+        assertEquals("Zeros sent once", ArtDmx.MINIMUM_PACKET_SIZE + 30, buffer.encodeArtDmx(packet, 0, (byte) 0, (byte) 0, 0, true));
+        assertEquals("Shrunk", ArtDmx.MINIMUM_PACKET_SIZE + 2, buffer.encodeArtDmx(packet, 0, (byte) 0, (byte) 0, 0, true));
+        assertEquals("Untrimmed", ArtDmx.MAXIMUM_PACKET_SIZE, buffer.encodeArtDmx(packet, 0, (byte) 0, (byte) 0, 0, false));
+    }
+}
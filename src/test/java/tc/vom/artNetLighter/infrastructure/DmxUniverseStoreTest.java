@@ -0,0 +1,53 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+
+package tc.vom.artNetLighter.infrastructure;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link DmxUniverseStore}
+ */
+public class DmxUniverseStoreTest {
+
+    @Test
+    public void testPublish() throws Exception {
+        final DmxUniverseStore store = new DmxUniverseStore();
+        final ConcurrentDmxUniverse universe = store.getUniverse(5);
+        assertSame("Same universe", universe, store.getUniverse(5));
+        store.getUniverse(2);
+        assertArrayEquals("Port Addresses", new int[]{5, 2}, store.getPortAddresses());
+
+        final ArtNetSender sender = new ArtNetSender(0);
+        universe.write(3, new byte[]{9}, 0, 1);
+        assertEquals("One universe written", 1, store.publish(sender));
+        assertEquals("Channel 3", 9, sender.getUniverseBuffer(5).getChannel(3));
+        assertEquals("Nothing new", 0, store.publish(sender));
+
+        universe.setSwapWaitNanos(0);
+        universe.beginWrite();
+        universe.setChannel(3, 10);
+        universe.write(4, new byte[]{11}, 0, 1);
+        assertEquals("Write in progress", 0, store.publish(sender));
+        assertEquals("Stale snapshot reported", 1, sender.getStaleSnapshots());
+        universe.endWrite();
+        assertEquals("Write completed", 1, store.publish(sender));
+        assertEquals("Channel 3 updated", 10, sender.getUniverseBuffer(5).getChannel(3));
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+
+package tc.vom.artNetLighter.infrastructure;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link RdmUidIndex}
+ */
+public class RdmUidIndexTest {
+
+    @Test
+    public void testPutGetRemove() {
+        final RdmUidIndex index = new RdmUidIndex();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("New UID", RdmUidIndex.NOT_FOUND, index.put(0x4a4c00000000L + i, i));
+        }
+        assertEquals("Size", 1000, index.size());
+        assertEquals("Replaced", 7, index.put(0x4a4c00000007L, 8));
+        for (int i = 0; i < 1000; i += 2) {
+            assertEquals("Removed", (i == 7) ? 8 : i, index.remove(0x4a4c00000000L + i));
+        }
+        assertEquals("Size after remove", 500, index.size());
+        for (int i = 1; i < 1000; i += 2) {
+            assertEquals("Still found after backward shift", (i == 7) ? 8 : i, index.get(0x4a4c00000000L + i));
+        }
+        assertFalse("Removed UID", index.contains(0x4a4c00000000L));
+        assertEquals("Unknown UID", RdmUidIndex.NOT_FOUND, index.remove(1));
+        index.clear();
+        assertEquals("Cleared", 0, index.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUidRange() {
+        new RdmUidIndex().put(RdmUidIndex.MAX_UID + 1, 0);
+    }
+}
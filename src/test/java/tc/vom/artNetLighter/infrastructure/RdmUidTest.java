@@ -0,0 +1,54 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+
+package tc.vom.artNetLighter.infrastructure;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link RdmUid}
+ */
+public class RdmUidTest {
+
+    @Test
+    public void testPack() {
+        final RdmUid uid = new RdmUid(0x4a4c, 0x12345678L);
+        assertEquals("Value", 0x4a4c12345678L, uid.getValue());
+        assertEquals("Manufacturer ID", 0x4a4c, uid.getManufacturerId());
+        assertEquals("Device ID", 0x12345678L, uid.getDeviceId());
+        assertEquals("Device ID above 2^31", 0xffffffffL, RdmUid.getDeviceId(RdmUid.BROADCAST));
+        assertEquals("toString", "4a4c:12345678", uid.toString());
+        assertEquals("toString leading zeros", "0001:00000002", RdmUid.toString(0x000100000002L));
+        assertEquals("equals", new RdmUid(0x4a4c12345678L), uid);
+        assertEquals("hashCode", new RdmUid(0x4a4c12345678L).hashCode(), uid.hashCode());
+    }
+
+    @Test
+    public void testReadWrite() {
+        final byte[] bytes = new byte[RdmUid.LENGTH + 1];
+        RdmUid.write(0xfedcba987654L, bytes, 1);
+        assertArrayEquals("Bytes", new byte[]{0, (byte) 0xfe, (byte) 0xdc, (byte) 0xba, (byte) 0x98, 0x76, 0x54}, bytes);
+        assertEquals("Read", 0xfedcba987654L, RdmUid.read(bytes, 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOutOfRange() {
+        new RdmUid(RdmUid.MAX_VALUE + 1);
+    }
+}
@@ -19,6 +19,9 @@ package tc.vom.artNetLighter.infrastructure.packets;
 import org.junit.Test;
 import tc.vom.artNetLighter.infrastructure.constants.ArtNetOpCodes;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
@@ -49,4 +52,36 @@ public class ArtDmxTest {
         final ArtDmx artDmx = new ArtDmx((byte) 0, (byte) 0, 0, ArtDmxTest.captured_data1_dmx);
         assertArrayEquals("Generated packet does not match captured package", ArtDmxTest.captured_data1, artDmx.constructPacket());
     }
+
+    @Test
+    public void testEncodePacket() {
+        final byte[] buffer = new byte[ArtDmx.MAXIMUM_PACKET_SIZE + 4];
+        ArtDmx.encodeHeader(buffer, 4);
+        ArtDmx.encodePacket(buffer, 4, (byte) 1, (byte) 2, 3, new byte[ArtDmx.MAXIMUM_DATA_LENGTH], 0, ArtDmx.MAXIMUM_DATA_LENGTH);
+        final int length = ArtDmx.encodePacket(buffer, 4, (byte) 0, (byte) 0, 0, ArtDmxTest.captured_data1_dmx, 0, ArtDmxTest.captured_data1_dmx.length);
+        assertEquals("Length", ArtDmxTest.captured_data1.length, length);
+        assertArrayEquals("Re-encoded packet does not match captured package", ArtDmxTest.captured_data1, Arrays.copyOfRange(buffer, 4, 4 + length));
+    }
+
+    @Test
+    public void testEncodePacketByteBuffer() {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(ArtDmx.MAXIMUM_PACKET_SIZE);
+        ArtDmx.encodeHeader(buffer, 0);
+        final int length = ArtDmx.encodePacket(buffer, 0, (byte) 0, (byte) 0, 0, ArtDmxTest.captured_data1_dmx, 0, ArtDmxTest.captured_data1_dmx.length);
+        assertEquals("Remaining", length, buffer.remaining());
+        final byte[] result = new byte[length];
+        buffer.get(result);
+        assertArrayEquals("Encoded packet does not match captured package", ArtDmxTest.captured_data1, result);
+    }
+
+    @Test
+    public void testGetTrimmedLength() {
+        final byte[] data = new byte[512];
+        assertEquals("Empty", ArtDmx.MINIMUM_DATA_LENGTH, ArtDmx.getTrimmedLength(data, 0, data.length, 0));
+        data[4] = 1;
+        assertEquals("Odd channel count rounded up", 6, ArtDmx.getTrimmedLength(data, 0, data.length, 0));
+        assertEquals("Minimum length", 10, ArtDmx.getTrimmedLength(data, 0, data.length, 9));
+        data[511] = 1;
+        assertEquals("Full", 512, ArtDmx.getTrimmedLength(data, 0, data.length, 0));
+    }
 }
@@ -0,0 +1,71 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.infrastructure.packets;
+
+import org.junit.Test;
+import tc.vom.artNetLighter.infrastructure.constants.ArtNetOpCodes;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link ArtDmxView}
+ */
+public class ArtDmxViewTest {
+
+    @Test
+    public void testWrapArray() {
+        final ArtDmxView view = new ArtDmxView();
+        assertTrue("Valid", view.wrap(ArtDmxTest.captured_data1, 0, ArtDmxTest.captured_data1.length));
+        assertEquals("OpCode", ArtNetOpCodes.OP_CODE_DMX, view.getOpCode());
+        assertEquals("ProtocolVersion", _VersionedArtNetPacket.PROTOCOL_VERSION, view.getProtocolVersion());
+        assertEquals("Sequence", 0, view.getSequence());
+        assertEquals("PortAddress", 0, view.getPortAddress());
+        assertEquals("Length", 512, view.getDataLength());
+        assertEquals("Channel 9", 0x7f, view.getData(9));
+        final byte[] data = new byte[512];
+        assertEquals("Copied", 512, view.copyData(data, 0));
+        assertArrayEquals("Data", ArtDmxTest.captured_data1_dmx, data);
+        assertEquals("toArtDmx", new ArtDmx(ArtDmxTest.captured_data1), view.toArtDmx());
+    }
+
+    @Test
+    public void testWrapDirectBuffer() {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(ArtDmx.MAXIMUM_PACKET_SIZE + 10);
+        buffer.position(10);
+        buffer.put(ArtDmx.constructPacket((byte) 7, (byte) 1, 0x1234, new byte[]{1, (byte) 200}));
+        buffer.flip();
+        buffer.position(10);
+        final ArtDmxView view = new ArtDmxView();
+        assertTrue("Valid", view.wrap(buffer));
+        assertEquals("Buffer position is unchanged", 10, buffer.position());
+        assertEquals("Sequence", 7, view.getSequence());
+        assertEquals("Physical", 1, view.getPhysical());
+        assertEquals("PortAddress", 0x1234, view.getPortAddress());
+        assertEquals("Length", 2, view.getDataLength());
+        assertEquals("Channel 1", 200, view.getData(1));
+    }
+
+    @Test
+    public void testInvalid() {
+        final ArtDmxView view = new ArtDmxView();
+        assertFalse("ArtPollReply is no ArtDmx", view.wrap(ArtPollReplyTest.captured_data1, 0, ArtPollReplyTest.captured_data1.length));
+        assertFalse("Truncated packet", view.wrap(ArtDmxTest.captured_data1, 0, 100));
+        assertFalse("No Art-Net ID", view.wrap(ArtDmxTest.captured_data1, 1, 100));
+    }
+}
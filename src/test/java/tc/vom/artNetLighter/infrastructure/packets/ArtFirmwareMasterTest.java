@@ -0,0 +1,83 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+
+package tc.vom.artNetLighter.infrastructure.packets;
+
+import org.junit.Test;
+import tc.vom.artNetLighter.infrastructure.constants.ArtNetOpCodes;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link ArtFirmwareMaster}
+ */
+public class ArtFirmwareMasterTest {
+
+    private static final short[] WORDS = {0x0102, (short) 0xfffe, 0x7f80};
+    private static final byte[] BYTES = {0x55, 0x01, 0x02, (byte) 0xff, (byte) 0xfe, 0x7f, (byte) 0x80};
+
+    @Test
+    public void testByteRange() {
+        final ArtFirmwareMaster fromWords = new ArtFirmwareMaster(ArtFirmwareMaster.TypeConstants.FirmFirst, (byte) 0, 0x212, ArtFirmwareMasterTest.WORDS);
+        final ArtFirmwareMaster fromBytes = new ArtFirmwareMaster(ArtFirmwareMaster.TypeConstants.FirmFirst, (byte) 0, 0x212, ArtFirmwareMasterTest.BYTES, 1, 6);
+        assertEquals("Same block", fromWords, fromBytes);
+        assertArrayEquals("Words", ArtFirmwareMasterTest.WORDS, fromBytes.getData());
+        assertEquals("Byte length", 6, fromBytes.getDataByteLength());
+        final byte[] copy = new byte[7];
+        assertEquals("Copied", 6, fromWords.copyData(copy, 1));
+        assertArrayEquals("Bytes", Arrays.copyOfRange(ArtFirmwareMasterTest.BYTES, 1, 7), Arrays.copyOfRange(copy, 1, 7));
+        assertArrayEquals("Same packet", fromWords.constructPacket(), fromBytes.constructPacket());
+    }
+
+    @Test
+    public void testParse() {
+        final byte[] packet = new ArtFirmwareMaster(ArtFirmwareMaster.TypeConstants.FirmLast, (byte) 7, 0x212, ArtFirmwareMasterTest.BYTES, 1, 6).constructPacket();
+        assertEquals("Packet length", ArtFirmwareMaster.MINIMUM_PACKET_LENGTH + 6, packet.length);
+        final ArtFirmwareMaster parsed = new ArtFirmwareMaster(packet);
+        assertEquals("OpCode", ArtNetOpCodes.OP_CODE_FIRMWARE_MASTER, parsed.getOpCode());
+        assertEquals("Type", ArtFirmwareMaster.TypeConstants.FirmLast, parsed.getType());
+        assertEquals("Block", 7, parsed.getBlockId());
+        assertEquals("Firmware length", 0x212, parsed.getFirmwareLength());
+        assertArrayEquals("Words", ArtFirmwareMasterTest.WORDS, parsed.getData());
+    }
+
+    @Test
+    public void testEncodePacket() {
+        final byte[] expected = new ArtFirmwareMaster(ArtFirmwareMaster.TypeConstants.FirmCont, (byte) 1, 0x212, ArtFirmwareMasterTest.WORDS).constructPacket();
+        final byte[] buffer = new byte[ArtFirmwareMaster.MAXIMUM_PACKET_LENGTH + 2];
+        Arrays.fill(buffer, (byte) 0x33);
+        ArtFirmwareMaster.encodeHeader(buffer, 2);
+
+        assertEquals("Length from array", expected.length, ArtFirmwareMaster.encodePacket(buffer, 2, ArtFirmwareMaster.TypeConstants.FirmCont, (byte) 1, 0x212, ArtFirmwareMasterTest.BYTES, 1, 6));
+        assertArrayEquals("Packet from array", expected, Arrays.copyOfRange(buffer, 2, 2 + expected.length));
+
+        final ByteBuffer image = ByteBuffer.allocateDirect(ArtFirmwareMasterTest.BYTES.length);
+        image.put(ArtFirmwareMasterTest.BYTES);
+        image.limit(7).position(1);
+        assertEquals("Length from buffer", expected.length, ArtFirmwareMaster.encodePacket(buffer, 2, ArtFirmwareMaster.TypeConstants.FirmCont, (byte) 1, 0x212, image));
+        assertArrayEquals("Packet from buffer", expected, Arrays.copyOfRange(buffer, 2, 2 + expected.length));
+        assertEquals("Block consumed", 0, image.remaining());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOddLength() {
+        new ArtFirmwareMaster(ArtFirmwareMaster.TypeConstants.FirmCont, (byte) 1, 0x212, ArtFirmwareMasterTest.BYTES, 0, 7);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.infrastructure.packets;
+
+import org.junit.Test;
+import tc.vom.artNetLighter.infrastructure.constants.ArtNetOpCodes;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link ArtNetPacketDecoderRegistry}
+ */
+public class ArtNetPacketDecoderRegistryTest {
+
+    @Test
+    public void testDefaultDecoders() {
+        final ArtNetPacketDecoderRegistry registry = ArtNetPacketDecoderRegistry.getDefault();
+        assertEquals("ArtDmx", new ArtDmx(ArtDmxTest.captured_data1), registry.decode(ArtDmxTest.captured_data1));
+        final byte[] poll = ArtPoll.constructPacket((byte) ArtPoll.TALK_TO_ME_USE_UNICAST, (byte) 0);
+        assertEquals("ArtPoll", new ArtPoll(poll), registry.decode(poll));
+        assertEquals("parsePacket", new ArtPoll(poll), _ArtNetPacket.parsePacket(poll));
+    }
+
+    @Test
+    public void testUnknownOpCode() {
+        final byte[] packet = _ArtNetPacket.constructUnversionedPacket(_ArtNetPacket.SHORT_HEADER_LENGTH, 0x7f00);
+        assertNull("Unknown OpCode", ArtNetPacketDecoderRegistry.getDefault().decode(packet));
+        assertNull("No Art-Net packet", ArtNetPacketDecoderRegistry.getDefault().decode(new byte[]{'A', 'r', 't'}));
+        try {
+            _ArtNetPacket.parsePacket(packet);
+            fail("parsePacket accepted an unknown OpCode");
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+
+    @Test
+    public void testCustomDecoder() {
+        final ArtNetPacketDecoderRegistry registry = ArtNetPacketDecoderRegistry.createDefault();
+        final ArtPoll decoded = new ArtPoll((byte) 0, (byte) 0);
+        assertNotNull("Replaced decoder", registry.register(ArtNetOpCodes.OP_CODE_POLL, new ArtNetPacketDecoder() {
+            @Override
+            public _ArtNetPacket decode(final byte[] data) {
+                return decoded;
+            }
+        }));
+        final byte[] poll = ArtPoll.constructPacket((byte) 2, (byte) 0);
+        assertSame("Custom decoder", decoded, registry.decode(poll));
+
+        registry.ignore(ArtNetOpCodes.OP_CODE_DMX);
+        assertFalse("DMX handled", registry.isHandled(ArtNetOpCodes.OP_CODE_DMX));
+        assertNull("DMX ignored", registry.decode(ArtDmxTest.captured_data1));
+
+        registry.unregister(ArtNetOpCodes.OP_CODE_POLL);
+        assertNull("Poll unregistered", registry.decode(poll));
+        assertTrue("Default registry unchanged", ArtNetPacketDecoderRegistry.getDefault().isHandled(ArtNetOpCodes.OP_CODE_DMX));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testDefaultIsUnmodifiable() {
+        ArtNetPacketDecoderRegistry.getDefault().ignore(ArtNetOpCodes.OP_CODE_DMX);
+    }
+}
@@ -79,6 +79,27 @@ public class ArtPollReplyTest {
         assertArrayEquals(ArtPollReplyTest.cleaned_data1, actual);
     }
 
+    private static byte[] constructPacket(final String shortName, final String longName, final String nodeReport) {
+        return ArtPollReply.constructPacket(1, 0x1936, 0x0101, (byte) 0, (byte) 0, 0x0190, (byte) 0, (byte) 0, 0, shortName, longName, nodeReport, 1, new byte[4], new byte[4], new byte[4], new byte[4], new byte[4], (byte) 0, (byte) 0, (byte) 0, ArtPollReply.SPARE_BYTES, (byte) 0, new byte[6], 1, (byte) 1, (byte) 0, ArtPollReply.FILLER_BYTES);
+    }
+
+    @Test
+    public void testConstructPacketNames() throws Exception {
+        final byte[] fromStrings = ArtPollReplyTest.constructPacket("Node", "Long \u00e4", "#0001 [0001] Power On");
+        final byte[] fromBytes = ArtPollReply.constructPacket(1, 0x1936, 0x0101, (byte) 0, (byte) 0, 0x0190, (byte) 0, (byte) 0, 0, "Node".getBytes(_ArtNetPacket.STRING_CHARSET), "Long \u00e4".getBytes(_ArtNetPacket.STRING_CHARSET), "#0001 [0001] Power On".getBytes(_ArtNetPacket.STRING_CHARSET), 1, new byte[4], new byte[4], new byte[4], new byte[4], new byte[4], (byte) 0, (byte) 0, (byte) 0, ArtPollReply.SPARE_BYTES, (byte) 0, new byte[6], 1, (byte) 1, (byte) 0, ArtPollReply.FILLER_BYTES);
+        assertArrayEquals("Same packet", fromBytes, fromStrings);
+        final ArtPollReply artPollReply = new ArtPollReply(fromStrings);
+        assertEquals("ShortName", "Node", artPollReply.getShortName());
+        assertEquals("LongName", "Long ?", artPollReply.getLongName());
+        assertEquals("NodeReport", "#0001 [0001] Power On", artPollReply.getNodeReport());
+        assertEquals("Null names", "", new ArtPollReply(ArtPollReplyTest.constructPacket(null, null, null)).getShortName());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testShortNameTooLong() throws Exception {
+        ArtPollReplyTest.constructPacket("18 characters long", "", "");
+    }
+
     @Test
     public void testEquals() throws Exception {
         assertEquals(new ArtPollReply(ArtPollReplyTest.captured_data1), new ArtPollReply(ArtPollReplyTest.cleaned_data1));
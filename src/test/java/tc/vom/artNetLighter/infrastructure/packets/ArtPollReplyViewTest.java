@@ -0,0 +1,56 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+package tc.vom.artNetLighter.infrastructure.packets;
+
+import org.junit.Test;
+import tc.vom.artNetLighter.infrastructure.constants.ArtNetOpCodes;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for {@link ArtPollReplyView}
+ */
+public class ArtPollReplyViewTest {
+
+    @Test
+    public void testWrap() {
+        final ArtPollReplyView view = new ArtPollReplyView();
+        assertTrue("Valid", view.wrap(ArtPollReplyTest.captured_data1, 0, ArtPollReplyTest.captured_data1.length));
+        assertEquals("OpCode", ArtNetOpCodes.OP_CODE_POLL_REPLY, view.getOpCode());
+        assertEquals("IP Address", (2 << 24) | (7 << 16) | (90 << 8) | (145), view.getIpAddress());
+        assertEquals("Port", 0x1936, view.getPort());
+        assertEquals("Version Info", 0x0101, view.getVersionInfo());
+        assertEquals("Oem", 0x0190, view.getOem());
+        assertEquals("Status1", 0x02, view.getStatus1());
+        assertEquals("ShortName", "M. Vill Enttec OD", view.getShortName());
+        assertEquals("LongName", "M. Vill Enttec ODE", view.getLongName());
+        assertEquals("NodeReport", "", view.getNodeReport());
+        assertEquals("NumPorts", 1, view.getNumPorts());
+        assertEquals("PortType 0", (byte) 0x80, view.getPortType(0));
+        assertEquals("GoodOutput 0", (byte) 0x80, view.getGoodOutput(0));
+        assertEquals("UniverseIn 0", 0xc, view.getUniverseIn(0));
+        assertEquals("PortAddressIn 0", 0xc, view.getPortAddressIn(0));
+        assertEquals("PortAddressOut 0", 0, view.getPortAddressOut(0));
+        final byte[] macAddress = new byte[ArtPollReply.MAC_ADDRESS_LENGTH];
+        view.copyMacAddress(macAddress, 0);
+        assertArrayEquals("Mac Address", new byte[]{0x32, 0x31, (byte) 0x82, (byte) 0x81, 0x01, 0x02}, macAddress);
+        assertEquals("BindIndex", 0, view.getBindIndex());
+        assertEquals("toArtPollReply", new ArtPollReply(ArtPollReplyTest.captured_data1), view.toArtPollReply());
+    }
+}
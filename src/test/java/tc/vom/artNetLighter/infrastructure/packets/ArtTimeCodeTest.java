@@ -0,0 +1,70 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+
+package tc.vom.artNetLighter.infrastructure.packets;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link ArtTimeCode}
+ */
+public class ArtTimeCodeTest {
+
+    private static void assertLabel(final String message, final byte type, final int frameIndex, final int hours, final int minutes, final int seconds, final int frames) {
+        final byte[] packet = new byte[ArtTimeCode.PACKET_LENGTH];
+        ArtTimeCode.encodeHeader(packet, 0);
+        ArtTimeCode.encodePacket(packet, 0, type, frameIndex);
+        assertEquals(message, new ArtTimeCode((byte) frames, (byte) seconds, (byte) minutes, (byte) hours, type), new ArtTimeCode(packet));
+        assertEquals(message + " index", frameIndex, ArtTimeCode.getFrameIndex(type, hours, minutes, seconds, frames));
+    }
+
+    @Test
+    public void testFrameIndex() {
+        ArtTimeCodeTest.assertLabel("EBU", ArtTimeCode.TypeConstants.EBU, (3600 * 25) + 26, 1, 0, 1, 1);
+        ArtTimeCodeTest.assertLabel("Film", ArtTimeCode.TypeConstants.Film, 23, 0, 0, 0, 23);
+        ArtTimeCodeTest.assertLabel("DF before drop", ArtTimeCode.TypeConstants.DF, 1799, 0, 0, 59, 29);
+        ArtTimeCodeTest.assertLabel("DF drops 0 and 1", ArtTimeCode.TypeConstants.DF, 1800, 0, 1, 0, 2);
+        ArtTimeCodeTest.assertLabel("DF keeps every tenth minute", ArtTimeCode.TypeConstants.DF, 17982, 0, 10, 0, 0);
+        ArtTimeCodeTest.assertLabel("DF last frame", ArtTimeCode.TypeConstants.DF, ArtTimeCode.getFramesPerDay(ArtTimeCode.TypeConstants.DF) - 1, 23, 59, 59, 29);
+    }
+
+    @Test
+    public void testFrameTime() {
+        assertEquals("30 DF frames", 1001000000L, ArtTimeCode.getFrameTimeNanos(ArtTimeCode.TypeConstants.DF, 30));
+        assertEquals("One DF frame", 33366666L, ArtTimeCode.getFrameTimeNanos(ArtTimeCode.TypeConstants.DF, 1));
+        assertEquals("01:00:00;00 DF is 3.6 ms short of an hour", 3599996400000L, ArtTimeCode.getFrameTimeNanos(ArtTimeCode.TypeConstants.DF, ArtTimeCode.getFrameIndex(ArtTimeCode.TypeConstants.DF, 1, 0, 0, 0)));
+        assertEquals("Film", 41666666L, ArtTimeCode.getFrameTimeNanos(ArtTimeCode.TypeConstants.Film, 1));
+        assertEquals("A day of EBU", 86400L * 1000000000L, ArtTimeCode.getFrameTimeNanos(ArtTimeCode.TypeConstants.EBU, ArtTimeCode.getFramesPerDay(ArtTimeCode.TypeConstants.EBU)));
+    }
+
+    @Test
+    public void testView() {
+        final ArtTimeCodeView view = new ArtTimeCodeView();
+        assertTrue("Valid", view.wrap(ByteBuffer.wrap(new ArtTimeCode((byte) 2, (byte) 0, (byte) 1, (byte) 0, ArtTimeCode.TypeConstants.DF).constructPacket())));
+        assertEquals("Type", ArtTimeCode.TypeConstants.DF, view.getType());
+        assertEquals("Frame index", 1800, view.getFrameIndex());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownType() {
+        ArtTimeCode.getFramesPerSecond(4);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Dieses Werk ist unter einer Creative Commons Lizenz vom Typ Namensnennung - Weitergabe unter gleichen Bedingungen 3.0 Deutschland zugänglich. Um eine Kopie dieser Lizenz einzusehen, konsultieren Sie http://creativecommons.org/licenses/by-sa/3.0/de/ oder wenden Sie sich brieflich an Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Autor des "ArtNetLighter" ist Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * This work is licensed under the Creative Commons Attribution-ShareAlike 3.0 Germany License. To view a copy of this license, visit http://creativecommons.org/licenses/by-sa/3.0/de/ or send a letter to Creative Commons, 444 Castro Street, Suite 900, Mountain View, California, 94041, USA.
+ *
+ * Author of "ArtNetLighter" is Matthias Vill http://vom.tc/
+ *
+ * --
+ *
+ * Art-Net™ Designed by and Copyright Artistic Licence Holdings Ltd
+ */
+
+
+package tc.vom.artNetLighter.infrastructure.packets;
+
+import org.junit.Test;
+import tc.vom.artNetLighter.infrastructure.RdmUid;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link ArtTodData}
+ */
+public class ArtTodDataTest {
+
+    private static final long[] UIDS = {0x4a4c00000001L, 0x4a4c12345678L, RdmUid.MAX_VALUE};
+
+    @Test
+    public void testRoundTrip() {
+        final ArtTodData todData = new ArtTodData(ArtTodData.RdmVersionConstants.RdmStandard1_0, (byte) 1, (byte) 0, ArtTodData.CommandResponseConstants.TodFull, (byte) 0x12, 3, (byte) 0, ArtTodDataTest.UIDS);
+        final byte[] packet = todData.constructPacket();
+        assertEquals("Packet length", ArtTodData.MINIMUM_PACKET_LENGTH + (3 * ArtTodData.UID_LENGTH), packet.length);
+        assertEquals("Manufacturer ID High-Byte first", 0x4a, packet[ArtTodData.START_TABLE_OF_DEVICES]);
+
+        final ArtTodData parsed = new ArtTodData(packet);
+        assertEquals("UID count", 3, parsed.getUidCount());
+        assertArrayEquals("UIDs", ArtTodDataTest.UIDS, parsed.getUids());
+        assertEquals("UID", 0x4a4c12345678L, parsed.getUid(1));
+        assertEquals("equals", todData, parsed);
+        assertEquals("hashCode", todData.hashCode(), parsed.hashCode());
+    }
+
+    @Test
+    public void testTableOfDevices() {
+        final byte[][] tableOfDevices = {{0x4a, 0x4c, 0x12, 0x34, 0x56, 0x78}};
+        final ArtTodData todData = new ArtTodData(ArtTodData.RdmVersionConstants.RdmStandard1_0, (byte) 1, (byte) 0, ArtTodData.CommandResponseConstants.TodFull, (byte) 0, 1, (byte) 0, tableOfDevices);
+        assertEquals("Packed UID", 0x4a4c12345678L, todData.getUid(0));
+        assertArrayEquals("Table of devices", tableOfDevices[0], todData.getTableOfDevices()[0]);
+        assertArrayEquals("Same packet", new ArtTodData(ArtTodData.RdmVersionConstants.RdmStandard1_0, (byte) 1, (byte) 0, ArtTodData.CommandResponseConstants.TodFull, (byte) 0, 1, (byte) 0, new long[]{0x4a4c12345678L}).constructPacket(), todData.constructPacket());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testShortUid() {
+        new ArtTodData(ArtTodData.RdmVersionConstants.RdmStandard1_0, (byte) 1, (byte) 0, ArtTodData.CommandResponseConstants.TodFull, (byte) 0, 1, (byte) 0, new byte[][]{{1, 2, 3}});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTruncatedPacket() {
+        final byte[] packet = new ArtTodData(ArtTodData.RdmVersionConstants.RdmStandard1_0, (byte) 1, (byte) 0, ArtTodData.CommandResponseConstants.TodFull, (byte) 0, 3, (byte) 0, ArtTodDataTest.UIDS).constructPacket();
+        final byte[] truncated = new byte[packet.length - 1];
+        System.arraycopy(packet, 0, truncated, 0, truncated.length);
+        new ArtTodData(truncated);
+    }
+}